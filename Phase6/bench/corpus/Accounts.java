@@ -0,0 +1,31 @@
+import Io;
+
+public class Accounts {
+    public long total;
+    public static double scale = 2.5;
+
+    public Accounts(long t) {
+        total = t;
+    }
+
+    public long add(long a, int b) {
+        total = total + a * b;
+        return total;
+    }
+
+    public static double mix(double a, long b, int c) {
+        return a * scale + b - c;
+    }
+
+    public static void main(String args[]) {
+        Accounts c = new Accounts((long)3);
+        long r = c.add((long)4, 5);
+        Io.println(r);
+        Io.println(mix(1.5, r, 2));
+        int i = 0;
+        while (i < 3) {
+            i = i + 1;
+        }
+        Io.println(i);
+    }
+}
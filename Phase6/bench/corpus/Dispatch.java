@@ -0,0 +1,24 @@
+import Io;
+
+class A {
+    public int f(int n) { int s = 0; for (int i=0; i<n; i++) { if (i == 3) continue; s = s + i; } return s; }
+}
+class B extends A {
+    public int f(int n) { int s = 0; while (n > 0) { switch (n) { case 1: s = s + 10; break; case 2: s = s + 20; break; default: s++; } n--; } return s; }
+}
+class C {
+    public static int g(int x) { int r = 1; do { r = r * 2; x--; if (r > 100) break; } while (x > 0); return r; }
+}
+class D {
+    public String h(String s) { switch (s) { case "a": return "A"; case "b": return "B"; } return "?"; }
+}
+public class Dispatch {
+    public static void main(String args[]) {
+	A a = new A(); A b = new B();
+	Io.println(a.f(6));
+	Io.println(b.f(5));
+	Io.println(C.g(10));
+	D d = new D();
+	Io.println(d.h("a")); Io.println(d.h("b")); Io.println(d.h("c"));
+    }
+}
@@ -0,0 +1,30 @@
+import Io;
+
+public class Loops {
+    public static int sum(int n) {
+        int s = 0;
+        int i;
+        for (i = 0; i < n; i++) {
+            s = s + i;
+        }
+        return s;
+    }
+
+    public static void main(String args[]) {
+        int x = 5;
+        double d = (double)x;
+        while (true) {
+            x = x - 1;
+            if (x < 2)
+                break;
+        }
+        switch (x) {
+        case 1: Io.println(1); break;
+        case 10: Io.println(10); break;
+        case 2: Io.println(2); break;
+        default: Io.println(0);
+        }
+        Io.println(sum(x));
+        Io.println(d);
+    }
+}
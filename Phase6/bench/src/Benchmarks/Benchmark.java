@@ -0,0 +1,31 @@
+package Benchmarks;
+
+/**
+ * A benchmark of one part of the compiler. For each operation {@link #setup}
+ * is called first and is not measured, then {@link #run} is called and
+ * timed. Both get the source file the operation is on.
+ */
+public abstract class Benchmark {
+
+    /** The name used in the results and with -only. */
+    public final String name;
+    /** What the value returned by {@link #run} counts (e.g. "tokens"). */
+    public final String unit;
+
+    protected Benchmark(String name, String unit) {
+	this.name = name;
+	this.unit = unit;
+    }
+
+    /**
+     * Prepares the next operation (not measured).
+     */
+    public void setup(SourceFile file) throws Exception {
+    }
+
+    /**
+     * Runs one operation.
+     * @return The number of units processed.
+     */
+    public abstract int run(SourceFile file) throws Exception;
+}
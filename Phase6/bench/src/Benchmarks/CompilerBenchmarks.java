@@ -0,0 +1,164 @@
+package Benchmarks;
+
+import AST.*;
+import CodeGenerator.*;
+import Parser.*;
+import Phases.*;
+import Scanner.Scanner;
+import Utilities.CompilationContext;
+import Utilities.Error;
+import java.util.Vector;
+
+/**
+ * The benchmarks of the compiler: the scanner, the parser, each of the
+ * checking phases, the code generator and the writing of the output files.
+ *
+ * A phase is benchmarked by running the phases before it in the setup
+ * (on a fresh parse of the file and its imports) and then running only
+ * that phase, using the run level bits of the phases.
+ */
+public class CompilerBenchmarks {
+
+    /** The context the benchmarks compile in. */
+    static CompilationContext context = new CompilationContext();
+
+    public static Vector<Benchmark> all() {
+	Vector<Benchmark> v = new Vector<Benchmark>();
+	v.addElement(new ScannerBenchmark());
+	v.addElement(new ParserBenchmark());
+	v.addElement(new PhaseBenchmark("nameChecker", 0x0003, 0x0004));
+	v.addElement(new PhaseBenchmark("typeChecker", 0x0007, 0x0008));
+	v.addElement(new PhaseBenchmark("modifierChecker", 0x000F, 0x0010));
+	v.addElement(new PhaseBenchmark("codeGenerator", 0x001F, 0x0020));
+	v.addElement(new PhaseBenchmark("optimizer", 0x003F, 0x0040));
+	v.addElement(new WriteBenchmark("writeFiles", false));
+	v.addElement(new WriteBenchmark("writeClassFiles", true));
+	return v;
+    }
+
+    // parser: makes a parser for a file after resetting the global state.
+    static parser parser(SourceFile file) {
+	Phase.reset(context);
+	Error.setFileName(file.path);
+	return new parser(new Scanner(file.reader()), context);
+    }
+
+    // compile: runs the phases selected by runLevel on a fresh parse of the
+    //          file. Imports are parsed again as the phases change them.
+    static void compile(SourceFile file, int runLevel) {
+	Phase.clearImportCache(context);
+	new Phase7(context).execute(parser(file), 0, runLevel);
+    }
+
+    // writeClassFiles: compiles the file and writes its class files,
+    //                  optimized or not, to the current directory.
+    static void writeClassFiles(SourceFile file, boolean optimized) {
+	compile(file, optimized ? 0x007F : 0x003F);
+	Sequence types = ((Compilation)context.root).types();
+	for (int i=0; i<types.nchildren; i++) {
+	    ClassDecl cd = (ClassDecl)types.children[i];
+	    if (cd.generateCode() && cd.classFile != null)
+		WriteClassFiles.writeFile(cd, optimized, context.settings);
+	}
+    }
+
+    // ScannerBenchmark: scans the file; counts tokens.
+    static class ScannerBenchmark extends Benchmark {
+	private Scanner scanner;
+
+	ScannerBenchmark() {
+	    super("scanner", "tokens");
+	}
+
+	public void setup(SourceFile file) {
+	    scanner = new Scanner(file.reader());
+	}
+
+	public int run(SourceFile file) throws Exception {
+	    int tokens = 0;
+	    while (scanner.next_token().sym != sym.EOF)
+		tokens++;
+	    return tokens;
+	}
+    }
+
+    // ParserBenchmark: parses the file; counts parse tree nodes. The import
+    //                  files are parsed once and then taken from the cache.
+    static class ParserBenchmark extends Benchmark {
+	private parser p;
+
+	ParserBenchmark() {
+	    super("parser", "nodes");
+	}
+
+	public void setup(SourceFile file) {
+	    p = parser(file);
+	}
+
+	public int run(SourceFile file) throws Exception {
+	    new Phase1(context).execute(p, 0, 0x0001);
+	    return countNodes(context.root);
+	}
+
+	private static int countNodes(AST a) {
+	    if (a == null)
+		return 0;
+	    int count = 1;
+	    for (int i=0; i<a.nchildren; i++)
+		count += countNodes(a.children[i]);
+	    return count;
+	}
+    }
+
+    // PhaseBenchmark: runs the phases of setupLevel in the setup and the
+    //                 phase of runLevel in the benchmark; counts lines.
+    static class PhaseBenchmark extends Benchmark {
+	private int setupLevel, runLevel;
+
+	PhaseBenchmark(String name, int setupLevel, int runLevel) {
+	    super(name, "lines");
+	    this.setupLevel = setupLevel;
+	    this.runLevel = runLevel;
+	}
+
+	public void setup(SourceFile file) {
+	    compile(file, setupLevel);
+	}
+
+	public int run(SourceFile file) {
+	    new Phase7(context).execute(null, 0, runLevel);
+	    return file.lines;
+	}
+    }
+
+    // WriteBenchmark: writes the Jasmin or class files of the classes of the
+    //                 file to the current directory; counts classes.
+    static class WriteBenchmark extends Benchmark {
+	private boolean classFiles;
+
+	WriteBenchmark(String name, boolean classFiles) {
+	    super(name, "classes");
+	    this.classFiles = classFiles;
+	}
+
+	public void setup(SourceFile file) {
+	    compile(file, 0x003F);
+	}
+
+	public int run(SourceFile file) {
+	    int count = 0;
+	    Sequence types = ((Compilation)context.root).types();
+	    for (int i=0; i<types.nchildren; i++) {
+		ClassDecl cd = (ClassDecl)types.children[i];
+		if (!cd.generateCode() || cd.classFile == null)
+		    continue;
+		if (classFiles)
+		    WriteClassFiles.writeFile(cd, false, context.settings);
+		else
+		    WriteFiles.writeFile(cd, false, context.settings);
+		count++;
+	    }
+	    return count;
+	}
+    }
+}
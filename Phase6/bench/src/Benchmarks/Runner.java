@@ -0,0 +1,211 @@
+package Benchmarks;
+
+import Phases.Phase;
+import java.io.*;
+import java.util.*;
+
+/**
+ * Runs the compiler benchmarks over a corpus of Espresso files:
+ *
+ *   java Benchmarks.Runner [-I dir] [-L dir] [-corpus file|dir]... [-generate options]...
+ *                          [-only name,...] [-warmup n] [-iterations n] [-time ms]
+ *
+ * -generate adds a program made by {@link WorkloadGenerator} from options
+ * like "classes=100,depth=8" to the corpus.
+ *
+ * With -L (the directory of the compiled Espresso library) each file of
+ * the corpus is first compiled to class files, optimized and not, and
+ * run on a JVM, which verifies them. A file that does not verify or run
+ * is reported and left out of the benchmarks.
+ *
+ * Each benchmark is run on each file of the corpus: first the warmup
+ * iterations, whose results are thrown away, then the measured ones.
+ * An iteration runs operations until -time milliseconds have passed;
+ * its score is the number of operations per second of measured time
+ * (time spent in the setup of an operation does not count).
+ *
+ * The compiler writes output files to the current directory, so this
+ * should be run in a scratch directory (ant bench does that).
+ */
+public class Runner {
+
+    private static int warmup = 3;
+    private static int iterations = 5;
+    private static long iterationTime = 1000;
+    private static String libDir = null;
+
+    // the result of an iteration
+    private static class Score {
+	double ops;   // operations per second
+	double units; // units per second
+    }
+
+    public static void main(String argv[]) throws Exception {
+	Vector<SourceFile> corpus = new Vector<SourceFile>();
+	HashSet<String> only = null;
+	for (int i=0; i<argv.length; i++) {
+	    if (argv[i].equals("-I"))
+		CompilerBenchmarks.context.settings.includeDir = argv[++i];
+	    else if (argv[i].equals("-L"))
+		libDir = argv[++i];
+	    else if (argv[i].equals("-corpus"))
+		addFiles(corpus, new File(argv[++i]));
+	    else if (argv[i].equals("-generate")) {
+		WorkloadGenerator g = new WorkloadGenerator();
+		g.setAll(argv[++i]);
+		corpus.addElement(new SourceFile(g.name + ".java", g.generate()));
+	    } else if (argv[i].equals("-only"))
+		only = new HashSet<String>(Arrays.asList(argv[++i].split(",")));
+	    else if (argv[i].equals("-warmup"))
+		warmup = Integer.parseInt(argv[++i]);
+	    else if (argv[i].equals("-iterations"))
+		iterations = Integer.parseInt(argv[++i]);
+	    else if (argv[i].equals("-time"))
+		iterationTime = Long.parseLong(argv[++i]);
+	    else {
+		System.out.println("Unknown option: " + argv[i]);
+		System.out.println("Usage: Benchmarks.Runner [-I dir] [-L dir] [-corpus file|dir]... [-generate options]... [-only name,...] [-warmup n] [-iterations n] [-time ms]");
+		System.exit(1);
+	    }
+	}
+	if (corpus.size() == 0) {
+	    System.out.println("No corpus files given.");
+	    System.exit(1);
+	}
+
+	CompilerBenchmarks.context.phase = 7;
+	// an error in a corpus file fails the benchmark, not the run
+	Utilities.Error.exitOnError = false;
+
+	PrintStream stdout = System.out;
+	PrintStream quiet = new PrintStream(new OutputStream() {
+		public void write(int b) { }
+		public void write(byte b[], int off, int len) { }
+	    });
+
+	if (libDir != null) {
+	    Vector<SourceFile> runs = new Vector<SourceFile>();
+	    for (SourceFile file : corpus) {
+		System.setOut(quiet);
+		String failure;
+		try {
+		    failure = run(file);
+		} catch (Exception e) {
+		    failure = e.toString();
+		    Phase.clearImportCache(CompilerBenchmarks.context);
+		} finally {
+		    System.setOut(stdout);
+		}
+		if (failure == null)
+		    runs.addElement(file);
+		else
+		    stdout.println(String.format("%-20s does not run: %s", file.name, failure));
+	    }
+	    corpus = runs;
+	}
+
+	stdout.println(String.format("%-16s %-20s %4s %14s %12s %16s %10s",
+				     "Benchmark", "File", "Cnt", "Score (ops/s)", "Stddev", "Units/s", "Unit"));
+	for (Benchmark b : CompilerBenchmarks.all()) {
+	    if (only != null && !only.contains(b.name))
+		continue;
+	    for (SourceFile file : corpus) {
+		Vector<Score> scores = new Vector<Score>();
+		System.setOut(quiet);
+		try {
+		    for (int i=0; i<warmup; i++)
+			iteration(b, file);
+		    for (int i=0; i<iterations; i++)
+			scores.addElement(iteration(b, file));
+		} catch (Exception e) {
+		    System.setOut(stdout);
+		    stdout.println(String.format("%-16s %-20s failed: %s", b.name, file.name, e));
+		    Phase.clearImportCache(CompilerBenchmarks.context);
+		    continue;
+		} finally {
+		    System.setOut(stdout);
+		}
+		report(stdout, b, file, scores);
+	    }
+	}
+    }
+
+    // addFiles: adds a file, or the .java files of a directory, to the corpus.
+    private static void addFiles(Vector<SourceFile> corpus, File f) throws IOException {
+	if (f.isDirectory()) {
+	    File files[] = f.listFiles();
+	    Arrays.sort(files);
+	    for (File g : files)
+		if (g.isFile() && g.getName().endsWith(".java"))
+		    corpus.addElement(new SourceFile(g));
+	} else
+	    corpus.addElement(new SourceFile(f));
+    }
+
+    // run: compiles a file to class files, unoptimized and then optimized,
+    //      and runs its main class on a JVM. Returns null if both ran,
+    //      otherwise why not.
+    private static String run(SourceFile file) throws Exception {
+	String className = file.name.substring(0, file.name.lastIndexOf('.'));
+	String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+	String classPath = libDir + File.pathSeparator + ".";
+	for (int optimized=0; optimized<2; optimized++) {
+	    CompilerBenchmarks.writeClassFiles(file, optimized == 1);
+	    ProcessBuilder pb = new ProcessBuilder(java, "-cp", classPath, className);
+	    pb.redirectErrorStream(true);
+	    Process p = pb.start();
+	    // the output must be read for the program not to block on it
+	    StringBuilder output = new StringBuilder();
+	    BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream()));
+	    try {
+		String line;
+		while ((line = in.readLine()) != null)
+		    output.append(line).append('\n');
+	    } finally {
+		in.close();
+	    }
+	    int status = p.waitFor();
+	    String kind = optimized == 1 ? "optimized" : "unoptimized";
+	    if (output.indexOf("VerifyError") >= 0)
+		return kind + " code does not verify";
+	    if (status != 0)
+		return kind + " code exits with status " + status;
+	}
+	return null;
+    }
+
+    // iteration: runs operations of a benchmark for iterationTime ms.
+    private static Score iteration(Benchmark b, SourceFile file) throws Exception {
+	System.gc();
+	long ops = 0, units = 0, measured = 0;
+	long end = System.nanoTime() + iterationTime * 1000000L;
+	do {
+	    b.setup(file);
+	    long start = System.nanoTime();
+	    units += b.run(file);
+	    measured += System.nanoTime() - start;
+	    ops++;
+	} while (System.nanoTime() < end);
+	Score s = new Score();
+	s.ops = ops / (measured / 1e9);
+	s.units = units / (measured / 1e9);
+	return s;
+    }
+
+    // report: prints the mean and the standard deviation of the scores.
+    private static void report(PrintStream out, Benchmark b, SourceFile file, Vector<Score> scores) {
+	double ops = 0, units = 0, dev = 0;
+	for (Score s : scores) {
+	    ops += s.ops;
+	    units += s.units;
+	}
+	ops /= scores.size();
+	units /= scores.size();
+	for (Score s : scores)
+	    dev += (s.ops - ops) * (s.ops - ops);
+	dev = scores.size() > 1 ? Math.sqrt(dev / (scores.size() - 1)) : 0;
+	out.println(String.format(Locale.ROOT, "%-16s %-20s %4d %14.1f %12s %16.1f %10s",
+				  b.name, file.name, scores.size(), ops,
+				  String.format(Locale.ROOT, "+- %.1f", dev), units, b.unit));
+    }
+}
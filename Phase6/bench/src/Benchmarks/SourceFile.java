@@ -0,0 +1,48 @@
+package Benchmarks;
+
+import java.io.*;
+
+/**
+ * A file of the corpus. The source is read once, so the benchmarks do not
+ * measure reading the disk.
+ */
+public class SourceFile {
+    public final String path;
+    public final String name;
+    public final String text;
+    public final int lines;
+
+    public SourceFile(File f) throws IOException {
+	path = f.getPath();
+	name = f.getName();
+	StringBuilder sb = new StringBuilder();
+	BufferedReader in = new BufferedReader(new FileReader(f));
+	int count = 0;
+	try {
+	    String line;
+	    while ((line = in.readLine()) != null) {
+		sb.append(line).append('\n');
+		count++;
+	    }
+	} finally {
+	    in.close();
+	}
+	text = sb.toString();
+	lines = count;
+    }
+
+    public SourceFile(String name, String text) {
+	path = name;
+	this.name = name;
+	this.text = text;
+	int count = 0;
+	for (int i=0; i<text.length(); i++)
+	    if (text.charAt(i) == '\n')
+		count++;
+	lines = count;
+    }
+
+    public Reader reader() {
+	return new StringReader(text);
+    }
+}
@@ -0,0 +1,226 @@
+package Benchmarks;
+
+import java.io.*;
+
+/**
+ * Generates Espresso programs of a given size for the benchmarks and for
+ * finding where the compiler stops scaling:
+ *
+ *   java Benchmarks.WorkloadGenerator [-classes n] [-depth n] [-interfaces n]
+ *                                     [-implements n] [-methods n] [-overloads n]
+ *                                     [-switch n] [-nesting n] [-name name] [-d dir]
+ *
+ * The classes form chains of 'depth' classes, each extending the one
+ * before it. Every class implements 'implements' of the 'interfaces'
+ * interfaces and declares (or overrides) 'methods' method names with
+ * 'overloads' overloads each. A method body is a switch of 'switch' cases,
+ * each computing an expression nested 'nesting' levels deep and calling
+ * the method before it. The program only imports Io, and it runs: the main
+ * method calls every method once and prints the sum.
+ */
+public class WorkloadGenerator {
+
+    public int classes = 20;
+    public int depth = 4;
+    public int interfaces = 4;
+    public int implementsPerClass = 2;
+    public int methods = 5;
+    public int overloads = 3;
+    public int switchWidth = 8;
+    public int nesting = 4;
+    public String name = "Synthetic";
+
+    private StringBuilder sb;
+
+    /**
+     * Sets an option by name (as on the command line, without the '-').
+     * @return false if there is no such option.
+     */
+    public boolean set(String option, String value) {
+	if (option.equals("name")) {
+	    name = value;
+	    return true;
+	}
+	int n = Integer.parseInt(value);
+	if (option.equals("classes"))
+	    classes = Math.max(n, 1);
+	else if (option.equals("depth"))
+	    depth = Math.max(n, 1);
+	else if (option.equals("interfaces"))
+	    interfaces = n;
+	else if (option.equals("implements"))
+	    implementsPerClass = n;
+	else if (option.equals("methods"))
+	    methods = Math.max(n, 1);
+	else if (option.equals("overloads"))
+	    overloads = Math.max(n, 1);
+	else if (option.equals("switch"))
+	    switchWidth = n;
+	else if (option.equals("nesting"))
+	    nesting = n;
+	else
+	    return false;
+	return true;
+    }
+
+    /**
+     * Sets options from a list like "classes=100,depth=8".
+     */
+    public void setAll(String spec) {
+	for (String s : spec.split(",")) {
+	    String kv[] = s.split("=");
+	    if (kv.length != 2 || !set(kv[0], kv[1]))
+		throw new IllegalArgumentException("Bad workload option: " + s);
+	}
+    }
+
+    /**
+     * Generates the program.
+     * @return The source of the program.
+     */
+    public String generate() {
+	sb = new StringBuilder();
+	line(0, "import Io;");
+	line(0, "");
+	for (int i=0; i<interfaces; i++)
+	    generateInterface(i);
+	for (int c=0; c<classes; c++)
+	    generateClass(c);
+	generateMain();
+	return sb.toString();
+    }
+
+    private void line(int indent, String s) {
+	for (int i=0; i<indent; i++)
+	    sb.append("    ");
+	sb.append(s).append('\n');
+    }
+
+    // generateInterface: interface Ii { public int ii(int a); }
+    private void generateInterface(int i) {
+	line(0, "interface I" + i + " {");
+	line(1, "public int i" + i + "(int a);");
+	line(0, "}");
+	line(0, "");
+    }
+
+    // generateClass: class Cc extends Cc-1 implements ... { ... }
+    private void generateClass(int c) {
+	String header = "class C" + c;
+	if (c % depth != 0)
+	    header += " extends C" + (c-1);
+	int n = Math.min(implementsPerClass, interfaces);
+	for (int k=0; k<n; k++)
+	    header += (k == 0 ? " implements I" : ", I") + ((c + k) % interfaces);
+	line(0, header + " {");
+	line(1, "public int f" + c + ";");
+	for (int k=0; k<n; k++) {
+	    int i = (c + k) % interfaces;
+	    line(1, "public int i" + i + "(int a) {");
+	    line(2, "return a + " + (c + k) + ";");
+	    line(1, "}");
+	}
+	for (int m=0; m<methods; m++)
+	    for (int o=0; o<overloads; o++)
+		generateMethod(c, m, o);
+	line(0, "}");
+	line(0, "");
+    }
+
+    // generateMethod: overload o of method m has o+1 parameters.
+    private void generateMethod(int c, int m, int o) {
+	String params = "int a";
+	String args = "r";
+	for (int p=0; p<o; p++) {
+	    params += ", int b" + p;
+	    args += ", b" + p;
+	}
+	line(1, "public int m" + m + "(" + params + ") {");
+	line(2, "int r = a;");
+	if (switchWidth > 0) {
+	    line(2, "switch (a) {");
+	    for (int k=0; k<switchWidth; k++) {
+		line(2, "case " + k + ":");
+		line(3, "r = " + expression(nesting, k, o, c) + ";");
+		line(3, "break;");
+	    }
+	    line(2, "default:");
+	    line(3, "r = " + expression(nesting, switchWidth, o, c) + ";");
+	    line(2, "}");
+	} else
+	    line(2, "r = " + expression(nesting, 0, o, c) + ";");
+	// calls go to a lower method number, so running the program terminates
+	if (m > 0)
+	    line(2, "r = r + m" + (m-1) + "(" + args + ");");
+	line(2, "return r;");
+	line(1, "}");
+    }
+
+    // expression: an int expression nested n levels deep over the
+    //             parameters and the field of the class.
+    private String expression(int n, int seed, int params, int c) {
+	String e = "a";
+	String ops[] = { " + ", " - ", " * ", " + " };
+	for (int i=0; i<n; i++) {
+	    int k = seed + i;
+	    String operand;
+	    if (k % 3 == 0)
+		operand = "f" + c;
+	    else if (k % 3 == 1 && params > 0)
+		operand = "b" + (k % params);
+	    else
+		operand = "" + (k + 1);
+	    e = "(" + e + ops[k % ops.length] + operand + ")";
+	}
+	return e;
+    }
+
+    // generateMain: calls every method of every class.
+    private void generateMain() {
+	line(0, "public class " + name + " {");
+	line(1, "public static void main(String args[]) {");
+	line(2, "int r = 0;");
+	for (int c=0; c<classes; c++) {
+	    line(2, "C" + c + " c" + c + " = new C" + c + "();");
+	    for (int m=0; m<methods; m++)
+		for (int o=0; o<overloads; o++) {
+		    String args = "" + (c % (switchWidth + 1));
+		    for (int p=0; p<o; p++)
+			args += ", " + (p + 1);
+		    line(2, "r = r + c" + c + ".m" + m + "(" + args + ");");
+		}
+	    int n = Math.min(implementsPerClass, interfaces);
+	    for (int k=0; k<n; k++) {
+		int i = (c + k) % interfaces;
+		// the call goes through the class, as the code generator
+		// does not emit invokeinterface
+		line(2, "I" + i + " i" + c + "_" + k + " = c" + c + ";");
+		line(2, "r = r + c" + c + ".i" + i + "(" + c + ");");
+	    }
+	}
+	line(2, "Io.println(r);");
+	line(1, "}");
+	line(0, "}");
+    }
+
+    public static void main(String argv[]) throws IOException {
+	WorkloadGenerator g = new WorkloadGenerator();
+	String dir = ".";
+	for (int i=0; i<argv.length; i++) {
+	    if (argv[i].equals("-d") && i+1 < argv.length)
+		dir = argv[++i];
+	    else if (!argv[i].startsWith("-") || i+1 == argv.length || !g.set(argv[i].substring(1), argv[i+1])) {
+		System.out.println("Usage: Benchmarks.WorkloadGenerator [-classes n] [-depth n] [-interfaces n] [-implements n]");
+		System.out.println("                                    [-methods n] [-overloads n] [-switch n] [-nesting n]");
+		System.out.println("                                    [-name name] [-d dir]");
+		System.exit(1);
+	    } else
+		i++;
+	}
+	File f = new File(dir, g.name + ".java");
+	PrintWriter out = new PrintWriter(new FileWriter(f));
+	out.print(g.generate());
+	out.close();
+	System.out.println("Wrote " + f.getPath());
+    }
+}
@@ -7,11 +7,9 @@ import Utilities.Visitor;
  *  @version 1.0
  */
 public abstract class AST {
-    /** The line in the source program that this node is associated with. */
-    public int line;
-
-    /** The row in line {@link #line line} of the source program where this node starts. */
-    public int charBegin;
+    /** The line and the row in the source program that this node is
+     *  associated with, packed as by {@link Token#pack Token.pack}. */
+    private int position;
 
     /** The number of children this node has. */
     public int nchildren = 0;
@@ -24,29 +22,40 @@ public abstract class AST {
      * @param p_charBegin The row number.
      */
     public AST(int p_line, int p_charBegin) {
-	line = p_line;
-	charBegin = p_charBegin;
+	position = Token.pack(p_line, p_charBegin);
     }
 
     /** Constructs an AST based on the line/row information of a Token object.
      * @param t A token of type {@link Token}.
      */
     public AST(Token t) {
-	line = t.getLine();
-	charBegin = t.getCharBegin();;
+	position = t.getPosition();
     }
 
     /** Constructs an AST based on the line/row information of another AST node object (or subclass).
      * @param n An AST object.
      */
     public AST(AST n) {
-	if (n == null) {
-	    line = 0;
-	    charBegin = 0;
-	} else {
-	    line = n.line;
-	    charBegin = n.charBegin;
-	}
+	if (n != null)
+	    position = n.position;
+    }
+
+    /** Returns the line in the source program that this node is associated with. */
+    public int getLine() {
+	return Token.line(position);
+    }
+
+    /** Returns the row in line {@link #getLine getLine()} of the source program where this node starts. */
+    public int getCharBegin() {
+	return Token.charBegin(position);
+    }
+
+    /** Sets the line and the row of this node.
+     * @param p_line The line number.
+     * @param p_charBegin The row number.
+     */
+    public void setPosition(int p_line, int p_charBegin) {
+	position = Token.pack(p_line, p_charBegin);
     }
     
     /** Always returns the empty string ""
@@ -81,12 +90,12 @@ public abstract class AST {
      * @param depth The indentation.
      */
     public void print(java.io.PrintStream out, int depth) {
-	out.print("line " + this.intToString(line, 3) + ": ");
+	out.print("line " + this.intToString(getLine(), 3) + ": ");
 	tab(out, depth * 2);
 	out.println(this.getClass().getName() + " " + this.toString());
 	for (int c = 0; c < nchildren; c++) {
 	    if (children[c] == null) {
-		out.print("line " + this.intToString(line, 3) + ": ");
+		out.print("line " + this.intToString(getLine(), 3) + ": ");
 		tab(out, depth * 2 + 2);
 		out.println("empty");
 	    } else {
@@ -1,6 +1,7 @@
 package AST;
 
 import Utilities.Visitor;
+import java.util.Arrays;
 
 /**
  * Represents an array type.<br>
@@ -16,6 +17,22 @@ public class ArrayType extends Type {
      */
     private int depth = 0; // How many set of [ ] were there?
 
+    /**
+     * The signature and type name last made, and the signature of the base
+     * type they were made from (see {@link ClassType#signature}).
+     */
+    private static class Names {
+	final String baseSignature, signature, typeName;
+
+	Names(String baseSignature, String signature, String typeName) {
+	    this.baseSignature = baseSignature;
+	    this.signature = signature;
+	    this.typeName = typeName;
+	}
+    }
+
+    private Names names;
+
     /** 
      * Constructs an arraytype with base type <code>baseType</code> and depth <code>depth</code>.
      * @param baseType The base type of the array.
@@ -28,6 +45,30 @@ public class ArrayType extends Type {
 	children = new AST[] { baseType };		
     }
 
+    /**
+     * Returns the canonical array type with base type <code>baseType</code>
+     * and depth <code>depth</code>. The types the type checker gives
+     * expressions are made with this rather than the constructor, as they
+     * are not part of the parse tree. Base types that have no canonical
+     * instance (intersection types and unresolved class types) get a new
+     * array type.
+     * @param baseType The base type of the array.
+     * @param depth The dimensionality (depth) of the array.
+     * @return The array type.
+     */
+    public static ArrayType get(Type baseType, int depth) {
+	Type base = Type.canonical(baseType);
+	if (base == null)
+	    return new ArrayType(baseType, depth);
+	synchronized (base) {
+	    if (base.arrayTypes == null || base.arrayTypes.length <= depth)
+		base.arrayTypes = Arrays.copyOf(base.arrayTypes == null ? new ArrayType[0] : base.arrayTypes, depth + 1);
+	    if (base.arrayTypes[depth] == null)
+		base.arrayTypes[depth] = new ArrayType(base, depth);
+	    return base.arrayTypes[depth];
+	}
+    }
+
     /**
      * Accessor method for getting the base type.
      * @return The base type of the array.
@@ -57,10 +98,25 @@ public class ArrayType extends Type {
      * @return The JVM signature of the array.
      */
     public String signature() {
+	return names().signature;
+    }
+
+    // names: the names of this type, made again if the signature of the
+    //        base type has changed.
+    private Names names() {
+	Names n = names;
+	String baseSignature = baseType().signature();
+	if (n != null && n.baseSignature == baseSignature)
+	    return n;
 	String s = "";
 	for (int i=0;i<depth; i++)
 	    s += "[";				
-	return s + baseType().signature();
+	String t = baseType().typeName();
+	for (int i=0; i<depth; i++)
+	    t = t + "[]";
+	n = new Names(baseSignature, s + baseSignature, t);
+	names = n;
+	return n;
     }
 
     /**
@@ -68,10 +124,7 @@ public class ArrayType extends Type {
      * @return T[]...[] for a base type T.
      */
     public String typeName() {
-	String s = baseType().typeName();
-	for (int i=0; i<depth; i++)
-	    s = s + "[]";
-	return s;
+	return names().typeName;
     }
 
     /**
@@ -5,6 +5,7 @@ import Instruction.Instruction;
 public abstract class ClassBodyDecl extends AST {
 
 	private Vector<Instruction> code;  // Set in CodeGenerator.java
+	private Vector<Instruction> optimizedCode;  // Set in Optimizer/PeepholeOptimizer.java
 
 	public int localsUsed = 1;
 
@@ -28,8 +29,14 @@ public abstract class ClassBodyDecl extends AST {
 		this.code = code;
 	}
 
+	public void setOptimizedCode(Vector<Instruction> optimizedCode) {
+		this.optimizedCode = optimizedCode;
+	}
+
+	// returns the unoptimized code if the optimizer has not been run
 	public Vector<Instruction> getOptmizedCode() {
-		//return cfg.getAllCode();
-	return getCode();
+		if (optimizedCode == null)
+			return getCode();
+		return optimizedCode;
 	}
 }
@@ -3,6 +3,7 @@ package AST;
 import Utilities.SymbolTable;
 import Utilities.Visitor;
 import Jasmin.ClassFile;
+import java.util.BitSet;
 
 public class ClassDecl extends AST {
 	//<--
@@ -15,8 +16,6 @@ public class ClassDecl extends AST {
 	private boolean generateCode = true; // imported files need not generate code cause their
 	// respective class files are located in the Include/Library folder.
 
-        public static int interSectionTypeCounter = 1;
-
         // Methods in the class hierarchy
 	// These are set in NameChecker.java: checkImplementationOfAbstractClasses
 	public Sequence allMethods      = new Sequence(); // all concrete and abstract methods in the class hierarchy
@@ -27,6 +26,14 @@ public class ClassDecl extends AST {
 	public boolean m_class = false, 
 			m_interface = false;
 
+	// Set by ClassHierarchy.encode: the id of this class and the ids of
+	// all its supertypes (this class included) in the hierarchy it belongs to.
+	ClassHierarchy hierarchy;
+	int hierarchyId;
+	BitSet supertypes;
+
+	private ClassType classType; // see classType()
+
 	public ClassDecl(Sequence /* of Modifier */ modifiers,
 			Name name, 
 			ClassType superclass,
@@ -52,6 +59,17 @@ public class ClassDecl extends AST {
 		return className().toString();
 	}
 
+	/**
+	 * Returns the canonical class type of this class (with myDecl set).
+	 */
+	public synchronized ClassType classType() {
+		if (classType == null) {
+			classType = new ClassType(className());
+			classType.myDecl = this;
+		}
+		return classType;
+	}
+
 	public boolean isInterface() {
 		return m_interface;
 	}
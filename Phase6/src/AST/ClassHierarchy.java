@@ -0,0 +1,67 @@
+package AST;
+
+import Utilities.SymbolTable;
+import java.util.*;
+
+/**
+ * An encoding of the class hierarchy of a compilation that makes
+ * {@link Type#isSuper} a single bit test. Each class gets a dense id and
+ * the set of the ids of all its supertypes (itself, its superclasses and
+ * all the interfaces it implements or extends, directly or not).
+ *
+ * The encoding is made when the superclasses and interfaces of all the
+ * classes are known, that is, after ClassAndMemberFinder and MyDeclSet.
+ * Classes that are not part of it (like the intersection types made by
+ * the type checker) are handled by walking their supertypes.
+ */
+public class ClassHierarchy {
+
+    private ClassHierarchy() {
+    }
+
+    /**
+     * Encodes the hierarchy of the classes of a class table.
+     * @param classTable The class table of a compilation.
+     */
+    public static void encode(SymbolTable classTable) {
+	ClassHierarchy hierarchy = new ClassHierarchy();
+	Vector<ClassDecl> classes = new Vector<ClassDecl>();
+	for (Object o : classTable.entries.values())
+	    classes.addElement((ClassDecl)o);
+	int id = 0;
+	for (ClassDecl cd : classes) {
+	    cd.hierarchy = null;
+	    cd.supertypes = null;
+	    cd.hierarchyId = id++;
+	}
+	for (ClassDecl cd : classes)
+	    cd.hierarchy = hierarchy;
+	for (ClassDecl cd : classes)
+	    supertypes(cd, hierarchy);
+    }
+
+    // supertypes: computes (once) the supertypes of a class of the hierarchy.
+    //             A class whose hierarchy is cyclic (an error reported by
+    //             the name checker) only gets the supertypes found before
+    //             the cycle.
+    private static BitSet supertypes(ClassDecl cd, ClassHierarchy hierarchy) {
+	if (cd == null || cd.hierarchy != hierarchy)
+	    return null;
+	if (cd.supertypes != null)
+	    return cd.supertypes;
+	BitSet s = new BitSet();
+	s.set(cd.hierarchyId);
+	cd.supertypes = s; // stops a cycle
+	if (cd.superClass() != null) {
+	    BitSet sup = supertypes(cd.superClass().myDecl, hierarchy);
+	    if (sup != null)
+		s.or(sup);
+	}
+	for (int i=0; i<cd.interfaces().nchildren; i++) {
+	    BitSet sup = supertypes(((ClassType)cd.interfaces().children[i]).myDecl, hierarchy);
+	    if (sup != null)
+		s.or(sup);
+	}
+	return s;
+    }
+}
@@ -20,6 +20,25 @@ public class ClassType extends Type {
      */
     public Boolean isIntersectionType = false; 
 
+    /**
+     * The type name and signature last made, and the names they were made
+     * from: the names can change (Phase 6 renames Object to
+     * java/lang/Object), so the names are compared (by reference) before
+     * they are used.
+     */
+    private static class Names {
+	final String name, superName, typeName, signature;
+
+	Names(String name, String superName, String typeName) {
+	    this.name = name;
+	    this.superName = superName;
+	    this.typeName = typeName;
+	    this.signature = "L" + typeName + ";";
+	}
+    }
+
+    private Names names;
+
     /**
      * Constructs a class type based on a class name. Note, the myDecl
      * gets set by the name resolution phase (Phase 3).
@@ -53,22 +72,41 @@ public class ClassType extends Type {
      * @return The name of the class type.
      */
     public String typeName() {
-	if (name().getname().startsWith("INT#")) {
-	    String s = name().getname() + " (extends ";
-	    s += myDecl.superClass().name().getname();
-	    if (myDecl.interfaces().nchildren>0) {
-		s += " implements ";
-		for (int i=0; i<myDecl.interfaces().nchildren; i++) {
-		    s += ((ClassType)myDecl.interfaces().children[i]).name().getname();
-		    if (i <myDecl.interfaces().nchildren-1)
-			s += ", ";
-		}
+	return names().typeName;
+    }
+
+    // names: the names of this type, made again if the names it is made
+    //        from have changed. Only the superclass of an intersection
+    //        type can be renamed (its interfaces are never Object).
+    private Names names() {
+	Names n = names;
+	String name = name().getname();
+	if (n != null && n.name == name &&
+	    (n.superName == null || n.superName == myDecl.superClass().name().getname()))
+	    return n;
+	if (name.startsWith("INT#"))
+	    n = new Names(name, myDecl.superClass().name().getname(), intersectionName());
+	else
+	    n = new Names(name, null, name);
+	names = n;
+	return n;
+    }
+
+    // intersectionName: the name of an intersection type, with its supertypes.
+    private String intersectionName() {
+	String s = name().getname() + " (extends ";
+	s += myDecl.superClass().name().getname();
+	if (myDecl.interfaces().nchildren>0) {
+	    s += " implements ";
+	    for (int i=0; i<myDecl.interfaces().nchildren; i++) {
+		s += ((ClassType)myDecl.interfaces().children[i]).name().getname();
+		if (i <myDecl.interfaces().nchildren-1)
+		    s += ", ";
 	    }
-	    s += ")"; 
-	    
-	    return s;
-	} else	    
-	    return name().getname();
+	}
+	s += ")"; 
+	
+	return s;
     }
 
     /**
@@ -76,7 +114,7 @@ public class ClassType extends Type {
      * @return The signature of the class type as a string <code>L...;</code>.
      */
     public String signature() {
-	return "L"+typeName()+";";
+	return names().signature;
     }
 
     /**
@@ -170,13 +170,13 @@ public class Literal extends Expression {
 		return isFloatValue(Double.parseDouble(text));
 	}
 
-	public int hexDigit2Int(char h) {
+	public static int hexDigit2Int(char h) {
 		if ('0' <= h && h <= '9')
 			return h - '0';
 		return h - 'a' + 10;
 	}
 
-	public int parseChar(String s) {
+	public static int parseChar(String s) {
 		int i=0;
 		char ch = s.charAt(1);
 		if (ch == '\\') {
@@ -213,6 +213,37 @@ public class Literal extends Expression {
 		return i;
 	}
 
+	/**
+	 * Returns the value of a string literal: the quotes are removed and
+	 * escape sequences are replaced by the characters they represent.
+	 * @param s The text of a string literal (including the quotes).
+	 * @return The value of the string.
+	 */
+	public static String stringValue(String s) {
+		StringBuilder sb = new StringBuilder();
+		int i = 1;
+		while (i < s.length()-1) {
+			if (s.charAt(i) != '\\') {
+				sb.append(s.charAt(i));
+				i++;
+				continue;
+			}
+			// find the end of the escape sequence
+			int end = i + 2;
+			if (s.charAt(i+1) == 'u')
+				end = i + 6;
+			else if (s.charAt(i+1) >= '0' && s.charAt(i+1) <= '7') {
+				int maxDigits = (s.charAt(i+1) <= '3' ? 3 : 2);
+				end = i + 1;
+				while (end < s.length()-1 && end < i + 1 + maxDigits && s.charAt(end) >= '0' && s.charAt(end) <= '7')
+					end++;
+			}
+			sb.append((char)parseChar("'" + s.substring(i, end) + "'"));
+			i = end;
+		}
+		return sb.toString();
+	}
+
 	public String getText() {
 		return this.text;
 	}
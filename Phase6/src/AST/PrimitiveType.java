@@ -20,6 +20,13 @@ public class PrimitiveType extends Type {
 									  "String", "void" };
 	private int kind;
 
+	// the canonical instance of each kind; see get().
+	private static final PrimitiveType canonical[] = new PrimitiveType[names.length];
+	static {
+		for (int i=0; i<names.length; i++)
+			canonical[i] = new PrimitiveType(i);
+	}
+
 	public PrimitiveType(Token p_t, int kind) {
 		super(p_t);
 		this.kind = kind;
@@ -30,7 +37,15 @@ public class PrimitiveType extends Type {
 		this.kind = kind;
 	}
 
-	
+	/**
+	 * Returns the canonical type of the given kind. The types the
+	 * type checker gives expressions are made with this rather than
+	 * the constructor, as they are not part of the parse tree.
+	 */
+	public static PrimitiveType get(int kind) {
+		return canonical[kind];
+	}
+
 	public static int ceiling(PrimitiveType p1, PrimitiveType p2) {
 		if (p1.kind < p2.kind)
 			return p2.kind;
@@ -39,7 +54,7 @@ public class PrimitiveType extends Type {
 
 	public static PrimitiveType ceilingType(PrimitiveType p1, PrimitiveType p2) {
 		if (p1.kind < IntKind && p2.kind < IntKind)
-			return new PrimitiveType(IntKind);
+			return get(IntKind);
 
 		if (p1.kind < p2.kind)
 			return p2;
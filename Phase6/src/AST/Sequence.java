@@ -11,7 +11,9 @@ public class Sequence extends AST {
     public Sequence(AST element) {
 	super(element);
 	nchildren = 1;
-	children = new AST[10];
+	// most sequences (parameters, arguments, modifiers) hold one or two
+	// elements; longer ones grow as they are appended to.
+	children = new AST[2];
 	children[0] = element;
     }
     
@@ -3,9 +3,14 @@ package AST;
 public class Token {
     private int sym;
     private String lexeme;
-    private int line;
-    private int charBegin;
+    private int position; // the line and charBegin, see pack()
     private int charEnd;
+
+    // A position holds the line in its upper 20 bits and the row in the
+    // lower 12. Lines past 1048575 and rows past 4095 are kept as those.
+    private static final int ROW_BITS = 12;
+    private static final int MAX_ROW  = (1 << ROW_BITS) - 1;
+    private static final int MAX_LINE = (1 << (32 - ROW_BITS)) - 1;
     
     public static final String names[] = {
 	"EOF",
@@ -104,20 +109,37 @@ public class Token {
     public Token (int p_kind, String p_lexeme, int p_line, int p_charBegin, int p_charEnd) {
 	sym = p_kind;
 	lexeme = p_lexeme;
-	line = p_line;
-	charBegin = p_charBegin;
+	position = pack(p_line, p_charBegin);
 	charEnd = p_charEnd;
     }
+
+    /** Packs a line and a row into one int (parse tree nodes keep their
+     *  position that way).
+     */
+    public static int pack(int line, int charBegin) {
+	return (Math.max(0, Math.min(line, MAX_LINE)) << ROW_BITS) | Math.max(0, Math.min(charBegin, MAX_ROW));
+    }
+
+    /** Returns the line of a position made by {@link #pack}. */
+    public static int line(int position) {
+	return position >>> ROW_BITS;
+    }
+
+    /** Returns the row of a position made by {@link #pack}. */
+    public static int charBegin(int position) {
+	return position & MAX_ROW;
+    }
     
-    public int getCharBegin() { return charBegin; }
+    public int getCharBegin() { return charBegin(position); }
     public int getCharEnd()   { return charEnd; }
-    public int getLine() { return line; }
+    public int getLine() { return line(position); }
+    public int getPosition() { return position; }
     public String getLexeme() { return lexeme; }
     public int getSym() { return sym; }
 
     public String toString() {
-	return "Token " + names[sym] + " '" + lexeme + "'" + " line " + line + 
-	       " pos [" + charBegin + ".." + charEnd + "]";
+	return "Token " + names[sym] + " '" + lexeme + "'" + " line " + getLine() + 
+	       " pos [" + getCharBegin() + ".." + charEnd + "]";
     }
 }
 
@@ -2,6 +2,11 @@ package AST;
 import Utilities.Error;
 
 public abstract class Type extends AST {
+
+    // the canonical array types of a canonical type, by depth (see ArrayType.get)
+    ArrayType arrayTypes[];
+
+    private String typePrefix; // see getTypePrefix()
     
     public Type(AST a) {
 	super(a);
@@ -16,6 +21,15 @@ public abstract class Type extends AST {
     public abstract String signature() ;
     
     public String getTypePrefix() {
+	String prefix = typePrefix;
+	if (prefix == null) {
+	    prefix = makeTypePrefix();
+	    typePrefix = prefix;
+	}
+	return prefix;
+    }
+
+    private String makeTypePrefix() {
 	if (this.isClassType() || this.isNullType() || isStringType() || isArrayType())
 	    return "a";
 	else if (this.isIntegerType() || this.isShortType() ||
@@ -35,6 +49,8 @@ public abstract class Type extends AST {
     }
     
     public boolean identical(Type other) {
+	if (this == other)
+	    return true;
 	// TODO this was changed 3/29/12 from typename() to signature()
 	if (signature().equals(other.signature()))	    
 	    return true;
@@ -46,6 +62,20 @@ public abstract class Type extends AST {
 	    return false;
     }
     
+    // canonical: the canonical instance of a primitive type or of a
+    //            resolved class type that is not an intersection type,
+    //            or null if the type has none.
+    static Type canonical(Type t) {
+	if (t instanceof PrimitiveType)
+	    return PrimitiveType.get(((PrimitiveType)t).getKind());
+	if (t instanceof ClassType) {
+	    ClassType ct = (ClassType)t;
+	    if (ct.myDecl != null && !ct.isIntersectionType)
+		return ct.myDecl.classType();
+	}
+	return null;
+    }
+
     public boolean assignable() {
 	return (!typeName().equals("null") && !typeName().equals("void"));
     }
@@ -193,24 +223,29 @@ public abstract class Type extends AST {
 	return 1;
     }
     
+    // isSuper: true if sup is sub or one of its superclasses or interfaces.
+    //          Classes of the same hierarchy (see ClassHierarchy) are
+    //          tested in constant time; others are walked.
     public static boolean isSuper(ClassType sup, ClassType sub) {
 	ClassDecl supd = sup.myDecl;
 	ClassDecl subd = sub.myDecl;
 	
+	if (supd.hierarchy != null && supd.hierarchy == subd.hierarchy)
+	    return subd.supertypes.get(supd.hierarchyId);
+
 	if (supd.name().equals(subd.name())) {
 	    return true;
 	}
 	
 	// Take the sub classes super class
 	ClassType subdsuper = subd.superClass();
-	boolean found = false;
-	if (subdsuper != null) 
-	    found = isSuper(sup, subdsuper);
+	if (subdsuper != null && isSuper(sup, subdsuper))
+	    return true;
 	for (int i=0; i<subd.interfaces().nchildren; i++) {
-	    found = found || isSuper(sup, (ClassType)subd.interfaces().children[i]);
+	    if (isSuper(sup, (ClassType)subd.interfaces().children[i]))
+		return true;
 	}
-	return found;
-	
+	return false;
     }
     
 }             
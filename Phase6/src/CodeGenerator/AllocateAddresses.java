@@ -2,6 +2,7 @@ package CodeGenerator;
 
 import AST.*;
 import Utilities.Visitor;
+import java.util.Vector;
 
 class AllocateAddresses extends Visitor {
 
@@ -15,39 +16,41 @@ class AllocateAddresses extends Visitor {
 		this.currentClass = currentClass;
 	}
 
-	// EXPERIMENTAL: the block should correctly use the next address now.
-	// BLOCK
-	public Object visitBlock(Block bl) {
-		// YOUR CODE HERE
-		int address = gen.getAddress();
-		bl.visitChildren(this);
-		gen.setAddress(address);
-		return null;
-	}
-
-
-	// LOCAL VARIABLE DECLARATION
-	public Object visitLocalDecl(LocalDecl ld) {
-		// YOUR CODE HERE
-
-		ld.address = gen.getAddress();
-
-		if(ld.type().isLongType() || ld.type().isDoubleType()){
-			gen.inc2Address();
-		}else {
-			gen.incAddress();
+	// Locals are not given addresses as they are declared. Instead the
+	// live range of each local in a method (or constructor or static
+	// initializer) body is computed, and locals whose live ranges do not
+	// overlap share the same address(es).
+	private void allocateLocals(AST body) {
+		LiveRanges liveRanges = new LiveRanges(debug);
+		body.visit(liveRanges);
+
+		int firstAddress = gen.getAddress();
+		// busyUntil.get(i): the last position where address firstAddress+i is live
+		Vector<Integer> busyUntil = new Vector<Integer>();
+		for (LocalDecl ld : liveRanges.locals()) {
+			int start = liveRanges.start(ld);
+			int width = ld.type().width();
+			int offset = 0;
+			while (!isFree(busyUntil, offset, width, start))
+				offset++;
+			for (int i = offset; i < offset + width; i++) {
+				while (busyUntil.size() <= i)
+					busyUntil.addElement(-1);
+				busyUntil.set(i, liveRanges.end(ld));
+			}
+			ld.address = firstAddress + offset;
+			gen.setAddress(ld.address + width);
+			if (debug) println(ld.getLine() + ": LocalDecl:\tAssigning address:  " + ld.address + " to local variable '" + ld.var().name().getname() + "'.");
 		}
-
-		println(ld.line + ": LocalDecl:\tAssigning address:  " + ld.address + " to local variable '" + ld.var().name().getname() + "'.");
-		return null;
+		gen.setAddress(firstAddress);
 	}
 
-	// FOR STATEMENT
-	public Object visitForStat(ForStat fs) {
-		int tempAddress = gen.getAddress();
-		fs.visitChildren(this);
-		gen.setAddress(tempAddress);
-		return null;
+	// returns true if 'width' addresses starting at 'offset' are not live at 'position'
+	private boolean isFree(Vector<Integer> busyUntil, int offset, int width, int position) {
+		for (int i = offset; i < offset + width; i++)
+			if (i < busyUntil.size() && busyUntil.get(i) >= position)
+				return false;
+		return true;
 	}
 
 	// PARAMETER DECLARATION
@@ -61,13 +64,13 @@ class AllocateAddresses extends Visitor {
 		}else {
 			gen.incAddress();
 		}
-		println(pd.line + ": ParamDecl:\tAssigning address:  " + pd.address + " to parameter '" + pd.paramName().getname() + "'.");
+		if (debug) println(pd.getLine() + ": ParamDecl:\tAssigning address:  " + pd.address + " to parameter '" + pd.paramName().getname() + "'.");
 		return null;
 	}
 
 	// METHOD DECLARATION
 	public Object visitMethodDecl(MethodDecl md) {
-		println(md.line + ": MethodDecl:\tResetting address counter for method '" + md.name().getname() + "'.");
+		if (debug) println(md.getLine() + ": MethodDecl:\tResetting address counter for method '" + md.name().getname() + "'.");
 
 		// YOUR CODE HERE
 		gen.resetAddress();
@@ -83,20 +86,20 @@ class AllocateAddresses extends Visitor {
 		}
 
 		if(md.block() != null) {
-			md.block().visit(this);
+			allocateLocals(md.block());
 		}
 
 		currentBodyDecl = md;
 		currentBodyDecl.localsUsed = gen.getLocalsUsed();
 
-		println(md.line + ": End MethodDecl");
+		if (debug) println(md.getLine() + ": End MethodDecl");
 		gen.resetAddress();
 		return null;
 	}
 
 	// CONSTRUCTOR DECLARATION
 	public Object visitConstructorDecl(ConstructorDecl cd) {
-		println(cd.line + ": ConstructorDecl:\tResetting address counter for constructor '" + cd.name().getname() + "'.");
+		if (debug) println(cd.getLine() + ": ConstructorDecl:\tResetting address counter for constructor '" + cd.name().getname() + "'.");
 		gen.resetAddress();
 		gen.setAddress(1);
 		currentBodyDecl = cd;
@@ -106,27 +109,29 @@ class AllocateAddresses extends Visitor {
 		// for every visit it completely depends on the number of parameters.
 		// This is a problem... Possible Solutions: clone ??
 
-		super.visitConstructorDecl(cd);
+		cd.params().visit(this);
+		if (cd.body() != null)
+			allocateLocals(cd.body());
 		cd.localsUsed = gen.getLocalsUsed();
 		//System.out.println("Locals Used: " + cd.localsUsed);
 		gen.resetAddress();
-		println(cd.line + ": End ConstructorDecl");
+		if (debug) println(cd.getLine() + ": End ConstructorDecl");
 		return null;
 	}
 
 	// STATIC INITIALIZER
 	public Object visitStaticInitDecl(StaticInitDecl si) {
-		println(si.line + ": StaticInit:\tResetting address counter for static initializer for class '" + currentClass.name() + "'.");
+		if (debug) println(si.getLine() + ": StaticInit:\tResetting address counter for static initializer for class '" + currentClass.name() + "'.");
 		// YOUR CODE HERE
 		gen.resetAddress();
 		gen.setAddress(0);
 		currentBodyDecl = si;
 
-		super.visitStaticInitDecl(si);
+		allocateLocals(si.initializer());
 		si.localsUsed = gen.getLocalsUsed();
 
 		gen.resetAddress();
-		println(si.line + ": End StaticInit");
+		if (debug) println(si.getLine() + ": End StaticInit");
 		return null;
 	}
 }
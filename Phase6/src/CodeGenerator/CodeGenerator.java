@@ -1,38 +1,115 @@
 package CodeGenerator;
 
 import AST.*;
+import Utilities.CompilationContext;
+import java.util.*;
+import java.util.concurrent.*;
 
 public class CodeGenerator {
+
+    private CompilationContext context;
+
+    public CodeGenerator(CompilationContext context) {
+	this.context = context;
+    }
+
+    // GenerateClasses: generates the code for a range of classes. Ranges are
+    //                  split in two until they hold a single class. Each class
+    //                  has its own Generator, so classes can be done in parallel.
+    private static class GenerateClasses extends RecursiveAction {
+	private CompilationContext context;
+	private Vector<ClassDecl> classes;
+	private Vector<Generator> generators;
+	private int from, to;
+	private boolean debug;
+
+	GenerateClasses(CompilationContext context, Vector<ClassDecl> classes, Vector<Generator> generators, int from, int to, boolean debug) {
+	    this.context = context;
+	    this.classes = classes;
+	    this.generators = generators;
+	    this.from = from;
+	    this.to = to;
+	    this.debug = debug;
+	}
+
+	protected void compute() {
+	    if (to - from == 1) {
+		// errors are reported through the context of the thread
+		CompilationContext.setCurrent(context);
+		long task = context.statistics.startTask();
+		try {
+		    generateClass(classes.elementAt(from), generators.elementAt(from), debug);
+		} finally {
+		    context.statistics.endTask(task);
+		}
+	    } else {
+		int mid = (from + to) / 2;
+		invokeAll(new GenerateClasses(context, classes, generators, from, mid, debug),
+			  new GenerateClasses(context, classes, generators, mid, to, debug));
+	    }
+	}
+    }
+
+    private static void generateClass(ClassDecl cd, Generator g, boolean debug) {
+	if (debug)
+	    System.out.println("\n** Assigning Addresses:");
+	cd.visit(new AllocateAddresses(g, cd, debug));
+	if (debug)
+	    System.out.println("\n** Generating Bytecode Instructions:");
+	cd.visit(new GenerateCode(g, debug));
+	cd.classFile = g.getClassFile();
+    }
+
     public void generate(Compilation program, boolean debug) {
 	int i;
-	if (debug) 
+	if (debug)
 	    System.out.println("---------------------------------------------------------");
-	
+
+	Vector<ClassDecl> classes = new Vector<ClassDecl>();
+	Vector<Generator> generators = new Vector<Generator>();
 	for (i=0; i<program.types().nchildren;i++) {
 	    ClassDecl cd = (ClassDecl)program.types().children[i];
 	    if (!cd.generateCode()) {
 		System.out.println("Not generating code for '" + cd.name() + "'");
 		continue;
 	    }
-	    if (!Utilities.Settings.generateEVMCode) {
+	    if (!context.settings.generateEVMCode) {
 		// do not generate code for Runnable, Object or Thread
 		if (cd.name().equals("java/lang/Runnable") ||
 		    cd.name().equals("java/lang/Thread") ||
 		    cd.name().equals("java/lang/Object"))
 		    continue;
 	    }
+	    if (context.upToDate.contains(cd)) {
+		System.out.println("Class '" + cd.name() + "' is up to date");
+		continue;
+	    }
 	    // The header of the class is printed out here!
-	    Generator g = new Generator(cd, debug);
-	    if (debug)
-		System.out.println("\n** Assigning Addresses:");
-	    cd.visit(new AllocateAddresses(g, cd, debug));
+	    boolean traceClass = debug && context.settings.traces(cd.name());
+	    Generator g = new Generator(cd, traceClass);
 	    if (debug)
-		System.out.println("\n** Generating Bytecode Instructions:");
-	    cd.visit(new GenerateCode(g, debug));
-	    cd.classFile = g.getClassFile();
+		// keep the trace readable: one class at a time
+		generateClass(cd, g, traceClass);
+	    else {
+		classes.addElement(cd);
+		generators.addElement(g);
+	    }
 	}
-	
-	if (debug) 
+
+	// Each class only writes to its own Generator and ClassFile, so the
+	// result does not depend on the order in which the classes are done.
+	if (classes.size() == 1)
+	    generateClass(classes.elementAt(0), generators.elementAt(0), debug);
+	else if (classes.size() > 1) {
+	    ForkJoinPool pool = new ForkJoinPool();
+	    try {
+		pool.invoke(new GenerateClasses(context, classes, generators, 0, classes.size(), debug));
+	    } finally {
+		pool.shutdown();
+	    }
+	}
+
+	if (debug)
 	    System.out.println("---------------------------------------------------------");
     }
 }
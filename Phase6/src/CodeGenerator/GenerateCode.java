@@ -6,6 +6,7 @@ import Utilities.Visitor;
 import Utilities.SymbolTable;
 
 import java.util.*;
+import java.math.BigDecimal;
 
 import Instruction.*;
 import Jasmin.*;
@@ -44,7 +45,7 @@ class GenerateCode extends Visitor {
 
 	/** ArrayAccessExpr */
 	public Object visitArrayAccessExpr(ArrayAccessExpr ae) {
-		println(ae.line + ": Visiting ArrayAccessExpr");
+		if (debug) println(ae.getLine() + ": Visiting ArrayAccessExpr");
 		classFile.addComment(ae, "ArrayAccessExpr");
 		// YOUR CODE HERE
 		ae.target().visit(this);
@@ -57,14 +58,14 @@ class GenerateCode extends Visitor {
 
 	/** ArrayLiteral */
 	public Object visitArrayLiteral(ArrayLiteral al) {
-		println(al.line + ": Visiting an ArrayLiteral ");
+		if (debug) println(al.getLine() + ": Visiting an ArrayLiteral ");
 		// YOUR CODE HERE
 		return null;
 	}
 
 	/** NewArray */
 	public Object visitNewArray(NewArray ne) {
-		println(ne.line + ": NewArray:\t Creating new array of type " + ne.type.typeName());
+		if (debug) println(ne.getLine() + ": NewArray:\t Creating new array of type " + ne.type.typeName());
 		// YOUR CODE HERE
 		return null;
 	}
@@ -73,7 +74,7 @@ class GenerateCode extends Visitor {
 
 	// ASSIGNMENT
 	public Object visitAssignment(Assignment as) {
-		println(as.line + ": Assignment:\tGenerating code for an Assignment.");
+		if (debug) println(as.getLine() + ": Assignment:\tGenerating code for an Assignment.");
 		classFile.addComment(as, "Assignment");
 		/* If a reference is needed then compute it
 	          (If array type then generate reference to the	target & index)
@@ -82,7 +83,7 @@ class GenerateCode extends Visitor {
 	          - a reference can be computed for an ArrayAccessExpr by visiting its target 
 		 */
 		if (as.left() instanceof FieldRef) {
-			println(as.line + ": Generating reference for FieldRef target ");
+			if (debug) println(as.getLine() + ": Generating reference for FieldRef target ");
 			FieldRef fr= (FieldRef)as.left();
 			fr.target().visit(this);
 			// if the target is a New and the field is static, then the reference isn't needed, so pop it! 
@@ -93,7 +94,7 @@ class GenerateCode extends Visitor {
 				else
 					classFile.addInstruction(new Instruction(RuntimeConstants.opc_pop));
 		} else if (as.left() instanceof ArrayAccessExpr) {
-			println(as.line + ": Generating reference for Array Access target");
+			if (debug) println(as.getLine() + ": Generating reference for Array Access target");
 			ArrayAccessExpr ae = (ArrayAccessExpr)as.left();
 			classFile.addComment(as, "ArrayAccessExpr target");
 			ae.target().visit(this);
@@ -114,7 +115,7 @@ class GenerateCode extends Visitor {
 
 		if (as.op().kind != AssignmentOp.EQ) {
 			if (as.left() instanceof FieldRef) {
-				println(as.line + ": Duplicating reference and getting value for LHS (FieldRef/<op>=)");
+				if (debug) println(as.getLine() + ": Duplicating reference and getting value for LHS (FieldRef/<op>=)");
 				FieldRef fr = (FieldRef)as.left();
 				if (!fr.myDecl.isStatic()) {
 					classFile.addInstruction(new Instruction(RuntimeConstants.opc_dup));
@@ -124,12 +125,12 @@ class GenerateCode extends Visitor {
 					classFile.addInstruction(new FieldRefInstruction(RuntimeConstants.opc_getstatic, fr.targetType.typeName(),
 							fr.fieldName().getname(), fr.type.signature()));
 			} else if (as.left() instanceof ArrayAccessExpr) {
-				println(as.line + ": Duplicating reference and getting value for LHS (ArrayAccessRef/<op>=)");
+				if (debug) println(as.getLine() + ": Duplicating reference and getting value for LHS (ArrayAccessRef/<op>=)");
 				ArrayAccessExpr ae = (ArrayAccessExpr)as.left();
 				classFile.addInstruction(new Instruction(RuntimeConstants.opc_dup2));
 				classFile.addInstruction(new Instruction(Generator.getArrayLoadInstruction(ae.type)));
 			} else { // NameExpr
-				println(as.line + ": Getting value for LHS (NameExpr/<op>=)");
+				if (debug) println(as.getLine() + ": Getting value for LHS (NameExpr/<op>=)");
 				NameExpr ne = (NameExpr)as.left();
 				int address = ((VarDecl)ne.myDecl).address();
 
@@ -224,7 +225,7 @@ class GenerateCode extends Visitor {
 
 	// BINARY EXPRESSION
 	public Object visitBinaryExpr(BinaryExpr be) {
-		println(be.line + ": BinaryExpr:\tGenerating code for " + be.op().operator() + " :  " + be.left().type.typeName() + " -> " + be.right().type.typeName() + " -> " + be.type.typeName() + ".");
+		if (debug) println(be.getLine() + ": BinaryExpr:\tGenerating code for " + be.op().operator() + " :  " + be.left().type.typeName() + " -> " + be.right().type.typeName() + " -> " + be.type.typeName() + ".");
 		classFile.addComment(be, "Binary Expression");
 
 		// YOUR CODE HERE
@@ -511,11 +512,11 @@ class GenerateCode extends Visitor {
 
 	// BREAK STATEMENT
 	public Object visitBreakStat(BreakStat br) {
-		println(br.line + ": BreakStat:\tGenerating code.");
+		if (debug) println(br.getLine() + ": BreakStat:\tGenerating code.");
 		classFile.addComment(br, "Break Statement");
 
 		// YOUR CODE HERE
-		String labelForBreak = Generator.getBreakLabel();
+		String labelForBreak = gen.getBreakLabel();
 		if(insideSwitch){
 			classFile.addInstruction(new JumpInstruction(RuntimeConstants.opc_goto, switchBreakLabel));
 		}else{
@@ -528,7 +529,7 @@ class GenerateCode extends Visitor {
 
 	// CAST EXPRESSION
 	public Object visitCastExpr(CastExpr ce) {
-		println(ce.line + ": CastExpr:\tGenerating code for a Cast Expression.");
+		if (debug) println(ce.getLine() + ": CastExpr:\tGenerating code for a Cast Expression.");
 		classFile.addComment(ce, "Cast Expression");
 		String instString;
 		// YOUR CODE HERE
@@ -551,7 +552,7 @@ class GenerateCode extends Visitor {
 
 	// CONSTRUCTOR INVOCATION (EXPLICIT)
 	public Object visitCInvocation(CInvocation ci) {
-		println(ci.line + ": CInvocation:\tGenerating code for Explicit Constructor Invocation.");
+		if (debug) println(ci.getLine() + ": CInvocation:\tGenerating code for Explicit Constructor Invocation.");
 		classFile.addComment(ci, "Explicit Constructor Invocation");
 
 		// YOUR CODE HERE
@@ -585,7 +586,7 @@ class GenerateCode extends Visitor {
 
 	// CLASS DECLARATION
 	public Object visitClassDecl(ClassDecl cd) {
-		println(cd.line + ": ClassDecl:\tGenerating code for class '" + cd.name() + "'.");
+		if (debug) println(cd.getLine() + ": ClassDecl:\tGenerating code for class '" + cd.name() + "'.");
 
 		// We need to set this here so we can retrieve it when we generate
 		// field initializers for an existing constructor.
@@ -618,7 +619,7 @@ class GenerateCode extends Visitor {
 
 	// CONSTRUCTOR DECLARATION
 	public Object visitConstructorDecl(ConstructorDecl cd) {
-		println(cd.line + ": ConstructorDecl: Generating Code for constructor for class " + cd.name().getname());
+		if (debug) println(cd.getLine() + ": ConstructorDecl: Generating Code for constructor for class " + cd.name().getname());
 
 		classFile.startMethod(cd);
 		classFile.addComment(cd, "Constructor Declaration");
@@ -665,11 +666,11 @@ class GenerateCode extends Visitor {
 
 	// CONTINUE STATEMENT
 	public Object visitContinueStat(ContinueStat cs) {
-		println(cs.line + ": ContinueStat:\tGenerating code.");
+		if (debug) println(cs.getLine() + ": ContinueStat:\tGenerating code.");
 		classFile.addComment(cs, "Continue Statement");
 
 		// YOUR CODE HERE
-		String labelForContinue = Generator.getContinueLabel();
+		String labelForContinue = gen.getContinueLabel();
 		classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_goto, labelForContinue));
 
 		classFile.addComment(cs, "End ContinueStat");
@@ -678,7 +679,7 @@ class GenerateCode extends Visitor {
 
 	// DO STATEMENT
 	public Object visitDoStat(DoStat ds) {
-		println(ds.line + ": DoStat:\tGenerating code.");
+		if (debug) println(ds.getLine() + ": DoStat:\tGenerating code.");
 		classFile.addComment(ds, "Do Statement");
 
 		// YOUR CODE HERE
@@ -688,8 +689,8 @@ class GenerateCode extends Visitor {
 		boolean oldInside = insideLoop;
 		insideLoop = true;
 
-		Generator.setContinueLabel(topLabel);
-		Generator.setBreakLabel(endLabel);
+		gen.setContinueLabel(topLabel);
+		gen.setBreakLabel(endLabel);
 
 		classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, topLabel));
 
@@ -710,7 +711,7 @@ class GenerateCode extends Visitor {
 
 	// EXPRESSION STATEMENT
 	public Object visitExprStat(ExprStat es) {
-		println(es.line + ": ExprStat:\tVisiting an Expression Statement.");
+		if (debug) println(es.getLine() + ": ExprStat:\tVisiting an Expression Statement.");
 		classFile.addComment(es, "Expression Statement");
 
 		es.expression().visit(this);
@@ -718,22 +719,22 @@ class GenerateCode extends Visitor {
 			Invocation in = (Invocation)es.expression();
 
 			if (in.targetType.isStringType() && in.methodName().getname().equals("length")) {
-				println(es.line + ": ExprStat:\tInvocation of method length, return value not uses.");
+				if (debug) println(es.getLine() + ": ExprStat:\tInvocation of method length, return value not uses.");
 				gen.dup(es.expression().type, RuntimeConstants.opc_pop, RuntimeConstants.opc_pop2);
 			} else if (in.targetType.isStringType() && in.methodName().getname().equals("charAt")) {
-				println(es.line + ": ExprStat:\tInvocation of method charAt, return value not uses.");
+				if (debug) println(es.getLine() + ": ExprStat:\tInvocation of method charAt, return value not uses.");
 				gen.dup(es.expression().type, RuntimeConstants.opc_pop, RuntimeConstants.opc_pop2);
-			} else if (in.targetMethod.returnType().isVoidType())
-				println(es.line + ": ExprStat:\tInvocation of Void method where return value is not used anyways (no POP needed).");
-			else {
-				println(es.line + ": ExprStat:\tPOP added to remove non used return value for a '" + es.expression().getClass().getName() + "'.");
+			} else if (in.targetMethod.returnType().isVoidType()) {
+				if (debug) println(es.getLine() + ": ExprStat:\tInvocation of Void method where return value is not used anyways (no POP needed).");
+			} else {
+				if (debug) println(es.getLine() + ": ExprStat:\tPOP added to remove non used return value for a '" + es.expression().getClass().getName() + "'.");
 				gen.dup(es.expression().type, RuntimeConstants.opc_pop, RuntimeConstants.opc_pop2);
 			}
 		}
 		else
 		if (!(es.expression() instanceof Assignment)) {
 			gen.dup(es.expression().type, RuntimeConstants.opc_pop, RuntimeConstants.opc_pop2);
-			println(es.line + ": ExprStat:\tPOP added to remove unused value left on stack for a '" + es.expression().getClass().getName() + "'.");
+			if (debug) println(es.getLine() + ": ExprStat:\tPOP added to remove unused value left on stack for a '" + es.expression().getClass().getName() + "'.");
 		}
 		classFile.addComment(es, "End ExprStat");
 		return null;
@@ -741,7 +742,7 @@ class GenerateCode extends Visitor {
 
 	// FIELD DECLARATION
 	public Object visitFieldDecl(FieldDecl fd) {
-		println(fd.line + ": FieldDecl:\tGenerating code.");
+		if (debug) println(fd.getLine() + ": FieldDecl:\tGenerating code.");
 
 		classFile.addField(fd);
 
@@ -750,7 +751,7 @@ class GenerateCode extends Visitor {
 
 	// FIELD REFERENCE
 	public Object visitFieldRef(FieldRef fr) {
-		println(fr.line + ": FieldRef:\tGenerating code (getfield code only!).");
+		if (debug) println(fr.getLine() + ": FieldRef:\tGenerating code (getfield code only!).");
 
 		// Changed June 22 2012 Array
 		// If we have and field reference with the name 'length' and an array target type
@@ -786,7 +787,7 @@ class GenerateCode extends Visitor {
 
 	// FOR STATEMENT
 	public Object visitForStat(ForStat fs) {
-		println(fs.line + ": ForStat:\tGenerating code.");
+		if (debug) println(fs.getLine() + ": ForStat:\tGenerating code.");
 		classFile.addComment(fs, "For Statement");
 		// YOUR CODE HERE
 
@@ -797,8 +798,8 @@ class GenerateCode extends Visitor {
 		String continueLabel = "L" + gen.getLabel();
 		String falseLabel = "L" + gen.getLabel();
 
-		Generator.setContinueLabel(continueLabel);
-		Generator.setBreakLabel(falseLabel);
+		gen.setContinueLabel(continueLabel);
+		gen.setBreakLabel(falseLabel);
 
 
 		fs.init().visit(this);
@@ -830,7 +831,7 @@ class GenerateCode extends Visitor {
 
 	// IF STATEMENT
 	public Object visitIfStat(IfStat is) {
-		println(is.line + ": IfStat:\tGenerating code.");
+		if (debug) println(is.getLine() + ": IfStat:\tGenerating code.");
 		classFile.addComment(is, "If Statement");
 
 		// YOUR CODE HERE
@@ -862,7 +863,7 @@ class GenerateCode extends Visitor {
 
 	// INVOCATION
 	public Object visitInvocation(Invocation in) {
-		println(in.line + ": Invocation:\tGenerating code for invoking method '" + in.methodName().getname() + "' in class '" + in.targetType.typeName() + "'.");
+		if (debug) println(in.getLine() + ": Invocation:\tGenerating code for invoking method '" + in.methodName().getname() + "' in class '" + in.targetType.typeName() + "'.");
 		classFile.addComment(in, "Invocation");
 		// YOUR CODE HERE
 		if(in.target() == null && !in.targetMethod.isStatic()){
@@ -877,7 +878,7 @@ class GenerateCode extends Visitor {
 		}else if (in.target() != null && in.targetType.isStringType() && in.methodName().getname().equals("charAt") && in.params().nchildren == 1) {
 			Expression expr = ((Expression) in.params().children[0]);
 			expr.visit(this);
-			gen.dataConvert(expr.type, new PrimitiveType(PrimitiveType.IntKind));
+			gen.dataConvert(expr.type, PrimitiveType.get(PrimitiveType.IntKind));
 			classFile.addInstruction(new MethodInvocationInstruction(RuntimeConstants.opc_invokevirtual, in.target().type.typeName() , in.methodName().getname(), "(I)C"));
 
 		}else if(in.targetMethod.isStatic()){
@@ -926,7 +927,7 @@ class GenerateCode extends Visitor {
 
 	// LITERAL
 	public Object visitLiteral(Literal li) {
-		println(li.line + ": Literal:\tGenerating code for Literal '" + li.getText() + "'.");
+		if (debug) println(li.getLine() + ": Literal:\tGenerating code for Literal '" + li.getText() + "'.");
 		classFile.addComment(li, "Literal");
 
 		switch (li.getKind()) {
@@ -964,14 +965,14 @@ class GenerateCode extends Visitor {
 
 	// LOCAL VARIABLE DECLARATION
 	public Object visitLocalDecl(LocalDecl ld) {
-		println(ld.line + ": LocalDecl:\tGenerating code for LocalDecl");
+		if (debug) println(ld.getLine() + ": LocalDecl:\tGenerating code for LocalDecl");
 		//    classFile.addComment(ld, "#LOCAL " + ld.name());
 		//classFile.addComment(ld, "#LOCAL " + ld.address);
 		//classFile.addComment(ld, "#LOCAL " + ld.type().typeName());
 		//classFile.addComment(ld, "#LOCAL " + ld.name() + " " + ld.address + " " + ld.type().typeName());
 
 		if (ld.var().init() != null) {
-			println(ld.line + ": LocalDecl:\tGenerating code for the initializer for variable '" +
+			if (debug) println(ld.getLine() + ": LocalDecl:\tGenerating code for the initializer for variable '" +
 					ld.var().name().getname() + "'.");
 			classFile.addComment(ld, "Local Variable Declaration");
 
@@ -995,14 +996,14 @@ class GenerateCode extends Visitor {
 			classFile.addComment(ld, "End LocalDecl");
 		}
 		else
-			println(ld.line + ": LocalDecl:\tVisiting local variable declaration for variable '" + ld.var().name().getname() + "'.");
+			if (debug) println(ld.getLine() + ": LocalDecl:\tVisiting local variable declaration for variable '" + ld.var().name().getname() + "'.");
 
 		return null;
 	}
 
 	// METHOD DECLARATION
 	public Object visitMethodDecl(MethodDecl md) {
-		println(md.line + ": MethodDecl:\tGenerating code for method '" + md.name().getname() + "'.");
+		if (debug) println(md.getLine() + ": MethodDecl:\tGenerating code for method '" + md.name().getname() + "'.");
 		classFile.startMethod(md);
 		currentContext = md;
 
@@ -1026,7 +1027,7 @@ class GenerateCode extends Visitor {
 
 		// ADDED 22 June 2012 
 		if (ne.myDecl instanceof ClassDecl) {
-			println(ne.line + ": NameExpr:\tWas a class name - skip it :" + ne.name().getname());
+			if (debug) println(ne.getLine() + ": NameExpr:\tWas a class name - skip it :" + ne.name().getname());
 			classFile.addComment(ne, "End NameExpr");
 			return null;
 		}
@@ -1051,7 +1052,7 @@ class GenerateCode extends Visitor {
 
 	// NEW
 	public Object visitNew(New ne) {
-		println(ne.line + ": New:\tGenerating code");
+		if (debug) println(ne.getLine() + ": New:\tGenerating code");
 		classFile.addComment(ne, "New");
 		boolean OldStringBuilderCreated = StringBuilderCreated;
 		StringBuilderCreated = false;
@@ -1079,7 +1080,7 @@ class GenerateCode extends Visitor {
 
 	// RETURN STATEMENT
 	public Object visitReturnStat(ReturnStat rs) {
-		println(rs.line + ": ReturnStat:\tGenerating code.");
+		if (debug) println(rs.getLine() + ": ReturnStat:\tGenerating code.");
 		classFile.addComment(rs, "Return Statement");
 
 		// YOUR CODE HERE
@@ -1110,7 +1111,7 @@ class GenerateCode extends Visitor {
 
 	// STATIC INITIALIZER
 	public Object visitStaticInitDecl(StaticInitDecl si) {
-		println(si.line + ": StaticInit:\tGenerating code for a Static initializer.");
+		if (debug) println(si.getLine() + ": StaticInit:\tGenerating code for a Static initializer.");
 
 		classFile.startMethod(si);
 		classFile.addComment(si, "Static Initializer");
@@ -1142,7 +1143,7 @@ class GenerateCode extends Visitor {
 
 	// SUPER
 	public Object visitSuper(Super su) {
-		println(su.line + ": Super:\tGenerating code (access).");
+		if (debug) println(su.getLine() + ": Super:\tGenerating code (access).");
 		classFile.addComment(su, "Super");
 
 		// YOUR CODE HERE
@@ -1154,84 +1155,128 @@ class GenerateCode extends Visitor {
 
 	// SWITCH STATEMENT
 	public Object visitSwitchStat(SwitchStat ss) {
-		println(ss.line + ": Switch Statement:\tGenerating code for Switch Statement.");
+		if (debug) println(ss.getLine() + ": Switch Statement:\tGenerating code for Switch Statement.");
 		// YOUR CODE HERE
 
 		boolean oldInsideSwitch = insideSwitch;
 		insideSwitch = true;
 
-		String defaultLabel = "L" + gen.getLabel();
 		String breakLabel = "L" + gen.getLabel();
+		String oldSwitchBreakLabel = switchBreakLabel;
 
-		Generator.setBreakLabel(breakLabel);
+		gen.setBreakLabel(breakLabel);
 		switchBreakLabel = breakLabel;
 
 		if(ss.expr() != null){
 			ss.expr().visit(this);
 		}
 
-		if(!ss.expr().type.isStringType()){
-			SortedMap<Object, String> map = new TreeMap<>();
-
-			Sequence sequence = ss.switchBlocks();
-			for(int i = 0; i < sequence.nchildren; i++){
-				SwitchGroup group = (SwitchGroup) sequence.children[i];
-				SwitchLabel switchLabel = (SwitchLabel) (group.labels().children[0]);
-
-				String label = null;
-
-				if(switchLabel.expr() != null) {
-					label = switchLabel.expr().constantValue().toString();
-				}
-
-				if(label != null){
-					String tag = gen.getLabel();
-					map.put(label, tag);
+		// map each case to the label number of its switch group. For integer switches
+		// the key is the case value; for string switches it is the index of the case
+		// in caseStrings.
+		SortedMap<Integer, String> map = new TreeMap<>();
+		Vector<String> caseStrings = new Vector<>();
+		String defaultTag = null;
+
+		Sequence sequence = ss.switchBlocks();
+		for(int i = 0; i < sequence.nchildren; i++){
+			SwitchGroup group = (SwitchGroup) sequence.children[i];
+			group.setLabel(gen.getLabel());
+
+			for(int j = 0; j < group.labels().nchildren; j++){
+				SwitchLabel switchLabel = (SwitchLabel) (group.labels().children[j]);
+				if(switchLabel.isDefault()) {
+					defaultTag = group.getLabel();
+				}else if(ss.expr().type.isStringType()){
+					map.put(caseStrings.size(), group.getLabel());
+					caseStrings.add((String)switchLabel.expr().constantValue());
+				}else{
+					map.put(((BigDecimal)switchLabel.expr().constantValue()).intValue(), group.getLabel());
 				}
 			}
+		}
 
+		// without a default group the default jumps to the end of the switch
+		boolean hasDefault = (defaultTag != null);
+		if(!hasDefault){
+			defaultTag = gen.getLabel();
+		}
 
-			classFile.addInstruction(new LookupSwitchInstruction(RuntimeConstants.opc_lookupswitch, map, defaultLabel));
+		if(ss.expr().type.isStringType()){
+			stringSwitchIndex(caseStrings);
+		}
 
-			for(int i = 0; i < sequence.nchildren; i++){
-				SwitchGroup group = (SwitchGroup) sequence.children[i];
-				SwitchLabel switchLabel = (SwitchLabel) (group.labels().children[0]);
+		gen.switchInstruction(map, defaultTag);
 
-				String tag = null;
+		for(int i = 0; i < sequence.nchildren; i++){
+			SwitchGroup group = (SwitchGroup) sequence.children[i];
+			classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, "L" + group.getLabel()));
+			if(group.statements() != null){
+				group.statements().visitChildren(this);
+			}
+		}
 
-				String label = null;
+		if(!hasDefault){
+			classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, "L" + defaultTag));
+		}
+		classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, breakLabel));
 
-				if(switchLabel.expr() != null) {
-					label = switchLabel.expr().constantValue().toString();
-				}
+		insideSwitch = oldInsideSwitch;
+		switchBreakLabel = oldSwitchBreakLabel;
+		classFile.addComment(ss, "End SwitchStat");
+		return null;
+	}
 
-				if(label != null) {
-					tag = "L" + map.get(label);
-					classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, tag));
-					if(group.statements() != null){
-						group.statements().visitChildren(this);
-					}
-				}else {
-					classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, defaultLabel));
-					if(group.statements() != null){
-						group.statements().visitChildren(this);
-					}
-				}
+	// Replaces the string on top of the stack by the index of the (first) case string
+	// it is equal to, or -1 if there is none. First a switch on the hash code of the
+	// string selects the bucket of case strings with the same hash code, then the
+	// strings in that bucket are compared using equals().
+	private void stringSwitchIndex(Vector<String> caseStrings) {
+		SortedMap<Integer, Vector<Integer>> buckets = new TreeMap<>();
+		for(int i = 0; i < caseStrings.size(); i++){
+			int hash = Literal.stringValue(caseStrings.get(i)).hashCode();
+			if(!buckets.containsKey(hash)){
+				buckets.put(hash, new Vector<Integer>());
 			}
+			buckets.get(hash).add(i);
+		}
 
-			classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, breakLabel));
-
+		SortedMap<Integer, String> hashMap = new TreeMap<>();
+		for(int hash : buckets.keySet()){
+			hashMap.put(hash, gen.getLabel());
 		}
+		String noMatchTag = gen.getLabel();
+		String indexTag = gen.getLabel();
+
+		classFile.addInstruction(new Instruction(RuntimeConstants.opc_dup));
+		classFile.addInstruction(new MethodInvocationInstruction(RuntimeConstants.opc_invokevirtual, "java/lang/String", "hashCode", "()I"));
+		gen.switchInstruction(hashMap, noMatchTag);
 
+		for(int hash : buckets.keySet()){
+			classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, "L" + hashMap.get(hash)));
+			for(int index : buckets.get(hash)){
+				String nextLabel = "L" + gen.getLabel();
+				classFile.addInstruction(new Instruction(RuntimeConstants.opc_dup));
+				gen.loadString(caseStrings.get(index));
+				classFile.addInstruction(new MethodInvocationInstruction(RuntimeConstants.opc_invokevirtual, "java/lang/String", "equals", "(Ljava/lang/Object;)Z"));
+				classFile.addInstruction(new JumpInstruction(RuntimeConstants.opc_ifeq, nextLabel));
+				classFile.addInstruction(new Instruction(RuntimeConstants.opc_pop));
+				gen.loadInt("" + index);
+				classFile.addInstruction(new JumpInstruction(RuntimeConstants.opc_goto, "L" + indexTag));
+				classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, nextLabel));
+			}
+			classFile.addInstruction(new JumpInstruction(RuntimeConstants.opc_goto, "L" + noMatchTag));
+		}
 
-		insideSwitch = oldInsideSwitch;
-		classFile.addComment(ss, "End SwitchStat");
-		return null;
+		classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, "L" + noMatchTag));
+		classFile.addInstruction(new Instruction(RuntimeConstants.opc_pop));
+		classFile.addInstruction(new Instruction(RuntimeConstants.opc_iconst_m1));
+		classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, "L" + indexTag));
 	}
 
 	// TERNARY EXPRESSION 
 	public Object visitTernary(Ternary te) {
-		println(te.line + ": Ternary:\tGenerating code.");
+		if (debug) println(te.getLine() + ": Ternary:\tGenerating code.");
 		classFile.addComment(te, "Ternary Statement");
 
 		boolean OldStringBuilderCreated = StringBuilderCreated;
@@ -1258,7 +1303,7 @@ class GenerateCode extends Visitor {
 
 	// THIS
 	public Object visitThis(This th) {
-		println(th.line + ": This:\tGenerating code (access).");
+		if (debug) println(th.getLine() + ": This:\tGenerating code (access).");
 		classFile.addComment(th, "This");
 
 		// YOUR CODE HERE
@@ -1270,7 +1315,7 @@ class GenerateCode extends Visitor {
 
 	// UNARY POST EXPRESSION
 	public Object visitUnaryPostExpr(UnaryPostExpr up) {
-		println(up.line + ": UnaryPostExpr:\tGenerating code.");
+		if (debug) println(up.getLine() + ": UnaryPostExpr:\tGenerating code.");
 		classFile.addComment(up, "Unary Post Expression");
 
 		// YOUR CODE HERE
@@ -1368,7 +1413,7 @@ class GenerateCode extends Visitor {
 
 	// UNARY PRE EXPRESSION
 	public Object visitUnaryPreExpr(UnaryPreExpr up) {
-		println(up.line + ": UnaryPreExpr:\tGenerating code for " + up.op().operator() + " : " + up.expr().type.typeName() + " -> " + up.expr().type.typeName() + ".");
+		if (debug) println(up.getLine() + ": UnaryPreExpr:\tGenerating code for " + up.op().operator() + " : " + up.expr().type.typeName() + " -> " + up.expr().type.typeName() + ".");
 		classFile.addComment(up,"Unary Pre Expression");
 
 		// YOUR CODE HERE
@@ -1400,7 +1445,7 @@ class GenerateCode extends Visitor {
 			if(up.expr() instanceof NameExpr){
 				VarDecl varDecl = (VarDecl) ((NameExpr) up.expr()).myDecl;
 
-				System.out.println("Variable Name : " + varDecl.name());
+				if (debug) println("Variable Name : " + varDecl.name());
 
 				int address = varDecl.address();
 
@@ -1491,7 +1536,7 @@ class GenerateCode extends Visitor {
 			if(up.expr() instanceof NameExpr){
 				VarDecl varDecl = (VarDecl) ((NameExpr) up.expr()).myDecl;
 
-				System.out.println("Variable Name : " + varDecl.name());
+				if (debug) println("Variable Name : " + varDecl.name());
 
 				int address = varDecl.address();
 
@@ -1583,7 +1628,7 @@ class GenerateCode extends Visitor {
 
 	// WHILE STATEMENT
 	public Object visitWhileStat(WhileStat ws) {
-		println(ws.line + ": While Stat:\tGenerating Code.");
+		if (debug) println(ws.getLine() + ": While Stat:\tGenerating Code.");
 
 		classFile.addComment(ws, "While Statement");
 
@@ -1594,8 +1639,8 @@ class GenerateCode extends Visitor {
 		String firstLabel = "L" + gen.getLabel();
 		String lastLabel = "L" + gen.getLabel();
 
-		Generator.setContinueLabel(firstLabel);
-		Generator.setBreakLabel(lastLabel);
+		gen.setContinueLabel(firstLabel);
+		gen.setBreakLabel(lastLabel);
 
 		classFile.addInstruction(new LabelInstruction(RuntimeConstants.opc_label, firstLabel));
 		ws.expr().visit(this);
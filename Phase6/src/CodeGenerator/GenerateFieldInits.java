@@ -16,6 +16,7 @@ class GenerateFieldInits extends Visitor {
 		this.currentClass = currentClass;
 		this.classFile = g.getClassFile();
 		this.gen = g;
+		this.debug = g.isDebug();
 		this.generateForStaticFields = generateForStaticFields;
 	}
 
@@ -31,14 +32,14 @@ class GenerateFieldInits extends Visitor {
 		     (fd.modifiers.isFinal() && !(fd.var().init() instanceof Literal)))) // it is final but not initialized to a literal
 		    {
 			if (fd.modifiers.isStatic() && generateForStaticFields) {
-			    println(fd.line + ": FieldDecl:\tGenerating init code for static field '" + fd.var().name().getname() + "'.");
+			    if (debug) println(fd.getLine() + ": FieldDecl:\tGenerating init code for static field '" + fd.var().name().getname() + "'.");
 				fd.var().init().visit(g);
 				gen.dataConvert(fd.var().init().type, fd.type());
 				classFile.addInstruction(new FieldRefInstruction(RuntimeConstants.opc_putstatic, currentClass.name(), 
 						fd.var().name().getname(), fd.type().signature()));
 			}
 			else if (!fd.modifiers.isStatic() && !generateForStaticFields) {
-				println(fd.line + ": FieldDecl:\tGenerating init code for non-static field '" + fd.var().name().getname() + "'.");
+				if (debug) println(fd.getLine() + ": FieldDecl:\tGenerating init code for non-static field '" + fd.var().name().getname() + "'.");
 				classFile.addInstruction(new Instruction(RuntimeConstants.opc_aload_0));
 				fd.var().init().visit(g);
 				gen.dataConvert(fd.var().init().type, fd.type());
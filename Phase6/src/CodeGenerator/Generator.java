@@ -1,6 +1,6 @@
 package CodeGenerator;
 
-import java.util.Vector;
+import java.util.*;
 
 import AST.*;
 import Jasmin.*;
@@ -8,8 +8,8 @@ import Utilities.Error;
 import Instruction.*;
 
 public class Generator {
-	private static String continueLabel; // Holds the current continue label
-	private static String breakLabel;    // Holds the current break label
+	private String continueLabel;        // Holds the current continue label
+	private String breakLabel;           // Holds the current break label
 	private int nextlabel = 1;           // Label counter - you should never use it directly
 	private int address = 1;             // Holds the next available address
 	private boolean debug;
@@ -17,18 +17,18 @@ public class Generator {
 	private int maxAddress = 0;          // the highest address used (well, the one after)
 
 	// Set and get continue labels
-	public static void setContinueLabel(String cl) {
+	public void setContinueLabel(String cl) {
 		continueLabel = cl;
 	}
-	public static String getContinueLabel() {
+	public String getContinueLabel() {
 		return continueLabel;
 	}
 
 	// set and get break labels
-	public static void setBreakLabel(String bl) {
+	public void setBreakLabel(String bl) {
 		breakLabel = bl;
 	}
-	public static String getBreakLabel() {
+	public String getBreakLabel() {
 		return breakLabel;
 	}
 
@@ -67,6 +67,10 @@ public class Generator {
 	}
 
 
+	public boolean isDebug() {
+		return debug;
+	}
+
 	// get the class file associated with this generator
 	public ClassFile getClassFile() {
 		return classFile;
@@ -204,6 +208,30 @@ public class Generator {
 		classFile.addInstruction(new LdcStringInstruction(RuntimeConstants.opc_ldc, s));
 	}
 
+	// switchInstruction: generates a tableswitch if the case values are dense enough and
+	//                    a lookupswitch otherwise. The cases map case values to label
+	//                    numbers ('L' is not included); so is defaultTag.
+	public void switchInstruction(SortedMap<Integer, String> cases, String defaultTag) {
+		int n = cases.size();
+		if (n > 0) {
+			long low  = cases.firstKey();
+			long high = cases.lastKey();
+			// compare the size (in words) plus 3 times the number of comparisons of each instruction
+			long tableCost  = 4 + (high - low + 1) + 3 * 3;
+			long lookupCost = 3 + 2 * n + 3 * n;
+			if (tableCost <= lookupCost) {
+				String[] labels = new String[(int)(high - low + 1)];
+				for (int i = 0; i < labels.length; i++) {
+					String tag = cases.get((int)(low + i));
+					labels[i] = (tag == null ? defaultTag : tag);
+				}
+				classFile.addInstruction(new TableSwitchInstruction(RuntimeConstants.opc_tableswitch, (int)low, labels, "L" + defaultTag));
+				return;
+			}
+		}
+		classFile.addInstruction(new LookupSwitchInstruction(RuntimeConstants.opc_lookupswitch, new TreeMap<Object, String>(cases), "L" + defaultTag));
+	}
+
 	// getLabel: get a new label
 	public String getLabel() {
 		return Integer.toString(nextlabel++);
@@ -335,7 +363,7 @@ public class Generator {
 				case AssignmentOp.MODEQ:   return RuntimeConstants.opc_drem;
 			}
 		} else
-			System.out.println("Generator: oops - I don't know what that type is! " + op + " " + op.line + " " + pt.getTypePrefix());
+			System.out.println("Generator: oops - I don't know what that type is! " + op + " " + op.getLine() + " " + pt.getTypePrefix());
 		return 0;
 	}
 
@@ -13,7 +13,26 @@ import AST.*;
  */
 public class Java extends Visitor {
 
+    // if false, 'java/lang/Object' is changed back to 'Object'
+    private boolean toJava = true;
+
+    public Java() {
+    }
+
+    /** 
+     * @param toJava If false the names are changed back. This is used for the 
+     * imported classes that are shared by the compilations of a batch.
+     */
+    public Java(boolean toJava) {
+	this.toJava = toJava;
+    }
+
     public Object visitName(Name na) {
+	if (!toJava) {
+	    if (na.getname().equals("java/lang/Object"))
+		na.setName("Object");
+	    return null;
+	}
 	//if (na.getname().equals("Thread")) 
 	//    na.setName("java/lang/Thread");
 	//else if (na.getname().equals("Runnable")) 
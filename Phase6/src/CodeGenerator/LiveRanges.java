@@ -0,0 +1,95 @@
+package CodeGenerator;
+
+import AST.*;
+import Utilities.Visitor;
+import java.util.*;
+
+/** Computes the live range of every local variable in a method body.
+ * The statements are numbered in the order the code is generated; a 
+ * local is live from its declaration (after its initializer) to its last 
+ * use. A local that is live at the top of a loop stays live until the
+ * end of the loop, as its value is needed again on the next iteration.
+ */
+class LiveRanges extends Visitor {
+
+	private int position = 0;
+	private Vector<LocalDecl> locals = new Vector<LocalDecl>();
+	private Hashtable<LocalDecl, Integer> starts = new Hashtable<LocalDecl, Integer>();
+	private Hashtable<LocalDecl, Integer> ends   = new Hashtable<LocalDecl, Integer>();
+
+	LiveRanges(boolean debug) {
+		this.debug = debug;
+	}
+
+	// the locals in the order they were declared
+	public Vector<LocalDecl> locals() {
+		return locals;
+	}
+
+	public int start(LocalDecl ld) {
+		return starts.get(ld);
+	}
+
+	public int end(LocalDecl ld) {
+		return ends.get(ld);
+	}
+
+	// extend all locals that are live at the top of a loop to the end of the loop
+	private void endLoop(int loopHead) {
+		int loopEnd = ++position;
+		for (LocalDecl ld : locals)
+			if (starts.get(ld) < loopHead && ends.get(ld) >= loopHead)
+				ends.put(ld, loopEnd);
+	}
+
+	// LOCAL VARIABLE DECLARATION
+	public Object visitLocalDecl(LocalDecl ld) {
+		if (ld.var().init() != null)
+			ld.var().init().visit(this);
+		position++;
+		locals.addElement(ld);
+		starts.put(ld, position);
+		ends.put(ld, position);
+		return null;
+	}
+
+	// NAME EXPRESSION
+	public Object visitNameExpr(NameExpr ne) {
+		if (ne.myDecl instanceof LocalDecl) {
+			position++;
+			ends.put((LocalDecl)ne.myDecl, position);
+		}
+		return null;
+	}
+
+	// WHILE STATEMENT
+	public Object visitWhileStat(WhileStat ws) {
+		int loopHead = ++position;
+		ws.visitChildren(this);
+		endLoop(loopHead);
+		return null;
+	}
+
+	// DO STATEMENT
+	public Object visitDoStat(DoStat ds) {
+		int loopHead = ++position;
+		ds.visitChildren(this);
+		endLoop(loopHead);
+		return null;
+	}
+
+	// FOR STATEMENT
+	public Object visitForStat(ForStat fs) {
+		if (fs.init() != null)
+			fs.init().visit(this);
+		int loopHead = ++position;
+		if (fs.expr() != null)
+			fs.expr().visit(this);
+		if (fs.stats() != null)
+			fs.stats().visit(this);
+		if (fs.incr() != null)
+			fs.incr().visit(this);
+		endLoop(loopHead);
+		return null;
+	}
+}
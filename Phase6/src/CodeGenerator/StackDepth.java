@@ -0,0 +1,168 @@
+package CodeGenerator;
+
+import java.util.*;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+import Utilities.Error;
+
+/** The StackDepth class computes the maximum depth of the operand stack
+ * for the code of a method. It follows all paths through the code (fall 
+ * through, jumps and switches) and uses the stack effect of each instruction.
+ * 
+ * If a label can be reached with two different stack depths, or the stack 
+ * underflows, the code generator has produced incorrect code and a warning 
+ * is printed.
+ */
+public class StackDepth {
+
+    /**
+     * Computes the maximum stack depth of a sequence of instructions.
+     * @param code The instructions of the method.
+     * @param methodName The name of the method (used in warnings).
+     * @return The maximum number of words on the operand stack.
+     */
+    public static int maxStack(Vector<Instruction> code, String methodName) {
+	// map each label to the index of its LabelInstruction
+	Hashtable<String, Integer> labels = new Hashtable<String, Integer>();
+	for (int i=0; i<code.size(); i++)
+	    if (code.elementAt(i) instanceof LabelInstruction)
+		labels.put(((LabelInstruction)code.elementAt(i)).getLabel(), i);
+	
+	int[] depth = new int[code.size()];
+	Arrays.fill(depth, -1);
+	int max = 0;
+	Stack<Integer> work = new Stack<Integer>();
+	if (code.size() > 0) {
+	    depth[0] = 0;
+	    work.push(0);
+	}
+	
+	while (!work.isEmpty()) {
+	    int i = work.pop();
+	    int d = depth[i];
+	    // follow the straight line code from i
+	    while (i < code.size()) {
+		Instruction inst = code.elementAt(i);
+		int opc = inst.getOpCode();
+		d += stackEffect(inst);
+		if (d < 0) {
+		    Error.warning("StackDepth: stack underflow at instruction '" + inst.getName() + "' in method '" + methodName + "'.");
+		    d = 0;
+		}
+		if (d > max)
+		    max = d;
+		
+		// jump targets
+		for (String target : targets(inst))
+		    if (labels.containsKey(target))
+			visit(code, labels.get(target), d, depth, work, methodName);
+		
+		// stop if control does not fall through to the next instruction
+		if (RuntimeConstants.returnSet.contains(opc) || opc == RuntimeConstants.opc_athrow ||
+		    opc == RuntimeConstants.opc_tableswitch || opc == RuntimeConstants.opc_lookupswitch ||
+		    (inst instanceof JumpInstruction && RuntimeConstants.uncondJumpSet.contains(opc)))
+		    break;
+		i++;
+		if (i < code.size()) {
+		    if (depth[i] != -1) {
+			visit(code, i, d, depth, work, methodName);
+			break;
+		    }
+		    depth[i] = d;
+		}
+	    }
+	}
+	return max;
+    }
+    
+    // record the depth at which instruction i is reached and queue it the first time
+    private static void visit(Vector<Instruction> code, int i, int d, int[] depth, Stack<Integer> work, String methodName) {
+	if (depth[i] == -1) {
+	    depth[i] = d;
+	    work.push(i);
+	} else if (depth[i] != d)
+	    Error.warning("StackDepth: inconsistent stack depth (" + depth[i] + " and " + d + ") at '" + 
+			  code.elementAt(i) + "' in method '" + methodName + "'.");
+    }
+
+    // returns the labels an instruction may jump to
+    private static Vector<String> targets(Instruction inst) {
+	Vector<String> result = new Vector<String>();
+	if (inst instanceof JumpInstruction)
+	    result.add(((JumpInstruction)inst).getLabel());
+	else if (inst instanceof LookupSwitchInstruction) {
+	    LookupSwitchInstruction ls = (LookupSwitchInstruction)inst;
+	    for (String label : ls.getValues().values())
+		result.add("L" + label);
+	    result.add(ls.getDefaultLabel());
+	} else if (inst instanceof TableSwitchInstruction) {
+	    TableSwitchInstruction ts = (TableSwitchInstruction)inst;
+	    for (String label : ts.getLabels())
+		result.add("L" + label);
+	    result.add(ts.getDefaultLabel());
+	}
+	return result;
+    }
+
+    /**
+     * Returns the number of words an instruction adds to (negative: removes from) the operand stack.
+     * @param inst The instruction.
+     * @return The stack effect.
+     */
+    public static int stackEffect(Instruction inst) {
+	int opc = inst.getOpCode();
+	if (opc < 0 || opc >= RuntimeConstants.opcStackEffects.length)
+	    return 0; // labels and comments
+	switch (opc) {
+	case RuntimeConstants.opc_getstatic:
+	    return width(((FieldRefInstruction)inst).getSignature());
+	case RuntimeConstants.opc_putstatic:
+	    return -width(((FieldRefInstruction)inst).getSignature());
+	case RuntimeConstants.opc_getfield:
+	    return width(((FieldRefInstruction)inst).getSignature()) - 1;
+	case RuntimeConstants.opc_putfield:
+	    return -width(((FieldRefInstruction)inst).getSignature()) - 1;
+	case RuntimeConstants.opc_invokevirtual:
+	case RuntimeConstants.opc_invokespecial:
+	case RuntimeConstants.opc_invokenonvirtual:
+	    return invocationEffect(((MethodInvocationInstruction)inst).getSignature()) - 1;
+	case RuntimeConstants.opc_invokestatic:
+	    return invocationEffect(((MethodInvocationInstruction)inst).getSignature());
+	case RuntimeConstants.opc_invokeinterface:
+	    return invocationEffect(((InterfaceInvocationInstruction)inst).getSignature()) - 1;
+	case RuntimeConstants.opc_multianewarray:
+	    return 0;
+	}
+	return RuntimeConstants.opcStackEffects[opc];
+    }
+
+    // the number of words pushed by the return value minus the words popped by the parameters
+    private static int invocationEffect(String signature) {
+	int close = signature.indexOf(')');
+	int params = 0;
+	int i = 1;
+	while (i < close) {
+	    char c = signature.charAt(i);
+	    boolean isArray = false;
+	    while (c == '[') {
+		isArray = true;
+		c = signature.charAt(++i);
+	    }
+	    if (c == 'L')
+		i = signature.indexOf(';', i);
+	    params += (!isArray && (c == 'J' || c == 'D')) ? 2 : 1;
+	    i++;
+	}
+	return width(signature.substring(close + 1)) - params;
+    }
+
+    // the number of stack words used by a value of the given type signature
+    private static int width(String signature) {
+	if (signature.equals("V"))
+	    return 0;
+	if (signature.equals("J") || signature.equals("D"))
+	    return 2;
+	return 1;
+    }
+}
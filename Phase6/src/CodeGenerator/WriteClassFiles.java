@@ -0,0 +1,453 @@
+package CodeGenerator;
+
+import AST.*;
+import java.io.*;
+import java.util.*;
+import Jasmin.*;
+import Instruction.*;
+import Utilities.Error;
+import Utilities.Settings;
+
+/** The WriteClassFiles class writes the content of a classFile object
+ * directly to a binary .class file, without going through Jasmin. The
+ * class file produced is the same as the one Jasmin would produce from
+ * the file written by WriteFiles (version 45.3, so no stack maps are
+ * needed).
+ */
+public class WriteClassFiles {
+
+    private static final int MAGIC         = 0xCAFEBABE;
+    private static final int MINOR_VERSION = 3;
+    private static final int MAJOR_VERSION = 45;
+
+    public static void writeFile(ClassDecl cd, boolean writeOptimized, Settings settings) {
+	ClassFile classFile = cd.classFile;
+	ConstantPool cp = new ConstantPool();
+
+	String outputFileName = cd.name() + ".class";
+	System.out.println("Writing " + (writeOptimized ? "Optimized" : "Unoptimized") + " class file : '" + outputFileName + "'");
+	try {
+	    // Everything but the header and the constant pool is written first,
+	    // as that is how the constant pool gets filled in.
+	    ByteArrayOutputStream body = new ByteArrayOutputStream();
+	    DataOutputStream out = new DataOutputStream(body);
+
+	    writeClass(out, cp, cd);
+
+	    // Write all the fields
+	    Vector<FieldDecl> fields = new Vector<FieldDecl>();
+	    Iterator<Field> it = classFile.getFieldsIterator();
+	    while (it.hasNext())
+		fields.addElement(it.next().getField());
+	    out.writeShort(fields.size());
+	    for (FieldDecl field : fields)
+		writeField(out, cp, field);
+
+	    // Write all the methods
+	    Vector<ClassBodyDecl> methods = new Vector<ClassBodyDecl>();
+	    Iterator<Method> it2 = classFile.getMethodsIterator();
+	    while (it2.hasNext())
+		methods.addElement(it2.next().getMethod());
+	    out.writeShort(methods.size());
+	    for (ClassBodyDecl method : methods)
+		writeMethod(out, cp, method, writeOptimized, settings);
+
+	    // no class attributes
+	    out.writeShort(0);
+
+	    DataOutputStream file = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(outputFileName)));
+	    file.writeInt(MAGIC);
+	    file.writeShort(MINOR_VERSION);
+	    file.writeShort(MAJOR_VERSION);
+	    cp.write(file);
+	    body.writeTo(file);
+	    file.close();
+	} catch (IOException e) {
+	    Error.error("An I/O error occured while opening output file " + outputFileName + "\n" + e);
+	}
+    }
+
+    // accessFlags: translates modifiers into access flags
+    private static int accessFlags(Modifiers modifiers) {
+	int flags = 0;
+	if (modifiers.isPublic())   flags |= RuntimeConstants.ACC_PUBLIC;
+	if (modifiers.isPrivate())  flags |= RuntimeConstants.ACC_PRIVATE;
+	if (modifiers.isStatic())   flags |= RuntimeConstants.ACC_STATIC;
+	if (modifiers.isFinal())    flags |= RuntimeConstants.ACC_FINAL;
+	if (modifiers.isAbstract()) flags |= RuntimeConstants.ACC_ABSTRACT;
+	return flags;
+    }
+
+    private static void writeClass(DataOutputStream out, ConstantPool cp, ClassDecl cd) throws IOException {
+	int flags = accessFlags(cd.modifiers);
+	String superClass = "java/lang/Object";
+	if (cd.isInterface())
+	    flags |= RuntimeConstants.ACC_INTERFACE | RuntimeConstants.ACC_ABSTRACT;
+	else {
+	    flags |= RuntimeConstants.ACC_SUPER;
+	    if (cd.superClass() != null)
+		superClass = cd.superClass().myDecl.name();
+	}
+	out.writeShort(flags);
+	out.writeShort(cp.addClass(cd.name()));
+	out.writeShort(cp.addClass(superClass));
+
+	// implemented interfaces
+	out.writeShort(cd.interfaces().nchildren);
+	for (int i=0;i<cd.interfaces().nchildren;i++)
+	    out.writeShort(cp.addClass(((ClassType)cd.interfaces().children[i]).name().getname()));
+    }
+
+    private static void writeField(DataOutputStream out, ConstantPool cp, FieldDecl field) throws IOException {
+	int flags = accessFlags(field.modifiers);
+	if (field.interfaceMember)
+	    flags |= RuntimeConstants.ACC_STATIC;
+	out.writeShort(flags);
+	out.writeShort(cp.addUtf8(field.name()));
+	out.writeShort(cp.addUtf8(field.type().signature()));
+
+	// final fields initialized with a literal get a ConstantValue attribute
+	if (field.modifiers.isFinal() && field.var().init() instanceof Literal) {
+	    out.writeShort(1);
+	    out.writeShort(cp.addUtf8("ConstantValue"));
+	    out.writeInt(2);
+	    out.writeShort(constantValue(cp, field.type(), ((Literal)field.var().init()).getText()));
+	} else
+	    out.writeShort(0);
+    }
+
+    // constantValue: adds the value of a literal of type t to the constant pool
+    private static int constantValue(ConstantPool cp, Type t, String text) {
+	if (t.isStringType())
+	    return cp.addString(Literal.stringValue(text));
+	if (t.isBooleanType())
+	    return cp.addInteger(text.equals("true") ? 1 : 0);
+	if (t.isLongType()) {
+	    if (text.endsWith("l") || text.endsWith("L"))
+		text = text.substring(0, text.length()-1);
+	    return cp.addLong(Long.decode(text));
+	}
+	if (t.isFloatType())
+	    return cp.addFloat(Float.parseFloat(text));
+	if (t.isDoubleType())
+	    return cp.addDouble(Double.parseDouble(text));
+	return cp.addInteger(Integer.decode(text));
+    }
+
+    private static void writeMethod(DataOutputStream out,
+				    ConstantPool cp,
+				    ClassBodyDecl method,
+				    boolean writeOptimized,
+				    Settings settings) throws IOException {
+	Vector<Instruction> code;
+	if (writeOptimized)
+	    code = method.getOptmizedCode();
+	else
+	    code = method.getCode();
+
+	int flags;
+	String methodName;
+	String signature;
+	boolean isAbstract = false;
+
+	if (method instanceof MethodDecl &&
+	    ((MethodDecl)method).name().getname().equals("main") &&
+	    ((MethodDecl)method).returnType().isVoidType() &&
+	    ((MethodDecl)method).getModifiers().isStatic() &&
+	    ((MethodDecl)method).getModifiers().isPublic()) {
+	    flags = RuntimeConstants.ACC_PUBLIC | RuntimeConstants.ACC_STATIC;
+	    methodName = "main";
+	    signature = settings.generateEVMCode ? "()V" : "([Ljava/lang/String;)V";
+	} else if (method instanceof StaticInitDecl) {
+	    flags = RuntimeConstants.ACC_STATIC;
+	    methodName = "<clinit>";
+	    signature = "()V";
+	} else {
+	    Sequence params;
+	    String returnSignature = "V";
+	    if (method instanceof MethodDecl) {
+		MethodDecl md = (MethodDecl)method;
+		params     = md.params();
+		methodName = md.name().getname();
+		flags      = accessFlags(md.getModifiers());
+		isAbstract = md.getModifiers().isAbstract();
+		if (md.returnType() != null)
+		    returnSignature = md.returnType().signature();
+	    } else {
+		ConstructorDecl cd = (ConstructorDecl)method;
+		params     = cd.params();
+		methodName = "<init>";
+		flags      = accessFlags(cd.getModifiers());
+	    }
+	    signature = "(";
+	    for (int i=0; i<params.nchildren; i++)
+		signature += ((ParamDecl)params.children[i]).type().signature();
+	    signature += ")" + returnSignature;
+	}
+
+	out.writeShort(flags);
+	out.writeShort(cp.addUtf8(methodName));
+	out.writeShort(cp.addUtf8(signature));
+	if (isAbstract) {
+	    out.writeShort(0);
+	    return;
+	}
+
+	byte[] bytecode = assemble(cp, code, methodName);
+	out.writeShort(1);
+	out.writeShort(cp.addUtf8("Code"));
+	out.writeInt(12 + bytecode.length);
+	out.writeShort(StackDepth.maxStack(code, method.getname()));
+	out.writeShort(method.localsUsed);
+	out.writeInt(bytecode.length);
+	out.write(bytecode);
+	out.writeShort(0); // no exception table
+	out.writeShort(0); // no attributes
+    }
+
+    // assemble: turns a sequence of instructions into bytecode. The first pass
+    //           determines the offset of each label (and fills in the constant
+    //           pool), the second pass writes the instructions.
+    private static byte[] assemble(ConstantPool cp, Vector<Instruction> code, String methodName) throws IOException {
+	Hashtable<String, Integer> labels = new Hashtable<String, Integer>();
+	int pc = 0;
+	for (Instruction inst : code) {
+	    if (inst instanceof LabelInstruction)
+		labels.put(((LabelInstruction)inst).getLabel(), pc);
+	    pc += size(cp, inst, pc);
+	}
+
+	ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	DataOutputStream out = new DataOutputStream(bytes);
+	for (Instruction inst : code)
+	    encode(out, cp, inst, labels, methodName);
+	return bytes.toByteArray();
+    }
+
+    // constant: adds the constant loaded by an ldc/ldc_w/ldc2_w instruction to the constant pool
+    private static int constant(ConstantPool cp, Instruction inst) {
+	if (inst instanceof LdcIntegerInstruction)
+	    return cp.addInteger(((LdcIntegerInstruction)inst).getValue());
+	else if (inst instanceof LdcFloatInstruction)
+	    return cp.addFloat(((LdcFloatInstruction)inst).getValue());
+	else if (inst instanceof LdcLongInstruction)
+	    return cp.addLong(((LdcLongInstruction)inst).getValue());
+	else if (inst instanceof LdcDoubleInstruction)
+	    return cp.addDouble(((LdcDoubleInstruction)inst).getValue());
+	else if (inst instanceof LdcStringInstruction)
+	    return cp.addString(Literal.stringValue(((LdcStringInstruction)inst).getValue()));
+	else // 'ldc2_w -1' is a long
+	    return cp.addLong(inst.getOperand());
+    }
+
+    // isLocalInstruction: true for the instructions that take a local variable address
+    private static boolean isLocalInstruction(int opc) {
+	return (opc >= RuntimeConstants.opc_iload && opc <= RuntimeConstants.opc_aload) ||
+	    (opc >= RuntimeConstants.opc_istore && opc <= RuntimeConstants.opc_astore) ||
+	    opc == RuntimeConstants.opc_ret;
+    }
+
+    // switchPadding: the number of bytes needed after a switch opcode at offset pc
+    private static int switchPadding(int pc) {
+	return 3 - (pc % 4);
+    }
+
+    // size: the number of bytes inst takes up when placed at offset pc
+    private static int size(ConstantPool cp, Instruction inst, int pc) {
+	int opc = inst.getOpCode();
+	// labels (whatever their opcode) and comments take up no space
+	if (opc < 0 || inst instanceof LabelInstruction)
+	    return 0;
+	switch (opc) {
+	case RuntimeConstants.opc_ldc:
+	case RuntimeConstants.opc_ldc_w:
+	    return constant(cp, inst) < 256 ? 2 : 3;
+	case RuntimeConstants.opc_ldc2_w:
+	    constant(cp, inst);
+	    return 3;
+	case RuntimeConstants.opc_bipush:
+	case RuntimeConstants.opc_newarray:
+	    return 2;
+	case RuntimeConstants.opc_iinc:
+	    IincInstruction iinc = (IincInstruction)inst;
+	    if (iinc.getAddress() > 255 || iinc.getInc() < -128 || iinc.getInc() > 127)
+		return 6;
+	    return 3;
+	case RuntimeConstants.opc_tableswitch:
+	    return 1 + switchPadding(pc) + 12 + 4 * ((TableSwitchInstruction)inst).getLabels().length;
+	case RuntimeConstants.opc_lookupswitch:
+	    return 1 + switchPadding(pc) + 8 + 8 * ((LookupSwitchInstruction)inst).getValues().size();
+	case RuntimeConstants.opc_goto_w:
+	case RuntimeConstants.opc_jsr_w:
+	case RuntimeConstants.opc_invokeinterface:
+	    return 5;
+	case RuntimeConstants.opc_multianewarray:
+	    return 4;
+	}
+	if (isLocalInstruction(opc))
+	    return inst.getOperand() > 255 ? 4 : 2;
+	if (inst instanceof JumpInstruction || inst instanceof FieldRefInstruction ||
+	    inst instanceof MethodInvocationInstruction || inst instanceof ClassRefInstruction ||
+	    inst instanceof ArrayInstruction || opc == RuntimeConstants.opc_sipush)
+	    return 3;
+	return 1;
+    }
+
+    // offset: the branch offset from pc to a label
+    private static int offset(Hashtable<String, Integer> labels, String label, int pc, String methodName) {
+	Integer target = labels.get(label);
+	if (target == null) {
+	    Error.error("WriteClassFiles: undefined label '" + label + "' in method '" + methodName + "'.");
+	    return 0;
+	}
+	return target - pc;
+    }
+
+    // encode: writes the bytes of one instruction
+    private static void encode(DataOutputStream out, ConstantPool cp, Instruction inst,
+			       Hashtable<String, Integer> labels, String methodName) throws IOException {
+	int opc = inst.getOpCode();
+	int pc = out.size();
+	if (opc < 0 || inst instanceof LabelInstruction)
+	    return;
+
+	switch (opc) {
+	case RuntimeConstants.opc_ldc:
+	case RuntimeConstants.opc_ldc_w: {
+	    int index = constant(cp, inst);
+	    if (index < 256) {
+		out.writeByte(RuntimeConstants.opc_ldc);
+		out.writeByte(index);
+	    } else {
+		out.writeByte(RuntimeConstants.opc_ldc_w);
+		out.writeShort(index);
+	    }
+	    return;
+	}
+	case RuntimeConstants.opc_ldc2_w:
+	    out.writeByte(opc);
+	    out.writeShort(constant(cp, inst));
+	    return;
+	case RuntimeConstants.opc_bipush:
+	    out.writeByte(opc);
+	    out.writeByte(inst.getOperand());
+	    return;
+	case RuntimeConstants.opc_sipush:
+	    out.writeByte(opc);
+	    out.writeShort(inst.getOperand());
+	    return;
+	case RuntimeConstants.opc_iinc: {
+	    IincInstruction iinc = (IincInstruction)inst;
+	    if (iinc.getAddress() > 255 || iinc.getInc() < -128 || iinc.getInc() > 127) {
+		out.writeByte(RuntimeConstants.opc_wide);
+		out.writeByte(opc);
+		out.writeShort(iinc.getAddress());
+		out.writeShort(iinc.getInc());
+	    } else {
+		out.writeByte(opc);
+		out.writeByte(iinc.getAddress());
+		out.writeByte(iinc.getInc());
+	    }
+	    return;
+	}
+	case RuntimeConstants.opc_tableswitch: {
+	    TableSwitchInstruction ts = (TableSwitchInstruction)inst;
+	    String[] targets = ts.getLabels();
+	    out.writeByte(opc);
+	    for (int i=0; i<switchPadding(pc); i++)
+		out.writeByte(0);
+	    out.writeInt(offset(labels, ts.getDefaultLabel(), pc, methodName));
+	    out.writeInt(ts.getLow());
+	    out.writeInt(ts.getLow() + targets.length - 1);
+	    for (String target : targets)
+		out.writeInt(offset(labels, "L" + target, pc, methodName));
+	    return;
+	}
+	case RuntimeConstants.opc_lookupswitch: {
+	    LookupSwitchInstruction ls = (LookupSwitchInstruction)inst;
+	    out.writeByte(opc);
+	    for (int i=0; i<switchPadding(pc); i++)
+		out.writeByte(0);
+	    out.writeInt(offset(labels, ls.getDefaultLabel(), pc, methodName));
+	    out.writeInt(ls.getValues().size());
+	    for (Map.Entry<Object, String> e : ls.getValues().entrySet()) {
+		out.writeInt(((Number)e.getKey()).intValue());
+		out.writeInt(offset(labels, "L" + e.getValue(), pc, methodName));
+	    }
+	    return;
+	}
+	case RuntimeConstants.opc_newarray:
+	    out.writeByte(opc);
+	    out.writeByte(arrayType(((ArrayInstruction)inst).getTypeName()));
+	    return;
+	case RuntimeConstants.opc_multianewarray: {
+	    String typeName = ((ArrayInstruction)inst).getTypeName();
+	    int dimensions = 0;
+	    while (typeName.charAt(dimensions) == '[')
+		dimensions++;
+	    out.writeByte(opc);
+	    out.writeShort(cp.addClass(typeName));
+	    out.writeByte(dimensions);
+	    return;
+	}
+	}
+
+	if (isLocalInstruction(opc)) {
+	    if (inst.getOperand() > 255) {
+		out.writeByte(RuntimeConstants.opc_wide);
+		out.writeByte(opc);
+		out.writeShort(inst.getOperand());
+	    } else {
+		out.writeByte(opc);
+		out.writeByte(inst.getOperand());
+	    }
+	} else if (inst instanceof JumpInstruction) {
+	    int offset = offset(labels, ((JumpInstruction)inst).getLabel(), pc, methodName);
+	    out.writeByte(opc);
+	    if (opc == RuntimeConstants.opc_goto_w || opc == RuntimeConstants.opc_jsr_w)
+		out.writeInt(offset);
+	    else {
+		if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE)
+		    Error.error("WriteClassFiles: branch offset too large in method '" + methodName + "'.");
+		out.writeShort(offset);
+	    }
+	} else if (inst instanceof FieldRefInstruction) {
+	    FieldRefInstruction fr = (FieldRefInstruction)inst;
+	    out.writeByte(opc);
+	    out.writeShort(cp.addMemberRef(ConstantPool.CONSTANT_Fieldref, fr.getClassName(), fr.getFieldName(), fr.getSignature()));
+	} else if (inst instanceof InterfaceInvocationInstruction) {
+	    InterfaceInvocationInstruction ii = (InterfaceInvocationInstruction)inst;
+	    out.writeByte(opc);
+	    out.writeShort(cp.addMemberRef(ConstantPool.CONSTANT_InterfaceMethodref, ii.getClassName(), ii.getMethodName(), ii.getSignature()));
+	    out.writeByte(ii.getParamCount());
+	    out.writeByte(0);
+	} else if (inst instanceof MethodInvocationInstruction) {
+	    MethodInvocationInstruction mi = (MethodInvocationInstruction)inst;
+	    // invokenonvirtual is the old name of invokespecial
+	    out.writeByte(opc == RuntimeConstants.opc_invokenonvirtual ? RuntimeConstants.opc_invokespecial : opc);
+	    out.writeShort(cp.addMemberRef(ConstantPool.CONSTANT_Methodref, mi.getClassName(), mi.getMethodName(), mi.getSignature()));
+	} else if (inst instanceof ClassRefInstruction) {
+	    out.writeByte(opc);
+	    out.writeShort(cp.addClass(((ClassRefInstruction)inst).getClassName()));
+	} else if (inst instanceof ArrayInstruction) {
+	    // anewarray
+	    out.writeByte(opc);
+	    out.writeShort(cp.addClass(((ArrayInstruction)inst).getTypeName()));
+	} else
+	    out.writeByte(opc);
+    }
+
+    // arrayType: the atype operand of newarray
+    private static int arrayType(String typeName) {
+	if (typeName.equals("boolean")) return 4;
+	if (typeName.equals("char"))    return 5;
+	if (typeName.equals("float"))   return 6;
+	if (typeName.equals("double"))  return 7;
+	if (typeName.equals("byte"))    return 8;
+	if (typeName.equals("short"))   return 9;
+	if (typeName.equals("int"))     return 10;
+	if (typeName.equals("long"))    return 11;
+	Error.error("WriteClassFiles: unknown array type '" + typeName + "'.");
+	return 0;
+    }
+}
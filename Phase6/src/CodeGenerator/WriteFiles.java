@@ -4,20 +4,21 @@ import AST.*;
 import java.util.*;
 import Jasmin.*;
 import Instruction.*;
+import Utilities.Error;
 import Utilities.Settings;
 /** The WriteFiles class is used to write the content of a classFile object 
  * to a file. The extension of the file is determined by the fileExt in the 
- * Settings class.
+ * Settings of the compilation.
  * 
  * @author Matt Pedersen
  *
  */
 public class WriteFiles {
     
-    public static void writeFile(ClassDecl cd, boolean writeOptimized, boolean writeComments) {
+    public static void writeFile(ClassDecl cd, boolean writeOptimized, Settings settings) {
 	ClassFile classFile = cd.classFile;
 	
-	String outputFileName = cd.name() + Settings.fileExt;
+	String outputFileName = cd.name() + settings.fileExt;
 	System.out.println("Writing " + (writeOptimized ? "Optimized" : "Unoptimized") + " jasmin file : '" + outputFileName + "'");
 	try {
 	    java.io.PrintWriter out;
@@ -35,13 +36,11 @@ public class WriteFiles {
 	    // Write all the methods
 	    Iterator<Method> it2 = classFile.getMethodsIterator();
 	    while (it2.hasNext()) {
-		writeMethod(out, it2.next().getMethod(), writeOptimized, writeComments);
+		writeMethod(out, it2.next().getMethod(), writeOptimized, settings);
 	    }   
 	    out.close();
 	} catch (java.io.IOException e) {
-	    System.out.println("An I/O error occured while opening output file " + outputFileName);
-	    System.out.println(e);
-	    System.exit(1);
+	    Error.error("An I/O error occured while opening output file " + outputFileName + "\n" + e);
 	}
     }
     
@@ -77,19 +76,27 @@ public class WriteFiles {
     private static void writeMethod(java.io.PrintWriter out,
 				    ClassBodyDecl method,
 				    boolean writeOptimized,
-				    boolean writeComments) {
+				    Settings settings) {
+	boolean writeComments = settings.writeCommentsInJasminFile;
+	
+	Vector<Instruction> code;
+	if (writeOptimized)
+	    code = method.getOptmizedCode();
+	else
+	    code = method.getCode();
+	int maxStack = StackDepth.maxStack(code, method.getname());
 	
 	if (method instanceof MethodDecl && 
 	    ((MethodDecl)method).name().getname().equals("main") && 
 	    ((MethodDecl)method).returnType().isVoidType() && 
 	    ((MethodDecl)method).getModifiers().isStatic() && 
 	    ((MethodDecl)method).getModifiers().isPublic()) {
-	    System.out.println("Generating code for the EVM? " + Utilities.Settings.generateEVMCode);
-	    if (Utilities.Settings.generateEVMCode) 
+	    System.out.println("Generating code for the EVM? " + settings.generateEVMCode);
+	    if (settings.generateEVMCode) 
 		out.println(".method public static main()V");
 	    else
 		out.println(".method public static main([Ljava/lang/String;)V");
-	    out.println("\t.limit stack 50");
+	    out.println("\t.limit stack " + maxStack);
 	    out.println("\t.limit locals " + ((MethodDecl)method).localsUsed);              
 	} else {
 	    //address = 1;
@@ -135,15 +142,11 @@ public class WriteFiles {
 		out.println(".method static <clinit>()V");
 	    
 	    if (!isAbstract) {
-		out.println("\t.limit stack 50");
+		out.println("\t.limit stack " + maxStack);
 		out.println("\t.limit locals " + method.localsUsed);     
 	    }
 	}
 	
-	Vector<Instruction> code;
-	
-	    code = method.getCode();
-	
 	Iterator<Instruction> it = code.iterator();
 	
 	Instruction inst = null;
@@ -1,10 +1,19 @@
 import Utilities.Error;
+import Utilities.CompilationAbortedException;
 import Scanner.*;
 import Parser.*;
 import Phases.*;
+import Utilities.CompilationContext;
 import Utilities.Settings;
+import Utilities.Statistics;
+import Utilities.DependencyGraph;
 import AST.*;
 import CodeGenerator.WriteFiles;
+import CodeGenerator.WriteClassFiles;
+import java.io.*;
+import java.net.*;
+import java.util.Arrays;
+import java.util.HashSet;
 
 /**
  * The main driver class of the espresso compiler.
@@ -15,36 +24,40 @@ public class Espressoc {
      * Prints the options for the compiler
      */
     public static void usage() {
-	System.out.println("Usage: java Espressoc [-ref extension] [-I directory] [-L directory] [-EVM] [-Ttoken] [-Ttree] [-Tsymbol] [-Ttype] [-Tmodifier] [-Tcode] -P:(1|2|3|4|5|6) input");
+	System.out.println("Usage: java Espressoc [-ref extension] [-I directory] [-H directory] [-noheaders] [-incremental] [-L directory] [-EVM] [-Ttoken] [-Ttree] [-Tsymbol] [-Ttype] [-Tmodifier] [-Tcode] [-Toptimize] [-Tclass=name,...] [-Tstats[=file]] [-class] -P:(1|2|3|4|5|6|7) input ...");
 	System.out.println("       -history. Shows the version history.");
 	System.out.println("       -version. Shows the version.");
 	System.out.println("       -EVM\tGenerate code for the Espresso Virtual Machine (else code for Java is generated)");
 	System.out.println("       -ref extension\tSpecify the extension of the generated Jasmin files (default is 'j')");
 	System.out.println("       -I dir\tSet the include directory (Default is Include).");
+	System.out.println("       -H dir\tSet the directory of the cached headers of the include files (Default is .headers in the include directory).");
+	System.out.println("       -noheaders\tAlways parse the include files instead of using cached headers.");
 	System.out.println("       -Ttoken\tPrint the tokens generated by the scanner.");
 	System.out.println("       -Ttree\tPrint the parse tree.");
 	System.out.println("       -Tsymbol\tProduce detailed output from the name checker.");
 	System.out.println("       -Ttype\tProduce detailed output from the type checker"); 
 	System.out.println("       -Tmodifier\tProduce detailed output from the modifier checker");
 	System.out.println("       -Tcode\tProduce detailed output from the code generator.");
+	System.out.println("       -Toptimize\tProduce detailed output from the peephole optimizer.");
+	System.out.println("       -Tclass=name,...\tOnly trace the given classes.");
+	System.out.println("       -Tstats[=file]\tPrint time, memory, tree and code size statistics for each phase (and write them to file as JSON).");
 	System.out.println("       -P:X\tRun the all phases of the compiler from phase X and down.");
 	System.out.println("       -nocomment\tDoes not produce comments in the jasmin file.");
-	System.out.println("           \tX can be 1,2,3,4,5 or 6");
+	System.out.println("       -class\tWrite .class files directly instead of jasmin files.");
+	System.out.println("       -incremental\tOnly recompile the classes that changed (or use classes whose headers changed) since the last compilation.");
+	System.out.println("       -server[:port]\tRun as a compile server reading one command line per request from stdin (or a local socket).");
+	System.out.println("           \tX can be 1,2,3,4,5,6 or 7");
 	System.out.println("           \t1/2 : scan and parse. No real difference between 1 and 2 "); 
 	System.out.println("           \t3 : like 2 plus the name checker.");
 	System.out.println("           \t4 : like 3 plus the type checker.");
 	System.out.println("           \t5 : like 4 plus the modifier checker.");
 	System.out.println("           \t6 : Run the full compiler (Including code generation).");
-	System.out.println("           \t7 : Run the optimizer.");
+	System.out.println("           \t7 : like 6 plus the peephole optimizer.");
     }
 
     /**
-     * The maximum phase number that is run.
-     */
-    public static int phase;
-    
-    /**
-     * Runs the compiler on an input file.
+     * Runs the compiler on one or more input files, or starts a compile
+     * server if the first argument is -server or -server:port.
      *
      * @param argv   the command line arguments.
      */
@@ -55,8 +68,129 @@ public class Espressoc {
 	    System.exit(1);
 	}
 	
-	
+	try {
+	    if (argv[0].equals("-server")) {
+		serve(System.in, System.out, new CompilationContext());
+		return;
+	    } else if (argv[0].matches("-server:\\d+")) {
+		serve(Integer.parseInt(argv[0].substring(8)));
+		return;
+	    }
+	} catch (IOException e) {
+	    System.out.println("Compile server: " + e);
+	    System.exit(1);
+	}
+
+	int status = compile(argv);
+	if (status != 0)
+	    System.exit(status);
+    }
+
+    /**
+     * Runs the compiler as a server. Each line read is a compile request
+     * holding the command line arguments of one run (without the 'java
+     * Espressoc'). The output of the run is followed by a line '#done
+     * status' where status is 0 on success. The line 'quit' ends the
+     * session. The parsed and checked import files stay in memory between 
+     * requests (in the context).
+     */
+    private static void serve(InputStream in, PrintStream out, CompilationContext context) throws IOException {
+	Error.exitOnError = false;
+	BufferedReader reader = new BufferedReader(new InputStreamReader(in));
+	String line;
+	while ((line = reader.readLine()) != null) {
+	    line = line.trim();
+	    if (line.equals("quit"))
+		break;
+	    if (line.length() > 0)
+		serveRequest(line.split("\\s+"), out, context);
+	}
+    }
+
+    /**
+     * Runs the compile server on a local socket. Requests are handled one
+     * at a time, as the output of a request is written to System.out. All
+     * connections share one context, so a client may connect once per
+     * request and still find the import files in memory.
+     */
+    private static void serve(int port) throws IOException {
+	CompilationContext context = new CompilationContext();
+	ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+	System.out.println("Compile server listening on port " + server.getLocalPort());
+	while (true) {
+	    Socket client = server.accept();
+	    try {
+		serve(client.getInputStream(), new PrintStream(client.getOutputStream(), true), context);
+	    } catch (IOException e) {
+		System.out.println("Compile server: " + e);
+	    } finally {
+		client.close();
+	    }
+	}
+    }
+
+    private static void serveRequest(String argv[], PrintStream out, CompilationContext context) {
+	PrintStream stdout = System.out;
+	System.setOut(out);
+	int status;
+	try {
+	    status = compile(argv, context);
+	} catch (RuntimeException e) {
+	    // an internal error: the cached imports cannot be trusted any longer
+	    e.printStackTrace(out);
+	    Phase.clearImportCache(context);
+	    status = 1;
+	} finally {
+	    System.setOut(stdout);
+	}
+	out.println("#done " + status);
+	out.flush();
+    }
+
+    /**
+     * Runs the compiler on the input files given in argv.
+     *
+     * @param argv   the command line arguments.
+     * @return 0 if all files were compiled, 1 otherwise.
+     * If {@link Error#exitOnError} is true (the default) an error in a
+     * file ends the program with status 1 instead.
+     */
+    public static int compile(String argv[]) {
+	return compile(argv, new CompilationContext());
+    }
+
+    /**
+     * Runs the compiler on the input files given in argv in a context. The
+     * context keeps the parsed import files for the next call; compilations
+     * with different contexts can run at the same time.
+     *
+     * @param argv   the command line arguments.
+     * @param context the context to compile in.
+     * @return 0 if all files were compiled, 1 otherwise (a file with
+     * errors does not stop the files after it from being compiled). If
+     * {@link Error#exitOnError} is true (the default) an error in a file
+     * ends the program with status 1 instead.
+     */
+    public static int compile(String argv[], CompilationContext context) {
+	CompilationContext outer = CompilationContext.current();
+	CompilationContext.setCurrent(context);
+	try {
+	    return compileFiles(argv, context);
+	} finally {
+	    CompilationContext.setCurrent(outer);
+	}
+    }
+
+    private static int compileFiles(String argv[], CompilationContext context) {
 	int debugLevel = 0;
+	String statisticsFile = null;
+	int phase = 0;
+	boolean failed = false;
+	context.phase = 0;
+	context.settings = new Settings();
+	context.statistics = new Statistics();
+	Settings settings = context.settings;
+	Statistics statistics = context.statistics;
 	for (int i = 0; i < argv.length; i++) {
 	    Scanner s = null;
 	    parser p = null;
@@ -64,7 +198,7 @@ public class Espressoc {
 		if ( argv[i].equals("-")) {
 		    s = new Scanner( System.in );
 		} else if (argv[i].matches("-P:\\d")) {
-		    Phase.phase = phase = Integer.parseInt(argv[i].substring(3,4));
+		    context.phase = phase = Integer.parseInt(argv[i].substring(3,4));
 		    continue;
 		} else if (argv[i].equals("-Tsymbol")) {
 		    debugLevel |= 0x0004;
@@ -87,82 +221,146 @@ public class Espressoc {
 		} else if (argv[i].equals("-Toptimize")) {
 		    debugLevel |= 0x0040;
 		    continue;
+		} else if (argv[i].startsWith("-Tclass=")) {
+		    if (settings.traceClasses == null)
+			settings.traceClasses = new HashSet<String>();
+		    settings.traceClasses.addAll(Arrays.asList(argv[i].substring(8).split(",")));
+		    continue;
+		} else if (argv[i].equals("-Tstats")) {
+		    statistics.enabled = true;
+		    continue;
+		} else if (argv[i].startsWith("-Tstats=")) {
+		    statistics.enabled = true;
+		    statisticsFile = argv[i].substring(8);
+		    continue;
 		} else if (argv[i].equals("-ref")) {
 		    if (argv[i+1].charAt(0) == '.')
 			argv[i+1] = argv[i+1].substring(1, argv[i+1].length());
-		    Settings.fileExt = 	"."+argv[i+1];
+		    settings.fileExt = 	"."+argv[i+1];
 		    i++;
 		    continue;
 		} else if (argv[i].equals("-I")) {
 		    if (argv[i+1].charAt(argv[i+1].length()-1) == '/')
 			argv[i+1] = argv[i+1].substring(0, argv[i+1].length()-1);
-		    Settings.includeDir = argv[i+1];
+		    settings.includeDir = argv[i+1];
 		    i++;
 		    continue;
+		} else if (argv[i].equals("-H")) {
+		    settings.headerCacheDir = argv[i+1];
+		    i++;
+		    continue;
+		} else if (argv[i].equals("-incremental")) {
+		    settings.incremental = true;
+		    continue;
+		} else if (argv[i].equals("-noheaders")) {
+		    settings.useHeaderCache = false;
+		    continue;
 		} else if (argv[i].equals("-EVM")) {
-		    Settings.generateEVMCode = true; // Generate code for the Espresso Virtual Machine
+		    settings.generateEVMCode = true; // Generate code for the Espresso Virtual Machine
 		    continue;
 		} else if (argv[i].equals("-help")) {
 		    usage();
-		    System.exit(1);
-		    continue;
+		    return 1;
 		} else if (argv[i].equals("-history")) {
 		    System.out.println(Utilities.Version.versionHistory());
-		    System.exit(1);
+		    return 1;
 		} else if (argv[i].equals("-version")) {
 		    System.out.println("espressoc " + Utilities.Version.getVersion() + "\n" + Utilities.Version.changes[Utilities.Version.changes.length-2]);
-		    System.exit(1);
+		    return 1;
 		} else if (argv[i].equals("-nocomment")) {
-		    Settings.writeCommentsInJasminFile = false;
+		    settings.writeCommentsInJasminFile = false;
+		    continue;
+		} else if (argv[i].equals("-class")) {
+		    settings.writeClassFiles = true;
 		    continue;
 		} else {
 		    Error.setFileName(argv[i]);
 		    s = new Scanner( new java.io.FileReader(argv[i]) );
 		}
-		p = new parser(s);
+		// each input file is a separate compilation; only the parsed
+		// import files are shared between them.
+		Phase.reset(context);
+		statistics.reset(argv[i]);
+		if (settings.incremental && phase >= 6 && !argv[i].equals("-")) {
+		    try {
+			context.dependencies = new DependencyGraph(context, argv[i]);
+		    } catch (java.io.IOException e) {
+			// compile everything
+		    }
+		}
+		p = new parser(s, context);
 	    }
 	    catch (java.io.FileNotFoundException e) {
 		System.out.println("File not found : \""+argv[i]+"\"");
-		System.exit(1);
+		return 1;
 	    }
 	    catch (ArrayIndexOutOfBoundsException e) {
 		usage();
+		return 1;
 	    }
 	    
-	    switch (phase) {
-	    case 1: new Phase1().execute(p, debugLevel, 0x0001); break;
-		//<--
-	    case 2: new Phase2().execute(p, debugLevel, 0x0003); break;
-	    case 3: new Phase3().execute(p, debugLevel, 0x0007); break;
-	    case 4: new Phase4().execute(p, debugLevel, 0x000F); break;
-	    case 5: new Phase5().execute(p, debugLevel, 0x001F); break;
-	    case 6: new Phase6().execute(p, debugLevel, 0x003F); break;
-		//<<--
-	    case 7: new Phase7().execute(p, debugLevel, 0x007F); break;
-		//-->>
-		//-->
-	    default: System.out.println("Phase " + phase + " does not exist.");
+	    try {
+		compileFile(p, context, phase, debugLevel);
+	    } catch (CompilationAbortedException e) {
+		// the error has been reported already; go on with the next file
+		Phase.abortCompilation(context);
+		failed = true;
 	    }
-	    
-	    if (phase >= 6) {
-		boolean writeOptimizedCode = (phase == 7);
-		Compilation program = (Compilation)Phase.root;
-		for (int j=0; j<program.types().nchildren;j++) {
-		    ClassDecl cd = (ClassDecl)program.types().children[j];
-		    if (!Utilities.Settings.generateEVMCode) {
-			// do not generate code for Runnable, Object or Thread                                                                        
-			if (cd.name().equals("java/lang/Runnable") ||
-			    cd.name().equals("java/lang/Thread") ||
-			    cd.name().equals("java/lang/Object"))
-			    continue;
-		    }
-		    if (cd.generateCode())
-			WriteFiles.writeFile(cd, writeOptimizedCode, Utilities.Settings.writeCommentsInJasminFile);
+	}
+	if (statisticsFile != null)
+	    statistics.writeJSON(statisticsFile);
+	return failed ? 1 : 0;
+    }
+
+    // compileFile: runs the phases up to phase on a parsed file and writes
+    //              the output files.
+    private static void compileFile(parser p, CompilationContext context, int phase, int debugLevel) {
+	Settings settings = context.settings;
+	Statistics statistics = context.statistics;
+	switch (phase) {
+	case 1: new Phase1(context).execute(p, debugLevel, 0x0001); break;
+	    //<--
+	case 2: new Phase2(context).execute(p, debugLevel, 0x0003); break;
+	case 3: new Phase3(context).execute(p, debugLevel, 0x0007); break;
+	case 4: new Phase4(context).execute(p, debugLevel, 0x000F); break;
+	case 5: new Phase5(context).execute(p, debugLevel, 0x001F); break;
+	case 6: new Phase6(context).execute(p, debugLevel, 0x003F); break;
+	    //<<--
+	case 7: new Phase7(context).execute(p, debugLevel, 0x007F); break;
+	    //-->>
+	    //-->
+	default: System.out.println("Phase " + phase + " does not exist.");
+	}
+	
+	if (phase >= 6) {
+	    boolean writeOptimizedCode = (phase == 7);
+	    Compilation program = (Compilation)context.root;
+	    for (int j=0; j<program.types().nchildren;j++) {
+		ClassDecl cd = (ClassDecl)program.types().children[j];
+		if (!settings.generateEVMCode) {
+		    // do not generate code for Runnable, Object or Thread                                                                        
+		    if (cd.name().equals("java/lang/Runnable") ||
+			cd.name().equals("java/lang/Thread") ||
+			cd.name().equals("java/lang/Object"))
+			continue;
+		}
+		if (cd.generateCode() && !context.upToDate.contains(cd)) {
+		    if (settings.writeClassFiles)
+			WriteClassFiles.writeFile(cd, writeOptimizedCode, settings);
+		    else
+			WriteFiles.writeFile(cd, writeOptimizedCode, settings);
 		}
-		
 	    }
-	    System.out.println("============= S = U = C = C = E = S = S =================");
+	    // the warnings of the writing (StackDepth) come after the last phase
+	    Error.report();
+	    if (context.dependencies != null)
+		context.dependencies.save();
 	}
+	if (phase >= 3)
+	    Phase.markImportsChecked(context);
+	statistics.print();
+	statistics.save();
+	System.out.println("============= S = U = C = C = E = S = S =================");
     }
 }
 
@@ -20,7 +20,18 @@ public class TableSwitchInstruction extends Instruction {
 	this.labels = labels;
 	this.defaultLabel = defaultLabel;
     }
-    
+
+    public int getLow() {
+	return low;
+    }
+
+    public String[] getLabels() {
+	return labels;
+    }
+
+    public String getDefaultLabel() {
+	return defaultLabel;
+    }
 
     public String toString() {
 	String result = "tableswitch " + low + "\n";
@@ -71,7 +71,7 @@ public class ClassFile {
 	}
 
 	public void addComment(AST a, String comment) {
-		addInstruction(new CommentInstruction(RuntimeConstants.opc_comment, " (" + a.line + ") " + comment));
+		addInstruction(new CommentInstruction(RuntimeConstants.opc_comment, " (" + a.getLine() + ") " + comment));
 	}
 } 
 
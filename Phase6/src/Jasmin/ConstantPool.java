@@ -0,0 +1,177 @@
+package Jasmin;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * The constant pool of a class file. Each constant is only added once;
+ * adding an existing constant returns the index it already has.
+ */
+public class ConstantPool {
+
+	public static final int CONSTANT_Utf8               = 1;
+	public static final int CONSTANT_Integer            = 3;
+	public static final int CONSTANT_Float              = 4;
+	public static final int CONSTANT_Long               = 5;
+	public static final int CONSTANT_Double             = 6;
+	public static final int CONSTANT_Class              = 7;
+	public static final int CONSTANT_String             = 8;
+	public static final int CONSTANT_Fieldref           = 9;
+	public static final int CONSTANT_Methodref          = 10;
+	public static final int CONSTANT_InterfaceMethodref = 11;
+	public static final int CONSTANT_NameAndType        = 12;
+
+	// the encoded entries and their indices
+	private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+	private DataOutputStream out = new DataOutputStream(bytes);
+	private Hashtable<String, Integer> indices = new Hashtable<String, Integer>();
+	private int nextIndex = 1;
+
+	// returns the index of an already added constant or -1 and starts a new entry
+	private int lookup(String key) {
+		Integer index = indices.get(key);
+		if (index != null)
+			return index;
+		return -1;
+	}
+
+	private int add(String key, int slots) {
+		int index = nextIndex;
+		indices.put(key, index);
+		nextIndex += slots;
+		return index;
+	}
+
+	public int addUtf8(String s) {
+		String key = CONSTANT_Utf8 + ":" + s;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		try {
+			out.writeByte(CONSTANT_Utf8);
+			out.writeUTF(s);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	public int addInteger(int value) {
+		String key = CONSTANT_Integer + ":" + value;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		try {
+			out.writeByte(CONSTANT_Integer);
+			out.writeInt(value);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	public int addFloat(float value) {
+		String key = CONSTANT_Float + ":" + Float.floatToIntBits(value);
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		try {
+			out.writeByte(CONSTANT_Float);
+			out.writeFloat(value);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	// long and double constants take up two entries in the pool
+	public int addLong(long value) {
+		String key = CONSTANT_Long + ":" + value;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		try {
+			out.writeByte(CONSTANT_Long);
+			out.writeLong(value);
+		} catch (IOException e) {
+		}
+		return add(key, 2);
+	}
+
+	public int addDouble(double value) {
+		String key = CONSTANT_Double + ":" + Double.doubleToLongBits(value);
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		try {
+			out.writeByte(CONSTANT_Double);
+			out.writeDouble(value);
+		} catch (IOException e) {
+		}
+		return add(key, 2);
+	}
+
+	public int addClass(String className) {
+		String key = CONSTANT_Class + ":" + className;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		int nameIndex = addUtf8(className);
+		try {
+			out.writeByte(CONSTANT_Class);
+			out.writeShort(nameIndex);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	public int addString(String s) {
+		String key = CONSTANT_String + ":" + s;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		int stringIndex = addUtf8(s);
+		try {
+			out.writeByte(CONSTANT_String);
+			out.writeShort(stringIndex);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	public int addNameAndType(String name, String signature) {
+		String key = CONSTANT_NameAndType + ":" + name + ":" + signature;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		int nameIndex = addUtf8(name);
+		int signatureIndex = addUtf8(signature);
+		try {
+			out.writeByte(CONSTANT_NameAndType);
+			out.writeShort(nameIndex);
+			out.writeShort(signatureIndex);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	// tag is one of CONSTANT_Fieldref, CONSTANT_Methodref, or CONSTANT_InterfaceMethodref
+	public int addMemberRef(int tag, String className, String name, String signature) {
+		String key = tag + ":" + className + ":" + name + ":" + signature;
+		int index = lookup(key);
+		if (index != -1)
+			return index;
+		int classIndex = addClass(className);
+		int nameAndTypeIndex = addNameAndType(name, signature);
+		try {
+			out.writeByte(tag);
+			out.writeShort(classIndex);
+			out.writeShort(nameAndTypeIndex);
+		} catch (IOException e) {
+		}
+		return add(key, 1);
+	}
+
+	// writes constant_pool_count followed by the entries
+	public void write(DataOutputStream dest) throws IOException {
+		dest.writeShort(nextIndex);
+		bytes.writeTo(dest);
+	}
+}
@@ -298,6 +298,24 @@ public class RuntimeConstants {
 	};
 
 
+	// The number of words an instruction adds to (or removes from) the operand stack.
+	// 99 means that the effect depends on the operand (field or method signature).
+	public static final int opcStackEffects[] = {
+		0, 1, 1, 1, 1, 1, 1, 1, 1, 2, 2, 1, 1, 1, 2, 2,
+		1, 1, 1, 1, 2, 1, 2, 1, 2, 1, 1, 1, 1, 1, 2, 2,
+		2, 2, 1, 1, 1, 1, 2, 2, 2, 2, 1, 1, 1, 1, -1, 0,
+		-1, 0, -1, -1, -1, -1, -1, -2, -1, -2, -1, -1, -1, -1, -1, -2,
+		-2, -2, -2, -1, -1, -1, -1, -2, -2, -2, -2, -1, -1, -1, -1, -3,
+		-4, -3, -4, -3, -3, -3, -3, -1, -2, 1, 1, 1, 2, 2, 2, 0,
+		-1, -2, -1, -2, -1, -2, -1, -2, -1, -2, -1, -2, -1, -2, -1, -2,
+		-1, -2, -1, -2, 0, 0, 0, 0, -1, -1, -1, -1, -1, -1, -1, -2,
+		-1, -2, -1, -2, 0, 1, 0, 1, -1, -1, 0, 0, 1, 1, -1, 0,
+		-1, 0, 0, 0, -3, -1, -1, -3, -3, -1, -1, -1, -1, -1, -1, -2,
+		-2, -2, -2, -2, -2, -2, -2, 0, 1, 0, -1, -1, -1, -2, -1, -2,
+		-1, 0, 99, 99, 99, 99, 99, 99, 99, 99, 0, 1, 0, 0, 0, -1,
+		0, 0, -1, -1, 0, 99, -1, -1, 0, 1, 0, 99
+	};
+
 	static Integer jumps[] = {
 		opc_ifeq, opc_ifne, opc_iflt, opc_ifge, opc_ifgt, opc_ifle, opc_if_icmpeq,
 		opc_if_icmpne, opc_if_icmplt, opc_if_icmpge, opc_if_icmpgt, opc_if_icmple,
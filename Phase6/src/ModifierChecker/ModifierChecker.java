@@ -13,6 +13,12 @@ public class ModifierChecker extends Visitor {
 	private ClassDecl currentClass;
 	private ClassBodyDecl currentContext;
 	private boolean leftHandSide = false;
+
+	// the methods of the superclasses, indexed for findMethod
+	private MethodLookup methodLookup = new MethodLookup();
+
+	// the string M() uses for each method (see methodString())
+	private IdentityHashMap<MethodDecl, String> methodStrings = new IdentityHashMap<MethodDecl, String>();
         
 
 	public ModifierChecker(SymbolTable classTable, boolean debug) {
@@ -57,10 +63,8 @@ public class ModifierChecker extends Visitor {
             if (cd.body().children[i] instanceof MethodDecl) {
                 MethodDecl md = (MethodDecl)cd.body().children[i];
                 if (!md.getModifiers().isAbstract()) {
-                    concretes.add(Type.parseSignature(md.returnType().signature()) + " " +
-				  md.name()+"("+Type.parseSignature(md.paramSignature()) + " )");
-                    abstracts.remove(Type.parseSignature(md.returnType().signature()) + " " +
-				     md.name()+"("+Type.parseSignature(md.paramSignature()) + " )");
+                    concretes.add(methodString(md));
+                    abstracts.remove(methodString(md));
                 }
             }
         }
@@ -70,14 +74,23 @@ public class ModifierChecker extends Visitor {
             if (cd.body().children[i] instanceof MethodDecl) {
                 MethodDecl md = (MethodDecl)cd.body().children[i];
                 if (md.getModifiers().isAbstract() || md.block() == null) {
-                    abstracts.add(Type.parseSignature(md.returnType().signature()) + " " +
-				  md.name()+"("+Type.parseSignature(md.paramSignature()) + " )");
-                    concretes.remove(Type.parseSignature(md.returnType().signature()) + " " +
-				     md.name()+"("+Type.parseSignature(md.paramSignature()) + " )");
+                    abstracts.add(methodString(md));
+                    concretes.remove(methodString(md));
                 }
             }
         }
     }
+
+    // methodString: the string M() uses for a method, made only once.
+    private String methodString(MethodDecl md) {
+	String s = methodStrings.get(md);
+	if (s == null) {
+	    s = Type.parseSignature(md.returnType().signature()) + " " +
+		md.name()+"("+Type.parseSignature(md.paramSignature()) + " )";
+	    methodStrings.put(md, s);
+	}
+	return s;
+    }
     //-->
 
     /** 
@@ -98,9 +111,8 @@ public class ModifierChecker extends Visitor {
 	    Iterator<String> it = abs.iterator();
 	    while (it.hasNext()) {
 		String s = it.next();
-		Error.error(" " + s,false);
+		Error.error(" " + s, !it.hasNext());
 	    }
-	    System.exit(1);
 	}
 	//-->
     }
@@ -111,7 +123,7 @@ public class ModifierChecker extends Visitor {
     
 	/** Assignment */
 	public Object visitAssignment(Assignment as) {
-	    println(as.line + ":\tVisiting an assignment (Operator: " + as.op()+ ").");
+	    if (debug) println(as.getLine() + ":\tVisiting an assignment (Operator: " + as.op()+ ").");
 
 		boolean oldLeftHandSide = leftHandSide;
 
@@ -132,7 +144,7 @@ public class ModifierChecker extends Visitor {
 
 	/** CInvocation */
 	public Object visitCInvocation(CInvocation ci) {
-	    println(ci.line + ":\tVisiting an explicit constructor invocation (" + (ci.superConstructorCall() ? "super" : "this") + ").");
+	    if (debug) println(ci.getLine() + ":\tVisiting an explicit constructor invocation (" + (ci.superConstructorCall() ? "super" : "this") + ").");
 
 		//<--
 		// Check if the constructor invocation super(...) is private
@@ -147,9 +159,14 @@ public class ModifierChecker extends Visitor {
 		return null;
 	}
 
+	public void recoverMember(ClassDecl cd) {
+		currentContext = null;
+		leftHandSide = false;
+	}
+
 	/** ClassDecl */
 	public Object visitClassDecl(ClassDecl cd) {
-		println(cd.line + ":\tVisiting a class declaration for class '" + cd.name() + "'.");
+		if (debug) println(cd.getLine() + ":\tVisiting a class declaration for class '" + cd.name() + "'.");
 
 		currentClass = cd;
 
@@ -170,7 +187,7 @@ public class ModifierChecker extends Visitor {
 						+ cd.superClass().typeName() + "'.");
 
 		//<--
-		super.visitClassDecl(cd);
+		visitMembers(cd);
 
 		// If the class is not abstract and not an interface it must implement all
 		// the abstract functions of its superclass(es) and its interfaces.
@@ -187,7 +204,7 @@ public class ModifierChecker extends Visitor {
 
 	/** FieldDecl */
 	public Object visitFieldDecl(FieldDecl fd) {
-	    println(fd.line + ":\tVisiting a field declaration for field '" +fd.var().name() + "'.");
+	    if (debug) println(fd.getLine() + ":\tVisiting a field declaration for field '" +fd.var().name() + "'.");
 
 		// If field is not private and hasn't been declared public make it so.
 		if (!fd.modifiers.isPrivate() && !fd.modifiers.isPublic())
@@ -220,7 +237,7 @@ public class ModifierChecker extends Visitor {
 
 	/** FieldRef */
 	public Object visitFieldRef(FieldRef fr) {
-	    println(fr.line + ":\tVisiting a field reference '" + fr.fieldName() + "'.");
+	    if (debug) println(fr.getLine() + ":\tVisiting a field reference '" + fr.fieldName() + "'.");
 
 		//<--
 		FieldDecl fd = fr.myDecl;
@@ -278,7 +295,7 @@ public class ModifierChecker extends Visitor {
 
 	/** MethodDecl */
     public Object visitMethodDecl(MethodDecl md) {
-	println(md.line + ":\tVisiting a method declaration for method '" + md.name() + "'.");
+	if (debug) println(md.getLine() + ":\tVisiting a method declaration for method '" + md.name() + "'.");
 	
 	//<--
 	currentContext = md;
@@ -304,8 +321,8 @@ public class ModifierChecker extends Visitor {
 	
 	// If check if method reimplements a final version with same signature.
 	if (currentClass.superClass() != null) {
-	    MethodDecl mdecl = (MethodDecl) TypeChecker.findMethod(currentClass.superClass().myDecl.allMethods,
-								   md.getname(), md.params(), true);
+	    MethodDecl mdecl = (MethodDecl) TypeChecker.findMethod(methodLookup, currentClass.superClass().myDecl.allMethods,
+								   md.getname(), md.params(), true, debug);
 	    if (mdecl != null) {
 		if (md.paramSignature().equals(mdecl.paramSignature())) {
 		    // it is LEGAL to re-implement a private function final or not.
@@ -339,7 +356,7 @@ public class ModifierChecker extends Visitor {
     
 	/** Invocation */
 	public Object visitInvocation(Invocation in) {
-	    println(in.line + ":\tVisiting an invocation of method '" + in.methodName() + "'.");
+	    if (debug) println(in.getLine() + ":\tVisiting an invocation of method '" + in.methodName() + "'.");
 	    
 	    //<--
 	    // 12/06/13 .length() for Strings
@@ -391,13 +408,13 @@ public class ModifierChecker extends Visitor {
     
 
 	public Object visitNameExpr(NameExpr ne) {
-	    println(ne.line + ":\tVisiting a name expression '" + ne.name() + "'. (Nothing to do!)");
+	    if (debug) println(ne.getLine() + ":\tVisiting a name expression '" + ne.name() + "'. (Nothing to do!)");
 	    return null;
 	}
 
 	/** ConstructorDecl */
 	public Object visitConstructorDecl(ConstructorDecl cd) {
-	    println(cd.line + ":\tVisiting a constructor declaration for class '" + cd.name() + "'.");
+	    if (debug) println(cd.getLine() + ":\tVisiting a constructor declaration for class '" + cd.name() + "'.");
 	      
 		//<--
 	        
@@ -416,7 +433,7 @@ public class ModifierChecker extends Visitor {
 
 	/** New */
 	public Object visitNew(New ne) {
-	    println(ne.line + ":\tVisiting a new '" + ne.type().myDecl.name() + "'.");
+	    if (debug) println(ne.getLine() + ":\tVisiting a new '" + ne.type().myDecl.name() + "'.");
 
 		//<--
 		// We cannot create a new object based on an abstract class
@@ -438,7 +455,7 @@ public class ModifierChecker extends Visitor {
 
 	/** StaticInit */
 	public Object visitStaticInitDecl(StaticInitDecl si) {
-		println(si.line + ":\tVisiting a static initializer.");
+		if (debug) println(si.getLine() + ":\tVisiting a static initializer.");
 
 		//<--
 		currentContext = si;
@@ -451,7 +468,7 @@ public class ModifierChecker extends Visitor {
 
 	/** Super */
 	public Object visitSuper(Super su) {
-		println(su.line + ":\tVisiting a super.");
+		if (debug) println(su.getLine() + ":\tVisiting a super.");
 
 		if (currentContext.isStatic())
 			Error.error(su,
@@ -462,7 +479,7 @@ public class ModifierChecker extends Visitor {
 
 	/** This */
 	public Object visitThis(This th) {
-		println(th.line + ":\tVisiting a this.");
+		if (debug) println(th.getLine() + ":\tVisiting a this.");
 
 		if (currentContext.isStatic())
 			Error.error(th,	"non-static variable this cannot be referenced from a static context.");
@@ -472,7 +489,7 @@ public class ModifierChecker extends Visitor {
 
 	/** UnaryPostExpression */
     public Object visitUnaryPostExpr(UnaryPostExpr up) {
-	println(up.line + ":\tVisiting a unary post expression with operator '" + up.op() + "'.");
+	if (debug) println(up.getLine() + ":\tVisiting a unary post expression with operator '" + up.op() + "'.");
 	
 	//<--
 	if (up.expr() instanceof FieldRef && 
@@ -501,7 +518,7 @@ public class ModifierChecker extends Visitor {
     
     /** UnaryPreExpr */
     public Object visitUnaryPreExpr(UnaryPreExpr up) {
-	println(up.line + ":\tVisiting a unary pre expression with operator '" + up.op() + "'.");
+	if (debug) println(up.getLine() + ":\tVisiting a unary pre expression with operator '" + up.op() + "'.");
 	
 	//<--
 	if (up.expr() instanceof FieldRef && 
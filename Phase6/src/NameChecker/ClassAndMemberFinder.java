@@ -3,15 +3,17 @@ package NameChecker;
 import AST.*;
 import Utilities.Error;
 import Utilities.SymbolTable;
-import Utilities.Visitor;
+import Utilities.TreePass;
 import Parser.*;
-import Phases.Phase2;
 
 /** 
- * A visitor class which visits classes, and their members and enters
- * them into the appropriate tables.
+ * A pass which visits classes, and their members and enters them into
+ * the appropriate tables. The classes themselves must already be in the
+ * class table (see {@link ClassFinder}). It does not look inside the
+ * members, so it can share a {@link Utilities.Traversal} with
+ * {@link MyDeclSet}.
  */
-public class ClassAndMemberFinder extends Visitor {
+public class ClassAndMemberFinder extends TreePass {
 
     /**
      * Adds a method to the method table of a class.
@@ -92,25 +94,78 @@ public class ClassAndMemberFinder extends Visitor {
     
     // %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
         
-    /** 
-     * Contains references to all class declarations. This is set in the constructor.
-     */
-    private SymbolTable classTable;
-
     /** 
      * Holds a reference to the current class. This is set in {@link #visitClassDecl(ClassDecl)}.
      */
     private ClassDecl currentClass;
 
+    /**
+     * The shared superclass 'Object'.
+     */
+    private ClassDecl objectsDecl;
+
     /**
      * Constructs a ClassAndMemberFinder visitor object.
-     * @param classTable The (global) table of classes (stored in {@link Phases.Phase#classTable Phases/Phase.ClassTable}).
+     * @param objectsDecl The class 'Object' (stored in {@link Utilities.CompilationContext#objectsDecl}).
      * @param debug Determine if this visitor should produce output.
      */
-    public ClassAndMemberFinder(SymbolTable classTable, boolean debug) { 
-	this.classTable = classTable; 
+    public ClassAndMemberFinder(ClassDecl objectsDecl, boolean debug) { 
+	this.objectsDecl = objectsDecl;
 	this.debug = debug;
     }
+
+    /**
+     * Enters a class or a member (the members are not looked into).
+     * @param a The node being entered.
+     * @return true for classes and sequences (the modifiers, interfaces and body of a class).
+     */
+    public boolean enter(AST a) {
+	if (a instanceof ClassDecl) {
+	    visitClassDecl((ClassDecl)a);
+	    return true;
+	}
+	if (a instanceof Sequence)
+	    return true;
+	if (a instanceof Block)
+	    visitBlock((Block)a);
+	else if (a instanceof ConstructorDecl)
+	    visitConstructorDecl((ConstructorDecl)a);
+	else if (a instanceof FieldDecl)
+	    visitFieldDecl((FieldDecl)a);
+	else if (a instanceof MethodDecl)
+	    visitMethodDecl((MethodDecl)a);
+	else if (a instanceof StaticInitDecl)
+	    visitStaticInitDecl((StaticInitDecl)a);
+	return false;
+    }
+
+    /**
+     * Leaves a class: if there are no constructors defined in it, a
+     * default constructor is created and added to the class and its
+     * method table.
+     * @param a The node being left.
+     */
+    public void leave(AST a) {
+	if (!(a instanceof ClassDecl))
+	    return;
+	ClassDecl cd = (ClassDecl)a;
+	// If there are not constructors at all - insert the default -
+	// don't actually make any parse tree stuff - just generate
+	// the code automatically in the code generation phase.
+	if (cd.methodTable.get("<init>") == null && !cd.isInterface()) { 
+	    Token t = new Token(sym.IDENTIFIER, cd.name(), 0, 0, 0);
+	    Modifier m = new Modifier(Modifier.Public);
+	    
+	    ConstructorDecl c = new ConstructorDecl(new Sequence(m),
+						    new Name(t),
+						    new Sequence(),
+						    null,
+						    new Sequence());
+	    addMethod(cd, c, "<init>", "");
+	    cd.body().append(c);
+	    if (debug) println(cd.getLine() + ":\tGenerating default construction <init>() for class '" + cd.name() + "'.");
+	}
+    }
     
 
     /**
@@ -125,8 +180,8 @@ public class ClassAndMemberFinder extends Visitor {
      * @return null
      */
     public Object visitBlock(Block bl) {
-	println(bl.line + ":\tVisiting a Block.");
-	println(bl.line + ":\tInserting common contructor <cinit> into method table of class '" + currentClass + "'.");
+	if (debug) println(bl.getLine() + ":\tVisiting a Block.");
+	if (debug) println(bl.getLine() + ":\tInserting common contructor <cinit> into method table of class '" + currentClass + "'.");
 	if (currentClass.methodTable.get("<cinit>") != null) {
 	    Error.error("There can only be one common constructor.");
 	}
@@ -138,53 +193,26 @@ public class ClassAndMemberFinder extends Visitor {
     /** 
      * Visits a {@link ClassDecl}.
      * @param cd A {@link ClassDecl} object.
-     * Inserts cd into the global class table.<br>
      * <ul>
-     * <li>Put cd into the global class table.</li>
      * <li>If no super class was defined, set cd's super class to be Object. The Object class and its myDecl lives in {@link Phases.Phase2}.</li>
      * <li>Updates currentClass.</li>
-     * <li>Visit the class.</li>
-     * <li>If there are no constructors defined in cd, then create a default contructor and add it to the class and the method table.</li>
      * </ul>
+     * The members of the class are visited next, and the default
+     * constructor is added (if needed) in {@link #leave(AST)}.
      * @return null
      */
     public Object visitClassDecl(ClassDecl cd) {	
-	println(cd.line + ":\tVisiting a ClassDecl.");
-	println(cd.line + ":\tInserting class '" + cd.name() +"' into global class table.");
-	
-	// Enter this class into the class table 
-	classTable.put(cd.name(), cd);
+	if (debug) println(cd.getLine() + ":\tVisiting a ClassDecl.");
 	
 	// 01/17/2012 added for allowing for common superclass 'Object'
 	// For espresso it is simiilar to java/lang/Object for Java
 	// see Phases/Phases2.java for the class 'Object'
 	if (cd.superClass() == null && !cd.name().equals("Object")) {
-	    cd.children[2] = new ClassType(new Name(new Token(sym.IDENTIFIER,"Object",cd.line,0,0)));
-	    ((ClassType)cd.children[2]).myDecl = Phase2.Objects_myDecl;
+	    cd.children[2] = new ClassType(new Name(new Token(sym.IDENTIFIER,"Object",cd.getLine(),0,0)));
+	    ((ClassType)cd.children[2]).myDecl = objectsDecl;
 	}		
 	// Update the current class 
 	currentClass = cd;
-	
-	// Visit the children
-	super.visitClassDecl(cd);
-	
-	// If there are not constructors at all - insert the default -
-	// don't actually make any parse tree stuff - just generate
-	// the code automatically in the code generation phase.
-	if (cd.methodTable.get("<init>") == null && !cd.isInterface()) { 
-	    Token t = new Token(sym.IDENTIFIER, cd.name(), 0, 0, 0);
-	    Modifier m = new Modifier(Modifier.Public);
-	    
-	    ConstructorDecl c = new ConstructorDecl(new Sequence(m),
-						    new Name(t),
-						    new Sequence(),
-						    null,
-						    new Sequence());
-	    addMethod(cd, c, "<init>", "");
-	    cd.body().append(c);
-	    println(cd.line + ":\tGenerating default construction <init>() for class '" + cd.name() + "'.");
-	}
-	
 	return null;
     }
     
@@ -199,7 +227,7 @@ public class ClassAndMemberFinder extends Visitor {
      * @return null
      */
     public Object visitConstructorDecl(ConstructorDecl cd) {
-	println(cd.line + ":\tVisiting a ConstructorDecl.");
+	if (debug) println(cd.getLine() + ":\tVisiting a ConstructorDecl.");
 	//<--
 	String methodName = cd.name().getname();
 	String s = cd.paramSignature();
@@ -208,7 +236,7 @@ public class ClassAndMemberFinder extends Visitor {
 	    //CMF2.java
 	    Error.error(cd,"Constructor must be named the same as the class.");
 	else {
-	    println(cd.line + ":\tInserting constructor '<init>' with signature '" + s + 
+	    if (debug) println(cd.getLine() + ":\tInserting constructor '<init>' with signature '" + s + 
 		    "' into method table for class '" + 
 		    currentClass.name() + "'.");
 	    addMethod(currentClass, cd, "<init>", s);
@@ -227,9 +255,9 @@ public class ClassAndMemberFinder extends Visitor {
      * @return null
      */
     public Object visitFieldDecl(FieldDecl fd) {
-	println(fd.line + ":\tVisiting a FieldDecl.");
+	if (debug) println(fd.getLine() + ":\tVisiting a FieldDecl.");
 	//<--
-	println(fd.line + ":\tInserting field '" + fd.name() + 
+	if (debug) println(fd.getLine() + ":\tInserting field '" + fd.name() + 
 		"' into field table of class '" + currentClass.name() + "'.");
 	// Set var's myDecl to point to this FieldDecl so we can type check its initializer later.
 	fd.var().myDecl = fd;
@@ -247,13 +275,13 @@ public class ClassAndMemberFinder extends Visitor {
      * @return null
      */
     public Object visitMethodDecl(MethodDecl md) {
-	println(md.line + ":\tVisiting a MethodDecl.");
+	if (debug) println(md.getLine() + ":\tVisiting a MethodDecl.");
 	//<--
 	String methodName = md.name().getname();
 	String s = md.paramSignature();
 	md.setMyClass(currentClass);
 	
-	println(md.line + ":\tInserting method '" + methodName + 
+	if (debug) println(md.getLine() + ":\tInserting method '" + methodName + 
 		"' with signature '" + s + "' into method table for class '" + 
 		currentClass.name() + "'.");
 	addMethod(currentClass, md, methodName, s);
@@ -270,8 +298,8 @@ public class ClassAndMemberFinder extends Visitor {
      * @return null
      */
     public Object visitStaticInitDecl(StaticInitDecl si) {
-	println(si.line + ":\tVisiting a StaticInitDecl.");
-	println(si.line + ":\tInserting <clinit> into method table for class '" + 
+	if (debug) println(si.getLine() + ":\tVisiting a StaticInitDecl.");
+	if (debug) println(si.getLine() + ":\tInserting <clinit> into method table for class '" + 
 		currentClass.name() + "'.");
 	
 	addMethod(currentClass, si, "<clinit>", "");
@@ -0,0 +1,41 @@
+package NameChecker;
+
+import AST.*;
+import Utilities.SymbolTable;
+import Utilities.TreePass;
+
+/**
+ * A pass which enters the classes into the global class table. It runs
+ * on its own, before {@link ClassAndMemberFinder} and {@link MyDeclSet},
+ * as MyDeclSet must be able to find every class of the compilation.
+ */
+public class ClassFinder extends TreePass {
+
+    /**
+     * The global class table. This field is set by the constructor.
+     */
+    private SymbolTable classTable;
+
+    /**
+     * Constructs a ClassFinder pass.
+     * @param classTable The (global) table of classes (stored in {@link Utilities.CompilationContext#classTable}).
+     * @param debug Determine if this pass should produce output.
+     */
+    public ClassFinder(SymbolTable classTable, boolean debug) {
+	this.classTable = classTable;
+	this.debug = debug;
+    }
+
+    /**
+     * Inserts a class into the global class table.
+     * @return false (the members are not looked at)
+     */
+    public boolean enter(AST a) {
+	if (a instanceof ClassDecl) {
+	    ClassDecl cd = (ClassDecl)a;
+	    if (debug) println(cd.getLine() + ":\tInserting class '" + cd.name() +"' into global class table.");
+	    classTable.put(cd.name(), cd);
+	}
+	return false;
+    }
+}
@@ -3,17 +3,22 @@ package NameChecker;
 import AST.*;
 import Utilities.Error;
 import Utilities.SymbolTable;
-import Utilities.Visitor;
+import Utilities.TreePass;
 
 /**
- * This visitor is not needed if classes and interfaces are defined in
+ * This pass is not needed if classes and interfaces are defined in
  * the order of inheritence, i.e., superclasses and superinterfaces
  * are defined first and so on. if you want the freedom to put it in
  * any order you need this traversal. If you don't care then make sure
  * you have an implementation of visitClassType in
  * ClassAndMemberFinder.
+ *
+ * Only the class types of the headers of the classes (supertypes,
+ * fields, parameters and return types) are set here; those are the ones
+ * other classes can see. The class types in the bodies of the members
+ * are set by the {@link NameChecker} as it gets to them.
  */
-public class MyDeclSet extends Visitor {
+public class MyDeclSet extends TreePass {
 
     /**
      * The global class table. This field is set by the constructor.
@@ -21,15 +26,27 @@ public class MyDeclSet extends Visitor {
     private SymbolTable classTable;
 
     /**
-     * Constructs a MyDeclSet visitor object.
+     * Constructs a MyDeclSet pass.
      * @param classTable The (global) table of classes (stored in {@link Phases.Phase#classTable Phases/Phase.ClassTable}).
-     * @param debug Determine if this visitor should produce output.
+     * @param debug Determine if this pass should produce output.
      */
     public MyDeclSet(SymbolTable classTable, boolean debug) { 
 	this.classTable = classTable; 
 	this.debug = debug;
     }
 
+    /**
+     * Sets the myDecl of class types; bodies and initializers (statements
+     * and expressions) are not looked into.
+     */
+    public boolean enter(AST a) {
+	if (a instanceof ClassType) {
+	    visitClassType((ClassType)a);
+	    return false;
+	}
+	return !(a instanceof Statement || a instanceof Expression);
+    }
+
     /**
      * Sets myDecl for the the paramter ct.
      * @param ct A {@link ClassType} object.
@@ -37,7 +54,7 @@ public class MyDeclSet extends Visitor {
     public Object visitClassType(ClassType ct) {
 	ClassDecl cd = (ClassDecl) classTable.get(ct.typeName());
 	
-	println("ClassType:\t Setting myDecl for '" + ct.typeName() + "'");
+	if (debug) println("ClassType:\t Setting myDecl for '" + ct.typeName() + "'");
 	
 	if (cd == null) 
 	    Error.error(ct,"Class '" + ct.typeName() + "' not found.");
@@ -45,4 +62,3 @@ public class MyDeclSet extends Visitor {
 	return null;
     }
 }
-
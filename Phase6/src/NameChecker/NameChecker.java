@@ -121,12 +121,35 @@ public class NameChecker extends Visitor {
      *               the name of cd again.
      */
     public void getClassHierarchyMethods(ClassDecl cd, Sequence lst, HashSet<String> seenClasses) {
+	lst.merge(classHierarchyMethods(cd, seenClasses));
+    }
+
+    /**
+     * The methods of the class hierarchy of each class seen so far (see
+     * classHierarchyMethods()).
+     */
+    private HashMap<ClassDecl, Sequence> hierarchyMethods = new HashMap<ClassDecl, Sequence>();
+
+    // classHierarchyMethods: the methods of the class hierarchy of cd:
+    //                        those of cd, then those of its superclass and
+    //                        then those of its interfaces, each method
+    //                        only once. The sequence of each class is made
+    //                        only once, from those of its supertypes, and
+    //                        must not be changed.
+    private Sequence classHierarchyMethods(ClassDecl cd, HashSet<String> seenClasses) {
 	//<--
+	Sequence methods = hierarchyMethods.get(cd);
+	if (methods != null)
+	    return methods;
+
 	String className = cd.name();
+	methods = new Sequence();
 	
 	// if we reach object the just skip it - there is nothing there to look up!
-	if (className.equals("Object"))
-	    return;
+	if (className.equals("Object")) {
+	    hierarchyMethods.put(cd, methods);
+	    return methods;
+	}
 	// have we visited this class or interface before?
 	if (seenClasses.contains(className))
 	    // NC1.java
@@ -134,18 +157,28 @@ public class NameChecker extends Visitor {
 	else 
 	    seenClasses.add(className);
 	
+	Set<AST> added = Collections.newSetFromMap(new IdentityHashMap<AST, Boolean>());
 	for (int i=0 ;i< cd.body().nchildren; i++) 
-	    if (cd.body().children[i] instanceof MethodDecl)
-		lst.append(cd.body().children[i]);
+	    if (cd.body().children[i] instanceof MethodDecl && added.add(cd.body().children[i]))
+		methods.append(cd.body().children[i]);
 	
 	if (cd.superClass() != null)
-	    getClassHierarchyMethods(cd.superClass().myDecl, lst, seenClasses);
-	if (cd.interfaces().nchildren > 0) 
-	    for (int i=0; i<cd.interfaces().nchildren; i++) 
-		getClassHierarchyMethods(((ClassType)cd.interfaces().children[i]).myDecl, lst, seenClasses);
+	    appendNew(methods, classHierarchyMethods(cd.superClass().myDecl, seenClasses), added);
+	for (int i=0; i<cd.interfaces().nchildren; i++) 
+	    appendNew(methods, classHierarchyMethods(((ClassType)cd.interfaces().children[i]).myDecl, seenClasses), added);
 	seenClasses.remove(className);
+	hierarchyMethods.put(cd, methods);
+	return methods;
 	//-->
     }
+
+    // appendNew: appends the methods not added already (a diamond of interfaces
+    //            would otherwise bring in the same methods twice).
+    private static void appendNew(Sequence methods, Sequence more, Set<AST> added) {
+	for (int i=0; i<more.nchildren; i++)
+	    if (added.add(more.children[i]))
+		methods.append(more.children[i]);
+    }
     
     /**
      * For each method (not constructors) in the lst list, check that
@@ -240,13 +273,32 @@ public class NameChecker extends Visitor {
      */
     private ClassDecl   currentClass;
 
+    /**
+     * Classes that are up to date (see {@link Utilities.DependencyGraph}).
+     * Only their headers are checked, as other classes need their
+     * allMethods and constructors.
+     */
+    private Set<ClassDecl> upToDate;
+
     /**
      * Constructs a NameChecker visitor object.
      * @param classTable The (global) table of classes (stored in {@link Phases.Phase#classTable Phases/Phase.ClassTable}).
      * @param debug Determine if this visitor should produce output.
      */
     public NameChecker(SymbolTable classTable, boolean debug) { 
+	this(classTable, new HashSet<ClassDecl>(), debug);
+    }
+
+    /**
+     * Constructs a NameChecker visitor object that skips the bodies of
+     * the classes that are up to date.
+     * @param classTable The (global) table of classes (stored in {@link Phases.Phase#classTable Phases/Phase.ClassTable}).
+     * @param upToDate The classes that are up to date.
+     * @param debug Determine if this visitor should produce output.
+     */
+    public NameChecker(SymbolTable classTable, Set<ClassDecl> upToDate, boolean debug) { 
 	this.classTable = classTable; 
+	this.upToDate = upToDate;
 	this.debug = debug;
     }
     
@@ -261,8 +313,8 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitBlock(Block bl) {
-	println(bl.line + ":\tVisiting a Block.");
-	println(bl.line + ":\tCreating new scope for Block.");
+	if (debug) println(bl.getLine() + ":\tVisiting a Block.");
+	if (debug) println(bl.getLine() + ":\tCreating new scope for Block.");
 	currentScope = currentScope.newScope();
 	super.visitBlock(bl);
 	currentScope = currentScope.closeScope(); 
@@ -282,15 +334,15 @@ public class NameChecker extends Visitor {
      * <li> Visit the children.</li>
      * <li> Call getClassHierarchyMethods(), checkReturnTypesOfIdenticalMethods(), checkImplementationOfAbstractClasses() if the class is not an interface and is not declared abstract.</li>
      * <li> Call checkUniqueFields(). </li>
-     * <li> Update cd.allMethod to the method sequence computed in getClassHierarchyMethods().</li>
+     * <li> Update cd.allMethod to the method sequence computed in getClassHierarchyMethods() (made only once for each class).</li>
      * <li> Fill cd.constructors with the ConstructorDecls from this class (cd).</li>
      * <li> Call the {@link Utilities.Rewrite} re-writer. This rewriter transforms all name expressions that are really field references into proper FieldRef nodes.</li>
      * </ul>
      * @return null
      */
     public Object visitClassDecl(ClassDecl cd) {
-	println(cd.line + ":\tVisiting a ClassDecl.");
-	println(cd.line + ":\tVisiting class '"+cd.name()+"'.");
+	if (debug) println(cd.getLine() + ":\tVisiting a ClassDecl.");
+	if (debug) println(cd.getLine() + ":\tVisiting class '"+cd.name()+"'.");
 	
 	// If we use the field table here as the top scope, then we do not
 	// need to look in the field table when we resolve NameExpr. Note,
@@ -332,13 +384,13 @@ public class NameChecker extends Visitor {
 		Error.error(cd,"Class '" + cd.name() + "' cannot implement class '" + ct.name() + "'.");
 	}
 
-	// Visit the children
-	super.visitClassDecl(cd);
+	// Visit the children (but not the body of a class that is up to date)
+	boolean upToDate = this.upToDate.contains(cd);
+	if (!upToDate)
+	    visitMembers(cd);
 	
 	currentScope = null;
-	Sequence methods = new Sequence();
-	
-	getClassHierarchyMethods(cd, methods, seenClasses);
+	Sequence methods = classHierarchyMethods(cd, seenClasses);
 	checkReturnTypesOfIdenticalMethods(methods);
 	
 	// All field names can only be used once in a class hierarchy
@@ -360,13 +412,19 @@ public class NameChecker extends Visitor {
 	
 	// needed for rewriting the tree to replace field references
 	// represented by NameExpr.
-	println(cd.line + ":\tPerforming tree Rewrite on '" + cd.name() + "'.");
-	new Rewrite().go(cd, cd);
+	if (!upToDate) {
+	    if (debug) println(cd.getLine() + ":\tPerforming tree Rewrite on '" + cd.name() + "'.");
+	    new Rewrite().go(cd, cd);
+	}
 	
 	return null;
     }
 
 
+    public void recoverMember(ClassDecl cd) {
+	currentScope = cd.fieldTable;
+    }
+
     /** 
      * Visits a {@link ClassType}.
      * @param ct a {@link ClassType} object.
@@ -377,14 +435,14 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitClassType(ClassType ct) {
-	println(ct.line + ":\tVisiting a ClassType.");
+	if (debug) println(ct.getLine() + ":\tVisiting a ClassType.");
 	//<--
 	String n = ct.name().getname();
-	println(ct.line + ":\tLooking up class/interface '" + n + "' in class table.");
+	if (debug) println(ct.getLine() + ":\tLooking up class/interface '" + n + "' in class table.");
 	ClassDecl cl = (ClassDecl)classTable.get(n);
 	if (cl == null)
 	    // NC9.java
-	    Error.error(ct," Class '" + n + "' not found."); 
+	    Error.error(ct,"Class '" + n + "' not found."); 
 	ct.myDecl = cl;
 	//-->
 	return null;
@@ -402,19 +460,19 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitFieldRef(FieldRef fr) {
-	println(fr.line + ":\tVisiting a FieldRef.");
+	if (debug) println(fr.getLine() + ":\tVisiting a FieldRef.");
 	//<--
 	if (fr.target() instanceof This) {
 	    String n = fr.fieldName().getname();
 	    
-	    println(fr.line + "\tLooking up field '" + n + "'.");
+	    if (debug) println(fr.getLine() + "\tLooking up field '" + n + "'.");
 	    AST lookup = getField(n, currentClass);
 	    if (lookup == null) 
 		// NC10.java
 		Error.error(fr,"Field '" + n + "' not found.");
 	}
 	else 
-	    println(fr.line + ":\tTarget too complicated for now!");
+	    if (debug) println(fr.getLine() + ":\tTarget too complicated for now!");
 
 	super.visitFieldRef(fr);
 	//-->
@@ -432,9 +490,9 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitForStat(ForStat fs) {
-	println(fs.line + ":\tVisiting a ForStat.");
+	if (debug) println(fs.getLine() + ":\tVisiting a ForStat.");
 	//<--
-	println(fs.line + ":\tCreating new scope for For Statement.");
+	if (debug) println(fs.getLine() + ":\tCreating new scope for For Statement.");
 	currentScope = currentScope.newScope();
 	super.visitForStat(fs);
 	currentScope = currentScope.closeScope();
@@ -451,9 +509,9 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitLocalDecl(LocalDecl ld) {
-	println(ld.line + ":\tVisiting a LocalDecl.");
+	if (debug) println(ld.getLine() + ":\tVisiting a LocalDecl.");
 	//<--
-	println(ld.line + ":\tDeclaring local symbol '" + 
+	if (debug) println(ld.getLine() + ":\tDeclaring local symbol '" + 
 		ld.name() + "'.");
 	// Set var's myDecl to point to this LocalDecl so we can type check its initializer.
 	ld.var().myDecl = ld;
@@ -482,9 +540,9 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitMethodDecl(MethodDecl md) {
-	println(md.line + ":\tVisiting a MethodDecl.");
+	if (debug) println(md.getLine() + ":\tVisiting a MethodDecl.");
 	//<--
-	println(md.line + ":\tCreating new scope for Method '" + md.getname() + "' with signature '" +
+	if (debug) println(md.getLine() + ":\tCreating new scope for Method '" + md.getname() + "' with signature '" +
 		md.paramSignature() + "' (Parameters and Locals).");
 	currentScope = currentScope.newScope();
 	super.visitMethodDecl(md);
@@ -511,16 +569,16 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitConstructorDecl(ConstructorDecl cd) {
-	println(cd.line + ":\tVisiting a ConstructorDecl.");
+	if (debug) println(cd.getLine() + ":\tVisiting a ConstructorDecl.");
 	//<--
-	println(cd.line + ":\tCreating new scope for constructor <init> with signature '" + 
+	if (debug) println(cd.getLine() + ":\tCreating new scope for constructor <init> with signature '" + 
 		cd.paramSignature()+ "' (Parameters and Locals).");
 	currentScope = currentScope.newScope();
 	
 	if (currentClass.superClass() != null && 
 	    cd.cinvocation() == null &&
 	    !currentClass.superClass().myDecl.isInterface()) {
-	    println(cd.line + ":\tCreating default 'super' explicit constructor invocation.");
+	    if (debug) println(cd.getLine() + ":\tCreating default 'super' explicit constructor invocation.");
 	    cd.children[3] = new CInvocation(new Token(sym.SUPER, "super", 0, 0 ,0), new Sequence()); 
 	}
 	
@@ -552,9 +610,9 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitNameExpr(NameExpr ne) {
-	println(ne.line + ":\tVisiting NameExpr.");
+	if (debug) println(ne.getLine() + ":\tVisiting NameExpr.");
 	//<--
-	println(ne.line + ":\tLooking up symbol '" + ne.name() + "'.");
+	if (debug) println(ne.getLine() + ":\tLooking up symbol '" + ne.name() + "'.");
 	
 	// Look to see if it is in the current scope?
 	AST lookup = (AST)currentScope.get(ne.name().getname());    
@@ -593,14 +651,14 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitInvocation(Invocation in) {
-	println(in.line + ":\tVisiting an Invocation.");
+	if (debug) println(in.getLine() + ":\tVisiting an Invocation.");
 	//<--
 	String n = in.methodName().getname();
 	
 	/* We will only do checking if target is null or This */
 	/** NULL or THIS */
 	if (in.target() == null || (in.target() instanceof This)) {
-	    println(in.line +":\tLooking up method '" + n + "'.");
+	    if (debug) println(in.getLine() +":\tLooking up method '" + n + "'.");
 	    
 	    // Search through the class/interface hierarchy for a method 
 	    // with the correct name.
@@ -611,7 +669,7 @@ public class NameChecker extends Visitor {
 	    // Some method was found, but we don't know if the signatures match.
 	    // This check will be left until type checking
 	} else if (in.target() instanceof Super) {
-    	    println(in.line + ":\tLooking up method '" + n + "'.");
+    	    if (debug) println(in.getLine() + ":\tLooking up method '" + n + "'.");
 	    // added 10/13/14 
 	    if (currentClass.superClass() != null)
 		if (getMethod(n, currentClass.superClass().myDecl) == null)
@@ -623,7 +681,7 @@ public class NameChecker extends Visitor {
 		// this is never executed cause there is always a superclass Object.
 		Error.error(in,"No super class.");
 	} else
-	    println(in.line + ":\tTarget too complicated for now!");
+	    if (debug) println(in.getLine() + ":\tTarget too complicated for now!");
 
 	super.visitInvocation(in);
 	//-->
@@ -639,9 +697,9 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitParamDecl(ParamDecl pd) {
-	println(pd.line + ":\tVisiting a ParamDecl.");
+	if (debug) println(pd.getLine() + ":\tVisiting a ParamDecl.");
 	//<--
-	println(pd.line + ":\tDeclaring parameter '" + pd.name() + "'.");
+	if (debug) println(pd.getLine() + ":\tDeclaring parameter '" + pd.name() + "'.");
 	super.visitParamDecl(pd);
 	currentScope.put(pd.name(), pd);
 	//-->
@@ -659,7 +717,7 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitSwitchStat(SwitchStat st) {
-	println(st.line + ":\tVisiting a SwitchStat.");
+	if (debug) println(st.getLine() + ":\tVisiting a SwitchStat.");
 	//<--
 	currentScope = currentScope.newScope();
 	super.visitSwitchStat(st);
@@ -678,7 +736,7 @@ public class NameChecker extends Visitor {
      * @return null
      */
     public Object visitThis(This th) {      
-	println(th.line + ":\tVisiting a This.");      
+	if (debug) println(th.getLine() + ":\tVisiting a This.");      
 	ClassType ct = new ClassType(new Name(new Token(16,currentClass.name(),0,0,0)));
 	ct.myDecl = currentClass;
 	th.type = ct;
@@ -0,0 +1,41 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Folds conditional jumps on a constant:
+ *
+ * iconst_0; ifeq L  =>  goto L
+ * iconst_0; ifne L  =>  (nothing)
+ * iconst_X; ifne L  =>  goto L       (X != 0)
+ * iconst_X; ifeq L  =>  (nothing)    (X != 0)
+ */
+public class ConstantBranchRule extends PeepholeRule {
+
+	public String name() {
+		return "iconst/ifeq";
+	}
+
+	public boolean apply(Vector<Instruction> code, int index) {
+		int opc = code.elementAt(index).getOpCode();
+		if (opc < RuntimeConstants.opc_iconst_m1 || opc > RuntimeConstants.opc_iconst_5)
+			return false;
+		int second = next(code, index);
+		if (second == -1)
+			return false;
+		Instruction inst = code.elementAt(second);
+		if (inst.getOpCode() != RuntimeConstants.opc_ifeq && inst.getOpCode() != RuntimeConstants.opc_ifne)
+			return false;
+
+		boolean isZero = (opc == RuntimeConstants.opc_iconst_0);
+		boolean jumps = (inst.getOpCode() == RuntimeConstants.opc_ifeq) == isZero;
+		code.removeElementAt(second);
+		if (jumps)
+			code.insertElementAt(new JumpInstruction(RuntimeConstants.opc_goto, ((JumpInstruction)inst).getLabel()), second);
+		code.removeElementAt(index);
+		return true;
+	}
+}
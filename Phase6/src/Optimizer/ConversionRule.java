@@ -0,0 +1,52 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Removes or combines pairs of conversions (as produced by repeated
+ * calls to Generator.dataConvert) that do not lose information:
+ *
+ * i2l; l2i  =>  (nothing)
+ * i2d; d2i  =>  (nothing)
+ * f2d; d2f  =>  (nothing)
+ * i2l; l2f  =>  i2f
+ * i2l; l2d  =>  i2d
+ */
+public class ConversionRule extends PeepholeRule {
+
+	// {first, second, replacement} - replacement -1 means remove both
+	private static final int[][] pairs = {
+		{ RuntimeConstants.opc_i2l, RuntimeConstants.opc_l2i, -1 },
+		{ RuntimeConstants.opc_i2d, RuntimeConstants.opc_d2i, -1 },
+		{ RuntimeConstants.opc_f2d, RuntimeConstants.opc_d2f, -1 },
+		{ RuntimeConstants.opc_i2l, RuntimeConstants.opc_l2f, RuntimeConstants.opc_i2f },
+		{ RuntimeConstants.opc_i2l, RuntimeConstants.opc_l2d, RuntimeConstants.opc_i2d }
+	};
+
+	public String name() {
+		return "double conversion";
+	}
+
+	public boolean apply(Vector<Instruction> code, int index) {
+		int opc = code.elementAt(index).getOpCode();
+		if (opc < RuntimeConstants.opc_i2l || opc > RuntimeConstants.opc_d2f)
+			return false;
+		int second = next(code, index);
+		if (second == -1)
+			return false;
+		int opc2 = code.elementAt(second).getOpCode();
+		for (int[] pair : pairs) {
+			if (pair[0] == opc && pair[1] == opc2) {
+				code.removeElementAt(second);
+				code.removeElementAt(index);
+				if (pair[2] != -1)
+					code.insertElementAt(new Instruction(pair[2]), index);
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,65 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Removes values that are pushed and immediately popped again:
+ *
+ * dup; pop    =>  (nothing)
+ * dup2; pop2  =>  (nothing)
+ * Xload Y; pop/pop2, Xconst_Y; pop/pop2, ldc X; pop/pop2, ...  =>  (nothing)
+ */
+public class DupPopRule extends PeepholeRule {
+
+	public String name() {
+		return "dup/pop";
+	}
+
+	// returns the number of words pushed by an instruction without side effects (0 if not such an instruction)
+	private int pureWords(Instruction inst) {
+		int opc = inst.getOpCode();
+		switch (opc) {
+		case RuntimeConstants.opc_dup:
+		case RuntimeConstants.opc_aconst_null:
+		case RuntimeConstants.opc_bipush:
+		case RuntimeConstants.opc_sipush:
+		case RuntimeConstants.opc_ldc:
+		case RuntimeConstants.opc_ldc_w:
+			return 1;
+		case RuntimeConstants.opc_dup2:
+		case RuntimeConstants.opc_ldc2_w:
+			return 2;
+		}
+		if (opc >= RuntimeConstants.opc_iconst_m1 && opc <= RuntimeConstants.opc_iconst_5)
+			return 1;
+		if (opc == RuntimeConstants.opc_lconst_0 || opc == RuntimeConstants.opc_lconst_1 ||
+		    opc == RuntimeConstants.opc_dconst_0 || opc == RuntimeConstants.opc_dconst_1)
+			return 2;
+		if (opc >= RuntimeConstants.opc_fconst_0 && opc <= RuntimeConstants.opc_fconst_2)
+			return 1;
+		int kind = loadKind(inst);
+		if (kind != -1)
+			return isWide(kind) ? 2 : 1;
+		return 0;
+	}
+
+	public boolean apply(Vector<Instruction> code, int index) {
+		int words = pureWords(code.elementAt(index));
+		if (words == 0)
+			return false;
+		int second = next(code, index);
+		if (second == -1)
+			return false;
+		int opc = code.elementAt(second).getOpCode();
+		if ((words == 1 && opc == RuntimeConstants.opc_pop) ||
+		    (words == 2 && opc == RuntimeConstants.opc_pop2)) {
+			code.removeElementAt(second);
+			code.removeElementAt(index);
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,35 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Removes a goto that jumps to a label that immediately follows it
+ * (possibly after other labels):
+ *
+ * goto L; L:  =>  L:
+ */
+public class GotoNextLabelRule extends PeepholeRule {
+
+	public String name() {
+		return "goto next label";
+	}
+
+	public boolean apply(Vector<Instruction> code, int index) {
+		Instruction inst = code.elementAt(index);
+		if (inst.getOpCode() != RuntimeConstants.opc_goto || !(inst instanceof JumpInstruction))
+			return false;
+		String target = ((JumpInstruction)inst).getLabel();
+		int i = next(code, index);
+		while (i != -1 && isLabel(code.elementAt(i))) {
+			if (((LabelInstruction)code.elementAt(i)).getLabel().equals(target)) {
+				code.removeElementAt(index);
+				return true;
+			}
+			i = next(code, i);
+		}
+		return false;
+	}
+}
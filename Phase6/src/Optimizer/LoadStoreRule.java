@@ -0,0 +1,44 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Handles load/store pairs on the same local variable:
+ *
+ * Xload Y;  Xstore Y  =>  (nothing)
+ * Xstore Y; Xload Y   =>  dup/dup2; Xstore Y
+ */
+public class LoadStoreRule extends PeepholeRule {
+
+	public String name() {
+		return "load/store";
+	}
+
+	public boolean apply(Vector<Instruction> code, int index) {
+		Instruction first = code.elementAt(index);
+		int second = next(code, index);
+		if (second == -1)
+			return false;
+		Instruction inst = code.elementAt(second);
+
+		// Xload Y; Xstore Y is a no-op
+		int kind = loadKind(first);
+		if (kind != -1 && storeKind(inst) == kind && localAddress(first) == localAddress(inst)) {
+			code.removeElementAt(second);
+			code.removeElementAt(index);
+			return true;
+		}
+
+		// Xstore Y; Xload Y keeps the value on the stack
+		kind = storeKind(first);
+		if (kind != -1 && loadKind(inst) == kind && localAddress(first) == localAddress(inst)) {
+			code.removeElementAt(second);
+			code.insertElementAt(new Instruction(isWide(kind) ? RuntimeConstants.opc_dup2 : RuntimeConstants.opc_dup), index);
+			return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,92 @@
+package Optimizer;
+
+import java.util.*;
+
+import AST.*;
+import Instruction.*;
+import Jasmin.*;
+import Utilities.CompilationContext;
+
+/**
+ * A peephole optimizer that rewrites the instructions of every method
+ * using a set of {@link PeepholeRule}s. Rules are applied repeatedly
+ * until none of them changes the code any more.
+ *
+ * The original code of a method is left untouched; the result is stored
+ * with setOptimizedCode() so WriteFiles can pick either one.
+ */
+public class PeepholeOptimizer {
+
+	private Vector<PeepholeRule> rules = new Vector<PeepholeRule>();
+	private boolean debug;
+
+	/**
+	 * Creates an optimizer with the default rule set.
+	 * @param debug Print what is being done if true.
+	 */
+	public PeepholeOptimizer(boolean debug) {
+		this.debug = debug;
+		addRule(new UnreachableCodeRule());
+		addRule(new GotoNextLabelRule());
+		addRule(new ConstantBranchRule());
+		addRule(new LoadStoreRule());
+		addRule(new DupPopRule());
+		addRule(new ConversionRule());
+	}
+
+	/**
+	 * Adds a rule to the rule set.
+	 * @param rule The rule to add.
+	 */
+	public void addRule(PeepholeRule rule) {
+		rules.addElement(rule);
+	}
+
+	/**
+	 * Optimizes all methods of all classes that code was generated for.
+	 * @param program The compilation unit.
+	 */
+	public void optimize(Compilation program) {
+		boolean tracing = debug;
+		for (int i=0; i<program.types().nchildren; i++) {
+			ClassDecl cd = (ClassDecl)program.types().children[i];
+			if (cd.classFile == null)
+				continue;
+			debug = tracing && CompilationContext.current().settings.traces(cd.name());
+			if (debug)
+				System.out.println("Optimizing class '" + cd.name() + "'.");
+			Iterator<Method> it = cd.classFile.getMethodsIterator();
+			while (it.hasNext()) {
+				ClassBodyDecl method = it.next().getMethod();
+				if (method.getCode() != null)
+					method.setOptimizedCode(optimize(method.getCode()));
+			}
+		}
+		debug = tracing;
+	}
+
+	/**
+	 * Optimizes a sequence of instructions.
+	 * @param code The instructions to optimize (not changed).
+	 * @return A new, optimized, sequence of instructions.
+	 */
+	public Vector<Instruction> optimize(Vector<Instruction> code) {
+		Vector<Instruction> result = new Vector<Instruction>(code);
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (int i=0; i<result.size(); i++) {
+				for (PeepholeRule rule : rules) {
+					if (i < result.size() && rule.apply(result, i)) {
+						if (debug)
+							System.out.println("  Applied rule '" + rule.name() + "' at instruction " + i + ".");
+						changed = true;
+					}
+				}
+			}
+		}
+		if (debug)
+			System.out.println("  " + code.size() + " instructions before, " + result.size() + " after.");
+		return result;
+	}
+}
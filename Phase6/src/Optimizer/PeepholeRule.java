@@ -0,0 +1,86 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Super class for all the rules used by the {@link PeepholeOptimizer}.
+ * A rule looks at the instructions starting at a given index and, if
+ * it recognizes a pattern, rewrites the code in place.
+ *
+ * Comments are never part of a pattern; use {@link #next} to step
+ * from one real instruction to the next.
+ */
+public abstract class PeepholeRule {
+
+	/**
+	 * Returns the name of the rule (used for tracing).
+	 */
+	public abstract String name();
+
+	/**
+	 * Tries to apply the rule at position 'index' of 'code'.
+	 * @param code The instructions of a method.
+	 * @param index The index of the first instruction of the pattern.
+	 * @return true if the code was changed.
+	 */
+	public abstract boolean apply(Vector<Instruction> code, int index);
+
+	// returns true if the instruction is a comment
+	public static boolean isComment(Instruction inst) {
+		return inst.getOpCode() == RuntimeConstants.opc_comment;
+	}
+
+	// returns true if the instruction is a label
+	public static boolean isLabel(Instruction inst) {
+		return inst instanceof LabelInstruction;
+	}
+
+	// returns the index of the first non-comment instruction after 'index' (or -1)
+	public static int next(Vector<Instruction> code, int index) {
+		for (int i = index + 1; i < code.size(); i++)
+			if (!isComment(code.elementAt(i)))
+				return i;
+		return -1;
+	}
+
+	// returns the type index (i=0, l=1, f=2, d=3, a=4) of a local load, or -1
+	public static int loadKind(Instruction inst) {
+		int opc = inst.getOpCode();
+		if (opc >= RuntimeConstants.opc_iload && opc <= RuntimeConstants.opc_aload)
+			return opc - RuntimeConstants.opc_iload;
+		if (opc >= RuntimeConstants.opc_iload_0 && opc <= RuntimeConstants.opc_aload_3)
+			return (opc - RuntimeConstants.opc_iload_0) / 4;
+		return -1;
+	}
+
+	// returns the type index (i=0, l=1, f=2, d=3, a=4) of a local store, or -1
+	public static int storeKind(Instruction inst) {
+		int opc = inst.getOpCode();
+		if (opc >= RuntimeConstants.opc_istore && opc <= RuntimeConstants.opc_astore)
+			return opc - RuntimeConstants.opc_istore;
+		if (opc >= RuntimeConstants.opc_istore_0 && opc <= RuntimeConstants.opc_astore_3)
+			return (opc - RuntimeConstants.opc_istore_0) / 4;
+		return -1;
+	}
+
+	// returns the local variable address used by a local load or store, or -1
+	public static int localAddress(Instruction inst) {
+		int opc = inst.getOpCode();
+		if ((opc >= RuntimeConstants.opc_iload && opc <= RuntimeConstants.opc_aload) ||
+		    (opc >= RuntimeConstants.opc_istore && opc <= RuntimeConstants.opc_astore))
+			return inst.getOperand();
+		if (opc >= RuntimeConstants.opc_iload_0 && opc <= RuntimeConstants.opc_aload_3)
+			return (opc - RuntimeConstants.opc_iload_0) % 4;
+		if (opc >= RuntimeConstants.opc_istore_0 && opc <= RuntimeConstants.opc_astore_3)
+			return (opc - RuntimeConstants.opc_istore_0) % 4;
+		return -1;
+	}
+
+	// returns true if the kind (see loadKind) occupies two stack words
+	public static boolean isWide(int kind) {
+		return kind == 1 || kind == 3;
+	}
+}
@@ -0,0 +1,32 @@
+package Optimizer;
+
+import java.util.Vector;
+
+import Instruction.*;
+import Jasmin.RuntimeConstants;
+
+/**
+ * Removes instructions following an unconditional jump or a return
+ * that cannot be reached because no label precedes them:
+ *
+ * goto L; X  =>  goto L
+ * Xreturn; X =>  Xreturn
+ */
+public class UnreachableCodeRule extends PeepholeRule {
+
+	public String name() {
+		return "unreachable code";
+	}
+
+	public boolean apply(Vector<Instruction> code, int index) {
+		Instruction inst = code.elementAt(index);
+		if (!(inst instanceof JumpInstruction && inst.getOpCode() == RuntimeConstants.opc_goto) &&
+		    !RuntimeConstants.returnSet.contains(inst.getOpCode()))
+			return false;
+		int i = next(code, index);
+		if (i == -1 || isLabel(code.elementAt(i)))
+			return false;
+		code.removeElementAt(i);
+		return true;
+	}
+}
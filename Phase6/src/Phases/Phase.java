@@ -1,28 +1,146 @@
 package Phases;
 
 import AST.*;
+import CodeGenerator.Java;
+import Utilities.CompilationContext;
+import Utilities.Error;
+import Utilities.RecoveryException;
 import Utilities.SymbolTable;
+import Utilities.Visitor;
+import java.util.*;
 
 /**
  * Super class for all the PhaseX subclasses that are used for running
- * the various phases of the compiler.
+ * the various phases of the compiler. The state of the compilation (the
+ * parse tree, the class table etc.) lives in the {@link CompilationContext}
+ * the phase is made with.
  */
 public abstract class Phase {
     /**
-     * The phase the compiler was invoked to run.
+     * The context of the compilation.
      */
-    public static int phase;
+    protected CompilationContext context;
+
+    public Phase(CompilationContext context) {
+	this.context = context;
+    }
+
+    /**
+     * Resets the state of a context (and its diagnostics) before the next
+     * file of a batch is compiled, and makes it the context of this thread.
+     * The parsed import files and the checked imports are kept, unless
+     * the settings they depend on have changed.
+     */
+    public static void reset(CompilationContext context) {
+	CompilationContext.setCurrent(context);
+	String key = context.phase + ":" + context.settings.includeDir + ":" + context.settings.generateEVMCode;
+	if (!key.equals(context.importCacheKey)) {
+	    clearImportCache(context);
+	    context.importCacheKey = key;
+	}
+	context.root = null;
+	context.classTable = new SymbolTable();
+	Error.clearDiagnostics();
+	context.imports.clear();
+	context.importedClasses.clear();
+	context.interSectionTypeCounter = 1;
+	context.dependencies = null;
+	context.upToDate.clear();
+    }
+
+    /**
+     * Records the imported classes of the current compilation as checked,
+     * so later compilations of a batch do not run the phases on them again.
+     * Must be called after the class files have been written, as the
+     * renaming done by {@link Phase6} is undone here.
+     */
+    public static void markImportsChecked(CompilationContext context) {
+	Sequence types = ((Compilation)context.root).types();
+	for (int i=0; i<types.nchildren; i++) {
+	    ClassDecl cd = (ClassDecl)types.children[i];
+	    if (!cd.generateCode())
+		context.checkedImports.add(cd);
+	}
+	for (ClassDecl cd : context.checkedImports)
+	    cd.visit(new Java(false));
+    }
+
     /**
-     * The root of the parse tree. This is set if phase 2 suceeds.
+     * Forgets all parsed import files and the shared class 'Object'.
      */
-    public static AST root;
+    public static void clearImportCache(CompilationContext context) {
+	context.parsedImports.clear();
+	context.checkedImports.clear();
+	context.objectsDecl = null;
+    }
+
+    /**
+     * Cleans up after a compilation that was aborted by an error: import
+     * files whose classes did not make it through all the phases are
+     * dropped from the cache, and the renaming of {@link Phase6} is undone.
+     */
+    public static void abortCompilation(CompilationContext context) {
+	HashSet<ClassDecl> checkedImports = context.checkedImports;
+	Iterator<Map.Entry<String, Sequence>> it = context.parsedImports.entrySet().iterator();
+	while (it.hasNext()) {
+	    Sequence classes = it.next().getValue();
+	    for (int i=0; i<classes.nchildren; i++)
+		if (!checkedImports.contains(classes.children[i])) {
+		    it.remove();
+		    break;
+		}
+	}
+	if (!checkedImports.contains(context.objectsDecl))
+	    context.objectsDecl = null;
+	for (ClassDecl cd : checkedImports)
+	    cd.visit(new Java(false));
+    }
+
     /**
-     * The global class table.
+     * Runs a visitor on each class of the parse tree. An error stops the
+     * visitor on the member it is found in (see
+     * {@link Utilities.Visitor#visitMembers}), or on the class for visitors
+     * that do not visit the members one at a time, but the rest is still
+     * visited. All the errors are reported at the end, and the compilation
+     * stops if there were any.
      */
-    public static SymbolTable classTable = new SymbolTable();
+    protected void visitClasses(Visitor v) {
+	visitClasses(v, false);
+    }
+
+    /**
+     * Like {@link #visitClasses(Visitor)}, but classes that are up to date
+     * (see {@link Utilities.DependencyGraph}) are skipped if skipUpToDate
+     * is true.
+     */
+    protected void visitClasses(Visitor v, boolean skipUpToDate) {
+	Sequence types = ((Compilation)context.root).types();
+	boolean tracing = v.isTracing();
+	for (int i=0; i<types.nchildren; i++) {
+	    if (skipUpToDate && context.upToDate.contains(types.children[i]))
+		continue;
+	    v.setTracing(tracing && context.settings.traces(((ClassDecl)types.children[i]).name()));
+	    Error.enterRecovery();
+	    try {
+		types.children[i].visit(v);
+	    } catch (RecoveryException e) {
+		// recorded already; go on with the next class
+	    } catch (RuntimeException e) {
+		// most likely caused by an earlier error, so stop here
+		if (Error.errorCount() == 0)
+		    throw e;
+		break;
+	    } finally {
+		Error.leaveRecovery();
+	    }
+	}
+	v.setTracing(tracing);
+	Error.endPhase();
+    }
+
     /*
      * Each subclass of this class must implement this method to call
      * whatever visitor re-implementations are needed.
      */
-    public abstract void execute(Object arg, int debuglevel, int runLevel) ;	
+    public abstract void execute(Object arg, int debuglevel, int runLevel) ;
 }
@@ -3,24 +3,29 @@ package Phases;
 import AST.*;
 import Scanner.*;
 import Parser.*;
+import Utilities.CompilationContext;
 
 public class Phase1 extends Phase {
+	public Phase1(CompilationContext context) {
+		super(context);
+	}
 
 	public void execute(Object arg, int debugLevel, int runLevel) {
-		if ((debugLevel & 0x0001) == 0x0001)
-			Scanner.debug = true; //((parser)arg).lexer.debug = true;
 		try {
 			if ((runLevel & 0x0001) == 0x0001) {
+				((parser)arg).lexer.debug = ((debugLevel & 0x0001) == 0x0001);
+				context.statistics.startPhase();
 				java_cup.runtime.Symbol r = ((parser)arg).parse();
-				root = (AST)r.value;
+				context.root = (AST)r.value;
+				context.statistics.endPhase("Phase 1 (parser)", context.root, context.classTable);
 			}
 		} catch (java.io.IOException e) {
-			System.out.println("An I/O error occured while scanning :");
-			System.out.println(e);
-			System.exit(1);
+			Utilities.Error.error("An I/O error occured while scanning :\n" + e);
+		} catch (Utilities.CompilationAbortedException e) {
+			throw e;
 		} catch (Exception e) {
 			e.printStackTrace();
-			System.exit(1);
+			Utilities.Error.terminate();
 		}
 	}
 }
\ No newline at end of file
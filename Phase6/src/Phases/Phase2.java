@@ -5,24 +5,43 @@ import Utilities.*;
 import Parser.*;
 
 public class Phase2 extends Phase1 {
-    public static ClassDecl Objects_myDecl = null;
+	public Phase2(CompilationContext context) {
+		super(context);
+	}
 
 	public void execute(Object arg, int debugLevel, int runLevel) {
 		super.execute(arg, debugLevel, runLevel);
 		if ((runLevel & 0x0002) == 0x0002) {
+			context.statistics.startPhase();
 			// Add a shared superclass named 'Object' to the parse tree
-			ClassDecl cd =  new ClassDecl(new Sequence(new Modifier(Modifier.Public)),
-					new Name(new Token(sym.IDENTIFIER, "Object", 0, 0, 0)),
-					null,
-					new Sequence(),
-					new Sequence(),
-					false);
-			cd.doNotGenerateCode();
-			Objects_myDecl = cd;
-			((Compilation)root).types().append(cd);
+			if (context.objectsDecl == null) {
+				ClassDecl cd =  new ClassDecl(new Sequence(new Modifier(Modifier.Public)),
+						new Name(new Token(sym.IDENTIFIER, "Object", 0, 0, 0)),
+						null,
+						new Sequence(),
+						new Sequence(),
+						false);
+				cd.doNotGenerateCode();
+				context.objectsDecl = cd;
+			}
+			((Compilation)context.root).types().append(context.objectsDecl);
+
+			// Classes that were checked in an earlier compilation of a batch
+			// go straight into the class table.
+			Sequence types = new Sequence();
+			Sequence oldTypes = ((Compilation)context.root).types();
+			for (int i=0; i<oldTypes.nchildren; i++) {
+				ClassDecl cd = (ClassDecl)oldTypes.children[i];
+				if (context.checkedImports.contains(cd))
+					context.classTable.put(cd.name(), cd);
+				else
+					types.append(cd);
+			}
+			context.root.children[0] = types;
+			context.statistics.endPhase("Phase 2 (tree)", context.root, context.classTable);
 		}
 		if ((debugLevel & 0x0002) == 0x0002) {
-			((Compilation)root).visit(new PrintVisitor()); 
+			((Compilation)context.root).visit(new PrintVisitor()); 
 		}
 	}
 }
\ No newline at end of file
@@ -2,38 +2,50 @@ package Phases;
 
 import AST.*;
 import NameChecker.*;
+import Utilities.CompilationContext;
+import Utilities.Traversal;
 
 public class Phase3 extends Phase2 {
+    public Phase3(CompilationContext context) {
+	super(context);
+    }
+
     public void execute(Object arg, int debugLevel, int runLevel) {
 	boolean traceNameChecker = ((debugLevel & 0x0004) == 0x0004);
 	super.execute(arg, debugLevel, runLevel);
+	context.statistics.startPhase();
 	
 	if (traceNameChecker) 
-	    System.out.println("** Defining Classes, Members and Fields. **");
+	    System.out.println("** Defining Classes, Members and Fields; setting myDecls for ClassTypes. **");
 	if ((runLevel & 0x0004) == 0x0004) {
-	    ((Compilation)root).visit(new ClassAndMemberFinder(Phase.classTable,traceNameChecker));
+	    // MyDeclSet needs all the classes in the class table, but
+	    // not the members, so it shares a walk with the finder.
+	    visitClasses(new Traversal(new ClassFinder(context.classTable, traceNameChecker)));
+	    visitClasses(new Traversal(new ClassAndMemberFinder(context.objectsDecl, traceNameChecker),
+				       new MyDeclSet(context.classTable, traceNameChecker)));
 	}
 	if (traceNameChecker) {
-	    System.out.println("** Defining Classes, Members and Fields. ** DONE!");
+	    System.out.println("** Defining Classes, Members and Fields; setting myDecls for ClassTypes. ** DONE!");
 	    System.out.println("---------------------------------------------------------");
-	    System.out.println("** MyDeclSet: Setting myDecls for ClassTypes. **");
 	}
 
 	if ((runLevel & 0x0004) == 0x0004) {	  
-	    ((Compilation)root).visit(new MyDeclSet(Phase.classTable, traceNameChecker));   
+	    ClassHierarchy.encode(context.classTable);
+	    if (context.dependencies != null)
+		context.dependencies.findUpToDate();
 	}
 
 	if (traceNameChecker) {
-	    System.out.println("** MyDeclSet: Setting myDecls for ClassTypes. ** DONE!");
-	    System.out.println("---------------------------------------------------------");
 	    System.out.println("** Resolving symbols and defining locals. **");
 	}
 	if ((runLevel & 0x0004) == 0x0004) {
-	    ((Compilation)root).visit(new NameChecker(Phase.classTable,traceNameChecker));
+	    visitClasses(new NameChecker(context.classTable, context.upToDate, traceNameChecker));
 	}
 	if (traceNameChecker) {
 	    System.out.println("** Resolving symbols and defining locals. ** DONE!");
 	    System.out.println("Phase 3 successfully terminated.");
 	}
+	if ((runLevel & 0x0004) == 0x0004)
+	    context.statistics.endPhase("Phase 3 (name checker)", context.root, context.classTable);
     }
 }
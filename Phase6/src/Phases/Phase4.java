@@ -1,9 +1,14 @@
 package Phases;
 
 import TypeChecker.*;
+import Utilities.CompilationContext;
 
 
 public class Phase4 extends Phase3 {
+	public Phase4(CompilationContext context) {
+		super(context);
+	}
+
 	public void execute(Object arg, int debugLevel, int runLevel) {
 		boolean traceTypeChecker = ((debugLevel & 0x0008) == 0x0008);
 		super.execute(arg, debugLevel, runLevel);
@@ -11,7 +16,15 @@ public class Phase4 extends Phase3 {
 		if (traceTypeChecker)
 			System.out.println("** Checking types **");
 		if ((runLevel & 0x0008) == 0x0008) {
-			root.visit(new TypeChecker(classTable,traceTypeChecker));
+			context.statistics.startPhase();
+			// The members are checked in parallel, unless tracing (to keep
+			// the trace readable). If errors are found, the classes are
+			// checked again one at a time, which reports them.
+			if (traceTypeChecker || !new ParallelTypeChecker(context).check())
+				visitClasses(new TypeChecker(context, traceTypeChecker), true);
+			if (context.dependencies != null)
+				context.dependencies.recordChanged();
+			context.statistics.endPhase("Phase 4 (type checker)", context.root, context.classTable);
 		}
 		if (traceTypeChecker) {
 			System.out.println("** Checking types ** DONE!");
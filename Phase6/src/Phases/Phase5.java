@@ -4,6 +4,10 @@ import ModifierChecker.*;
 import Utilities.*;
 
 public class Phase5 extends Phase4 {
+	public Phase5(CompilationContext context) {
+		super(context);
+	}
+
 	public void execute(Object arg, int debugLevel, int runLevel) {
 		boolean traceModifierChecker = ((debugLevel & 0x0010) == 0x0010);
 		super.execute(arg, debugLevel, runLevel);
@@ -11,7 +15,9 @@ public class Phase5 extends Phase4 {
 		if (traceModifierChecker)
 			System.out.println("** Checking Modifiers **");
 		if ((runLevel & 0x0010) == 0x0010) {
-		    root.visit(new ModifierChecker(classTable, traceModifierChecker));
+		    context.statistics.startPhase();
+		    visitClasses(new ModifierChecker(context.classTable, traceModifierChecker), true);
+		    context.statistics.endPhase("Phase 5 (modifier checker)", context.root, context.classTable);
 		}
 		if (traceModifierChecker) {
 			System.out.println("** Checking Modifiers ** DONE!");
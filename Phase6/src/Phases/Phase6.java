@@ -2,18 +2,60 @@ package Phases;
 
 import AST.*;
 import CodeGenerator.*;
+import Instruction.*;
+import Jasmin.*;
+import Utilities.CompilationContext;
+import java.util.*;
 
 public class Phase6 extends Phase5 {
+    public Phase6(CompilationContext context) {
+	super(context);
+    }
+
     public void execute(Object arg, int debugLevel, int runLevel) {
 	
 	boolean traceCodeGenerator  = ((debugLevel & 0x00020) == 0x0020);
 	super.execute(arg, debugLevel, runLevel);
 	if ((runLevel & 0x0020) == 0x0020) {
+	    context.statistics.startPhase();
 	    // If we are not generating code for the EVM, so rename Object to /java/lang/Object etc.
-	    if (!Utilities.Settings.generateEVMCode)
-		((Compilation)root).visit(new Java());
+	    if (!context.settings.generateEVMCode) {
+		((Compilation)context.root).visit(new Java());
+		// imports shared with earlier compilations are not part of the tree
+		for (ClassDecl cd : context.checkedImports)
+		    cd.visit(new Java());
+	    }
 	    
-	    new CodeGenerator().generate((Compilation)root, traceCodeGenerator);	
+	    new CodeGenerator(context).generate((Compilation)context.root, traceCodeGenerator);	
+	    Utilities.Error.endPhase();
+	    context.statistics.endPhase("Phase 6 (code generator)", context.root, context.classTable);
+	    if (context.statistics.enabled)
+		countInstructions(false);
 	}       	
     }
+
+    // countInstructions: records the number of instructions (not counting
+    //                    labels and comments) of each generated method.
+    protected void countInstructions(boolean optimized) {
+	Sequence types = ((Compilation)context.root).types();
+	for (int i=0; i<types.nchildren; i++) {
+	    ClassDecl cd = (ClassDecl)types.children[i];
+	    if (cd.classFile == null)
+		continue;
+	    Iterator<Method> it = cd.classFile.getMethodsIterator();
+	    while (it.hasNext()) {
+		ClassBodyDecl method = it.next().getMethod();
+		String name = cd.name() + "." + method.getname();
+		if (method instanceof MethodDecl)
+		    name += "(" + ((MethodDecl)method).paramSignature() + ")";
+		else if (method instanceof ConstructorDecl)
+		    name += "(" + ((ConstructorDecl)method).paramSignature() + ")";
+		int count = 0;
+		for (Instruction inst : (optimized ? method.getOptmizedCode() : method.getCode()))
+		    if (inst.getOpCode() >= 0 && !(inst instanceof LabelInstruction))
+			count++;
+		context.statistics.methodInstructions(name, count, optimized);
+	    }
+	}
+    }
 }
\ No newline at end of file
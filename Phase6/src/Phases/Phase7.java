@@ -1,6 +1,30 @@
 package Phases;
 
+import AST.*;
+import Optimizer.*;
+import Utilities.CompilationContext;
+
 public class Phase7 extends Phase6 {
+    public Phase7(CompilationContext context) {
+	super(context);
+    }
+
     public void execute(Object arg, int debugLevel, int runLevel) {
-    }       	
+	boolean traceOptimizer = ((debugLevel & 0x0040) == 0x0040);
+	super.execute(arg, debugLevel, runLevel);
+
+	if (traceOptimizer)
+	    System.out.println("** Optimizing **");
+	if ((runLevel & 0x0040) == 0x0040) {
+	    context.statistics.startPhase();
+	    new PeepholeOptimizer(traceOptimizer).optimize((Compilation)context.root);
+	    context.statistics.endPhase("Phase 7 (optimizer)", context.root, context.classTable);
+	    if (context.statistics.enabled)
+		countInstructions(true);
+	}
+	if (traceOptimizer) {
+	    System.out.println("** Optimizing ** DONE!");
+	    System.out.println("Phase 7 successfully terminated.");
+	}
+    }
 }
@@ -0,0 +1,124 @@
+package TypeChecker;
+
+import AST.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Speeds up {@link TypeChecker#findMethod}. The methods (or constructors)
+ * of a class are indexed by name and number of parameters, so only those
+ * that can match an invocation are looked at, and the method found for
+ * each combination of candidates, name and argument types is remembered,
+ * so calls like Io.println(int) are only resolved once.
+ *
+ * Classes are told apart by their declarations, not by name, so a lookup
+ * must not outlive the compilation (the class hierarchy) it was made for.
+ * A lookup can be shared by visitors running on different threads.
+ */
+public class MethodLookup {
+
+    // the index of each sequence of candidates: name/arity -> candidates
+    private IdentityHashMap<Sequence, Index> indexes = new IdentityHashMap<Sequence, Index>();
+
+    // the method found for each key (see key())
+    private ConcurrentHashMap<List<Object>, ClassBodyDecl> found = new ConcurrentHashMap<List<Object>, ClassBodyDecl>();
+
+    private static class Index {
+	int size; // the number of candidates when the index was made
+	HashMap<String, AST[]> candidates = new HashMap<String, AST[]>();
+    }
+
+    private static final AST none[] = new AST[0];
+
+    /**
+     * Returns the candidates with the given name and number of parameters,
+     * in the order they have in candidateMethods.
+     */
+    public AST[] candidates(Sequence candidateMethods, String name, int arity) {
+	Index index;
+	synchronized (indexes) {
+	    index = indexes.get(candidateMethods);
+	    if (index == null || index.size != candidateMethods.nchildren) {
+		index = makeIndex(candidateMethods);
+		indexes.put(candidateMethods, index);
+	    }
+	}
+	AST result[] = index.candidates.get(name + "/" + arity);
+	return result == null ? none : result;
+    }
+
+    private static Index makeIndex(Sequence candidateMethods) {
+	HashMap<String, Vector<AST>> lists = new HashMap<String, Vector<AST>>();
+	for (int i=0; i<candidateMethods.nchildren; i++) {
+	    AST cbd = candidateMethods.children[i];
+	    Sequence params;
+	    if (cbd instanceof MethodDecl)
+		params = ((MethodDecl)cbd).params();
+	    else if (cbd instanceof ConstructorDecl)
+		params = ((ConstructorDecl)cbd).params();
+	    else
+		continue;
+	    String key = ((ClassBodyDecl)cbd).getname() + "/" + params.nchildren;
+	    Vector<AST> list = lists.get(key);
+	    if (list == null) {
+		list = new Vector<AST>();
+		lists.put(key, list);
+	    }
+	    list.addElement(cbd);
+	}
+	Index index = new Index();
+	index.size = candidateMethods.nchildren;
+	for (Map.Entry<String, Vector<AST>> e : lists.entrySet())
+	    index.candidates.put(e.getKey(), e.getValue().toArray(new AST[0]));
+	return index;
+    }
+
+    /**
+     * Returns the key of a lookup, or null if the types of the arguments
+     * are not all known (the result of such a lookup is not remembered).
+     */
+    public List<Object> key(Sequence candidateMethods, String name, Sequence actualParams) {
+	List<Object> key = new ArrayList<Object>(actualParams.nchildren + 2);
+	key.add(candidateMethods); // compared by identity
+	key.add(name);
+	for (int i=0; i<actualParams.nchildren; i++) {
+	    AST arg = actualParams.children[i];
+	    Object k = typeKey(arg instanceof Expression ? ((Expression)arg).type : ((ParamDecl)arg).type());
+	    if (k == null)
+		return null;
+	    key.add(k);
+	}
+	return key;
+    }
+
+    // typeKey: what findMethod depends on of the type of an argument:
+    //          the signature of a primitive type and the declaration of
+    //          a class type.
+    private static Object typeKey(Type t) {
+	if (t == null)
+	    return null;
+	if (t instanceof ClassType)
+	    return ((ClassType)t).myDecl; // null if unknown
+	if (t instanceof ArrayType) {
+	    Object base = typeKey(((ArrayType)t).baseType());
+	    return base == null ? null : Arrays.asList(t.signature(), base);
+	}
+	if (t instanceof NullType)
+	    return "null";
+	return t.signature();
+    }
+
+    /**
+     * Returns the method remembered for a key, or null.
+     */
+    public ClassBodyDecl get(List<Object> key) {
+	return found.get(key);
+    }
+
+    /**
+     * Remembers the method found for a key.
+     */
+    public void put(List<Object> key, ClassBodyDecl method) {
+	found.put(key, method);
+    }
+}
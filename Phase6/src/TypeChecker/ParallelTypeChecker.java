@@ -0,0 +1,163 @@
+package TypeChecker;
+
+import AST.*;
+import Utilities.CompilationContext;
+import Utilities.Error;
+import Utilities.RecoveryException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Type checks the classes of a compilation with each member (field,
+ * method, constructor or initializer) checked as a task of its own on a
+ * fork-join pool. Each task has its own {@link TypeChecker}, so the
+ * current class and context are per task; the method lookup is shared.
+ *
+ * The constants (static final fields) are checked first, one at a time,
+ * as constant folding reads the types of their initializers from other
+ * members. Intersection types are numbered when all the tasks are done,
+ * in the order of the members, so they get the names they would get if
+ * the classes were checked one at a time.
+ *
+ * If a task finds an error (or fails), its diagnostics are thrown away
+ * and {@link #check} returns false: the classes must then be checked
+ * again with a single TypeChecker, which reports the errors in the same
+ * order (and with the same names) as always.
+ */
+public class ParallelTypeChecker {
+
+    private CompilationContext context;
+
+    public ParallelTypeChecker(CompilationContext context) {
+	this.context = context;
+    }
+
+    // Member: a member of a class and what checking it left behind.
+    private static class Member {
+	ClassDecl cd;
+	AST decl;
+	ClassBodyDecl previousContext;
+	Vector<ClassDecl> intersectionTypes = new Vector<ClassDecl>();
+	boolean failed;
+
+	Member(ClassDecl cd, AST decl, ClassBodyDecl previousContext) {
+	    this.cd = cd;
+	    this.decl = decl;
+	    this.previousContext = previousContext;
+	}
+    }
+
+    // CheckMembers: checks a range of members. Ranges are split in two
+    //               until they hold a single member.
+    private static class CheckMembers extends RecursiveAction {
+	private CompilationContext context;
+	private MethodLookup methodLookup;
+	private Vector<Member> members;
+	private int from, to;
+
+	CheckMembers(CompilationContext context, MethodLookup methodLookup, Vector<Member> members, int from, int to) {
+	    this.context = context;
+	    this.methodLookup = methodLookup;
+	    this.members = members;
+	    this.from = from;
+	    this.to = to;
+	}
+
+	protected void compute() {
+	    if (to - from == 1) {
+		// errors are reported through the context of the thread
+		CompilationContext.setCurrent(context);
+		long task = context.statistics.startTask();
+		checkMember(context, methodLookup, members.elementAt(from));
+		context.statistics.endTask(task);
+	    } else {
+		int mid = (from + to) / 2;
+		invokeAll(new CheckMembers(context, methodLookup, members, from, mid),
+			  new CheckMembers(context, methodLookup, members, mid, to));
+	    }
+	}
+    }
+
+    private static void checkMember(CompilationContext context, MethodLookup methodLookup, Member m) {
+	try {
+	    new TypeChecker(context, methodLookup, m.intersectionTypes, false).checkMember(m.cd, m.decl, m.previousContext);
+	} catch (RecoveryException e) {
+	    m.failed = true;
+	} catch (RuntimeException e) {
+	    // left for the checking that follows to report
+	    m.failed = true;
+	}
+    }
+
+    // isConstant: true for the static final fields with an initializer.
+    private static boolean isConstant(AST decl) {
+	if (!(decl instanceof FieldDecl))
+	    return false;
+	FieldDecl fd = (FieldDecl)decl;
+	return fd.modifiers.isStatic() && fd.modifiers.isFinal() && fd.var().init() != null;
+    }
+
+    /**
+     * Type checks the classes that are not up to date.
+     * @return false if the classes must be checked again one at a time
+     * (see above).
+     */
+    public boolean check() {
+	int diagnostics = Error.diagnosticCount();
+	Vector<Member> members = new Vector<Member>();
+	Vector<Member> constants = new Vector<Member>();
+	Vector<Member> others = new Vector<Member>();
+	Sequence types = ((Compilation)context.root).types();
+	boolean failed = false;
+
+	Error.enterRecovery();
+	try {
+	    for (int i=0; i<types.nchildren && !failed; i++) {
+		ClassDecl cd = (ClassDecl)types.children[i];
+		if (context.upToDate.contains(cd))
+		    continue;
+		try {
+		    TypeChecker.checkInterfaces(cd);
+		} catch (RecoveryException e) {
+		    failed = true;
+		}
+		ClassBodyDecl previousContext = null;
+		Sequence body = cd.body();
+		for (int j=0; j<body.nchildren; j++) {
+		    Member m = new Member(cd, body.children[j], previousContext);
+		    members.addElement(m);
+		    (isConstant(m.decl) ? constants : others).addElement(m);
+		    if (!(m.decl instanceof Block))
+			previousContext = (ClassBodyDecl)m.decl;
+		}
+	    }
+
+	    MethodLookup methodLookup = new MethodLookup();
+	    for (int i=0; i<constants.size() && !failed; i++) {
+		checkMember(context, methodLookup, constants.elementAt(i));
+		failed = constants.elementAt(i).failed;
+	    }
+	    if (!failed && others.size() > 0) {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+		    pool.invoke(new CheckMembers(context, methodLookup, others, 0, others.size()));
+		} finally {
+		    pool.shutdown();
+		}
+		for (Member m : others)
+		    failed |= m.failed;
+	    }
+	} finally {
+	    Error.leaveRecovery();
+	}
+
+	if (failed) {
+	    Error.discardDiagnostics(diagnostics);
+	    return false;
+	}
+	for (Member m : members)
+	    for (ClassDecl intersection : m.intersectionTypes)
+		intersection.className().setName("INT#" + context.interSectionTypeCounter++);
+	return true;
+    }
+}
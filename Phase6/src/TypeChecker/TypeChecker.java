@@ -2,6 +2,7 @@ package TypeChecker;
 
 import AST.*;
 import Parser.sym;
+import Utilities.CompilationContext;
 import Utilities.Error;
 import Utilities.SymbolTable;
 import Utilities.Visitor;
@@ -13,6 +14,26 @@ import java.math.*;
  */
 public class TypeChecker extends Visitor {
 
+	// findMethod is static (the modifier checker uses it too), so it
+	// cannot use the print methods of the visitor.
+	private static void print(boolean debug, String s) {
+		if (debug)
+			System.out.print(s);
+	}
+
+	private static void println(boolean debug, String s) {
+		if (debug)
+			System.out.println(s);
+	}
+
+	// paramString: the parameter types of a method or constructor, as
+	//              shown in a trace. Only call it when tracing.
+	private static String paramString(ClassBodyDecl cbd) {
+		if (cbd instanceof ConstructorDecl)
+			return Type.parseSignature(((ConstructorDecl)cbd).paramSignature());
+		return Type.parseSignature(((MethodDecl)cbd).paramSignature());
+	}
+
 	/**
 	 * <p>Returns the 'best-fitting' method or constructor from a list
 	 * of potential candidates given a set of actual parameters.</p>
@@ -22,30 +43,61 @@ public class TypeChecker extends Visitor {
 	 * @param name The name of the method or constructor you are looking for.
 	 * @param actualParams The sequence of actual parameters being passed to the method invocation or constructor invocation.
 	 * @param lookingForMethods <i>true</i> if you pass a sequence of methods ({@link AST.ClassDecl#allMethods}), <i>false</i> if you pass a sequence of constructors ({@link AST.ClassDecl#constructors}).
+	 * @param debug Determines if the search is traced.
 	 * @return The {@link AST.MethodDecl}/{@link AST.ConstructorDecl} found; null if nothing was found.
 	 */
 	public static ClassBodyDecl findMethod(Sequence candidateMethods, String name, Sequence actualParams,
-										   boolean lookingForMethods) {
-
-		if (lookingForMethods) {
-			println("+------------- findMethod (Method) ------------");
-			println("| Looking for method: " + name);
-		} else {
-			println("+---------- findMethod (Constructor) ----------");
-			println("| Looking for constructor: " + name);
+										   boolean lookingForMethods, boolean debug) {
+		return findMethod(candidateMethods.children, candidateMethods.nchildren, name, actualParams, lookingForMethods, debug);
+	}
+
+	/**
+	 * Like {@link #findMethod(Sequence,String,Sequence,boolean,boolean)},
+	 * but only the candidates with the right name and number of parameters
+	 * are looked at, and the result is remembered in (or taken from) the
+	 * lookup. A traced search is always done in full.
+	 */
+	public static ClassBodyDecl findMethod(MethodLookup lookup, Sequence candidateMethods, String name, Sequence actualParams,
+										   boolean lookingForMethods, boolean debug) {
+		if (debug)
+			return findMethod(candidateMethods, name, actualParams, lookingForMethods, debug);
+		List<Object> key = lookup.key(candidateMethods, name, actualParams);
+		ClassBodyDecl result = (key == null ? null : lookup.get(key));
+		if (result == null) {
+			AST candidates[] = lookup.candidates(candidateMethods, name, actualParams.nchildren);
+			result = findMethod(candidates, candidates.length, name, actualParams, lookingForMethods, debug);
+			if (result != null && key != null)
+				lookup.put(key, result);
 		}
-		println("| With parameters:");
-		for (int i=0; i<actualParams.nchildren; i++){
-			println("|   " + i + ". " + ((actualParams.children[i] instanceof ParamDecl)?(((ParamDecl)actualParams.children[i]).type()):((Expression)actualParams.children[i]).type));
+		return result;
+	}
+
+	// findMethod: does the search of findMethod among the first n
+	//             candidates in candidateMethods.
+	private static ClassBodyDecl findMethod(AST candidateMethods[], int n, String name, Sequence actualParams,
+											boolean lookingForMethods, boolean debug) {
+
+		if (debug) {
+			if (lookingForMethods) {
+				println(debug, "+------------- findMethod (Method) ------------");
+				println(debug, "| Looking for method: " + name);
+			} else {
+				println(debug, "+---------- findMethod (Constructor) ----------");
+				println(debug, "| Looking for constructor: " + name);
+			}
+			println(debug, "| With parameters:");
+			for (int i=0; i<actualParams.nchildren; i++){
+				println(debug, "|   " + i + ". " + ((actualParams.children[i] instanceof ParamDecl)?(((ParamDecl)actualParams.children[i]).type()):((Expression)actualParams.children[i]).type));
+			}
 		}
 		// The number of actual parameters in the invocation.
 		int count = 0;
 
 		// Make an array big enough to hold all the methods if needed
-		ClassBodyDecl cds[] = new ClassBodyDecl[candidateMethods.nchildren];
+		ClassBodyDecl cds[] = new ClassBodyDecl[n];
 
 		// Initialize the array to point to null
-		for(int i=0;i<candidateMethods.nchildren;i++)
+		for(int i=0;i<n;i++)
 			cds[i] = null;
 
 		Sequence args = actualParams;
@@ -56,11 +108,11 @@ public class TypeChecker extends Visitor {
 		// 2.) each formal parameter can be assigned its corresponding
 		//     actual parameter.
 		if (lookingForMethods)
-			println("| Finding methods with the right number of parameters and types");
+			println(debug, "| Finding methods with the right number of parameters and types");
 		else
-			println("| Finding constructors with the right number of parameters and types");
-		for (int cnt=0; cnt<candidateMethods.nchildren; cnt++) {
-			ClassBodyDecl cbd = (ClassBodyDecl)candidateMethods.children[cnt];
+			println(debug, "| Finding constructors with the right number of parameters and types");
+		for (int cnt=0; cnt<n; cnt++) {
+			ClassBodyDecl cbd = (ClassBodyDecl)candidateMethods[cnt];
 
 			// if the method doesn't have the right name, move on!
 			if (!(cbd.getname().equals(name)))
@@ -75,12 +127,8 @@ public class TypeChecker extends Visitor {
 				// we have a static initializer, don't do anything - just skip it.
 				continue;
 
-			print("|   " + name + "(");
-			if (cbd instanceof ConstructorDecl)
-				print(Type.parseSignature(((ConstructorDecl)cbd).paramSignature()));
-			else
-				print(Type.parseSignature(((MethodDecl)cbd).paramSignature()));
-			print(" )  ");
+			if (debug)
+				print(debug, "|   " + name + "(" + paramString(cbd) + " )  ");
 
 			if (args.nchildren == params.nchildren) {
 				// The have the same number of parameters
@@ -100,45 +148,40 @@ public class TypeChecker extends Visitor {
 											((ParamDecl)args.children[i]).type());
 
 					if (!candidate) {
-						println(" discarded");
+						println(debug, " discarded");
 						break;
 					}
 				}
 				if (candidate) {
-					println(" kept");
+					println(debug, " kept");
 					cds[count++] = cbd;
 				}
 			}
 			else {
-				println(" discarded");
+				println(debug, " discarded");
 			}
 
 		}
 		// now count == the number of candidates, and cds is the array with them.
 		// if there is only one just return it!
-		println("| " + count + " candidate(s) were found:");
-		for ( int i=0;i<count;i++) {
-			ClassBodyDecl cbd = cds[i];
-			print("|   " + name + "(");
-			if (cbd instanceof ConstructorDecl)
-				print(Type.parseSignature(((ConstructorDecl)cbd).paramSignature()));
-			else
-				print(Type.parseSignature(((MethodDecl)cbd).paramSignature()));
-			println(" )");
+		if (debug) {
+			println(debug, "| " + count + " candidate(s) were found:");
+			for ( int i=0;i<count;i++)
+				println(debug, "|   " + name + "(" + paramString(cds[i]) + " )");
 		}
 
 		if (count == 0) {
-			println("| No candidates were found.");
-			println("+------------- End of findMethod --------------");
+			println(debug, "| No candidates were found.");
+			println(debug, "+------------- End of findMethod --------------");
 			return null;
 		}
 
 		if (count == 1) {
-			println("| Only one candidate - thats the one we will call then ;-)");
-			println("+------------- End of findMethod --------------");
+			println(debug, "| Only one candidate - thats the one we will call then ;-)");
+			println(debug, "+------------- End of findMethod --------------");
 			return cds[0];
 		}
-		println("| Oh no, more than one candidate, now we must eliminate some >:-}");
+		println(debug, "| Oh no, more than one candidate, now we must eliminate some >:-}");
 		// there were more than one candidate.
 		ClassBodyDecl x,y;
 		int noCandidates = count;
@@ -183,17 +226,9 @@ public class TypeChecker extends Visitor {
 				}
 				if (candidate) {
 					// x is more specialized than y, so throw y away.
-					print("|   " + name + "(");
-					if (y instanceof ConstructorDecl)
-						print(Type.parseSignature(((ConstructorDecl)y).paramSignature()));
-					else
-						print(Type.parseSignature(((MethodDecl)y).paramSignature()));
-					print(" ) is less specialized than " + name + "(");
-					if (x instanceof ConstructorDecl)
-						print(Type.parseSignature(((ConstructorDecl)x).paramSignature()));
-					else
-						print(Type.parseSignature(((MethodDecl)x).paramSignature()));
-					println(" ) and is thus thrown away!");
+					if (debug)
+						println(debug, "|   " + name + "(" + paramString(y) + " ) is less specialized than " +
+								name + "(" + paramString(x) + " ) and is thus thrown away!");
 
 					cds[j] = null;
 					noCandidates--;
@@ -204,14 +239,14 @@ public class TypeChecker extends Visitor {
 		}
 		if (noCandidates != 1) {
 			// illegal function call
-			println("| There is more than one candidate left!");
-			println("+------------- End of findMethod --------------");
+			println(debug, "| There is more than one candidate left!");
+			println(debug, "+------------- End of findMethod --------------");
 			return null;
 		}
 
 		// just find it and return it.
-		println("| We were left with exactly one candidate to call!");
-		println("+------------- End of findMethod --------------");
+		println(debug, "| We were left with exactly one candidate to call!");
+		println(debug, "+------------- End of findMethod --------------");
 		for (int i=0; i<count; i++)
 			if (cds[i] != null)
 				return cds[i];
@@ -220,24 +255,26 @@ public class TypeChecker extends Visitor {
 	}
 
 	/**
-	 * Given a list of candiate methods and a name of the method this method prints them all out.
+	 * Given a list of candiate methods and a name of the method this method lists them all, one per line.
 	 *
 	 * @param cd The {@link AST.ClassDecl} for which the methods or constructors are being listed.
 	 * @param candidateMethods A {@link AST.Sequence} of either {@link AST.MethodDecl}s ({@link AST.ClassDecl#allMethods}) or {@link AST.ConstructorDecl}s ({@link AST.ClassDecl#constructors}).
 	 * @param name The name of the method or the constructor for which the candidate list should be produced.
+	 * @return The candidates, each on a line of its own.
 	 */
-	public void listCandidates(ClassDecl cd, Sequence candidateMethods, String name) {
-
+	public String listCandidates(ClassDecl cd, Sequence candidateMethods, String name) {
+		String candidates = "";
 		for (int cnt=0; cnt<candidateMethods.nchildren; cnt++) {
 			ClassBodyDecl cbd = (ClassBodyDecl)(candidateMethods.children[cnt]);
 
 			if (cbd.getname().equals(name)) {
 				if (cbd instanceof MethodDecl)
-					System.out.println("  " + name + "(" + Type.parseSignature(((MethodDecl)cbd).paramSignature()) + " )");
+					candidates += "\n  " + name + "(" + Type.parseSignature(((MethodDecl)cbd).paramSignature()) + " )";
 				else
-					System.out.println("  " + cd.name() + "(" + Type.parseSignature(((ConstructorDecl)cbd).paramSignature()) + " )");
+					candidates += "\n  " + cd.name() + "(" + Type.parseSignature(((ConstructorDecl)cbd).paramSignature()) + " )";
 			}
 		}
+		return candidates;
 	}
 	/**
 	 * The global class tabel. This should be set in the constructor.
@@ -260,23 +297,66 @@ public class TypeChecker extends Visitor {
 	 */
 	private boolean       inFieldInit;
 
+	/**
+	 * The context of the compilation.
+	 */
+	private CompilationContext context;
+
+	/**
+	 * The index of the methods and constructors and the methods found so
+	 * far (see {@link MethodLookup}).
+	 */
+	private MethodLookup methodLookup;
+
+	/**
+	 * If not null, the intersection types made are added to it and
+	 * numbered later (see {@link ParallelTypeChecker}); otherwise they are
+	 * numbered as they are made.
+	 */
+	private Vector<ClassDecl> intersectionTypes;
+
 	/**
 	 * Constructs a new type checker.
-	 * @param classTable The global class table.
+	 * @param context The context of the compilation (holds the global class table).
 	 * @param debug determins if debug information should printed out.
 	 */
-	public TypeChecker(SymbolTable classTable, boolean debug) {
-		this.classTable = classTable;
+	public TypeChecker(CompilationContext context, boolean debug) {
+		this(context, new MethodLookup(), null, debug);
+	}
+
+	/**
+	 * Constructs a type checker that shares a method lookup with other
+	 * type checkers (see {@link ParallelTypeChecker}).
+	 */
+	TypeChecker(CompilationContext context, MethodLookup methodLookup, Vector<ClassDecl> intersectionTypes, boolean debug) {
+		this.context = context;
+		this.classTable = context.classTable;
+		this.methodLookup = methodLookup;
+		this.intersectionTypes = intersectionTypes;
 		this.debug = debug;
 	}
 
+	/**
+	 * Type checks one member of a class on its own, as
+	 * {@link #visitClassDecl} would when it gets to it.
+	 * @param cd The class of the member.
+	 * @param member The member.
+	 * @param previousContext The context left by the member before it
+	 * (a common constructor {@link AST.Block} does not set its own).
+	 */
+	void checkMember(ClassDecl cd, AST member, ClassBodyDecl previousContext) {
+		currentClass = cd;
+		currentContext = previousContext;
+		member.visit(this);
+	}
+
 	/**
 	 * Type checks an ArrayAccessExpr node.
 	 * @param ae An {@link AST.ArrayAccessExpr} parse tree node.
 	 * @return Returns the type of the array access expression.
 	 */
 	public Object visitArrayAccessExpr(ArrayAccessExpr ae) {
-		println(ae.line + ":\tVisiting ArrayAccessExpr.");
+		if (debug) println(ae.getLine() + ":\tVisiting ArrayAccessExpr.");
 		//<--
 		Type t = (Type)ae.target().visit(this);
 		if (!t.isArrayType())
@@ -286,12 +366,12 @@ public class TypeChecker extends Visitor {
 		if (at.getDepth() == 1)
 			ae.type = at.baseType();
 		else
-			ae.type = new ArrayType(at.baseType(), at.getDepth()-1);
+			ae.type = ArrayType.get(at.baseType(), at.getDepth()-1);
 
 		Type indexType = (Type)ae.index().visit(this);
 		if (!indexType.isIntegralType())
 			Error.error(ae,"Array access index must be of integral type.");
-		println(ae.line + ":\tArrayAccessExpr has type: " + ae.type);
+		if (debug) println(ae.getLine() + ":\tArrayAccessExpr has type: " + ae.type);
 		//-->
 		return ae.type;
 	}
@@ -302,8 +382,8 @@ public class TypeChecker extends Visitor {
 	 * @return Returns itself.
 	 */
 	public Object visitArrayType(ArrayType at) {
-		println(at.line + ":\tVisiting an ArrayType.");
-		println(at.line + ":\tArrayType type is " + at);
+		if (debug) println(at.getLine() + ":\tVisiting an ArrayType.");
+		if (debug) println(at.getLine() + ":\tArrayType type is " + at);
 		// An ArrayType is already a type, so nothing to do.
 		return at;
 	}
@@ -314,7 +394,7 @@ public class TypeChecker extends Visitor {
 	 * @return Returns the type of the NewArray node.
 	 */
 	public Object visitNewArray(NewArray ne) {
-		println(ne.line + ":\tVisiting a NewArray.");
+		if (debug) println(ne.getLine() + ":\tVisiting a NewArray.");
 		//<--
 		//  check that each dimension is of integral type
 		for (int i=0; i<ne.dimsExpr().nchildren; i++) {
@@ -323,14 +403,14 @@ public class TypeChecker extends Visitor {
 				Error.error(ne.dimsExpr().children[i], "Array dimension must be of integral type.");
 		}
 		// if there is an initializer, then make sure it is of proper and equal depth.
-		ne.type = new ArrayType(ne.baseType(), ne.dims().nchildren+ne.dimsExpr().nchildren);
+		ne.type = ArrayType.get(ne.baseType(), ne.dims().nchildren+ne.dimsExpr().nchildren);
 		if (ne.init() != null)  {
 			if (!arrayAssignmentCompatible(ne.type, ne.init()))
 				Error.error(ne, "Array Initializer is not compatible with type '" + ne.type.typeName() + "'.");
 			ne.init().type = ne.type;
 		}
 		//-->
-		println(ne.line + ":\tNewArray type is: " + ne.type);
+		if (debug) println(ne.getLine() + ":\tNewArray type is: " + ne.type);
 		return ne.type;
 	}
 
@@ -358,7 +438,7 @@ public class TypeChecker extends Visitor {
 				if (at.getDepth() == 1)
 					b = b && arrayAssignmentCompatible(at.baseType(), (Expression)al.elements().children[i]);
 				else {
-					ArrayType at1 = new ArrayType(at.baseType(), at.getDepth()-1);
+					ArrayType at1 = ArrayType.get(at.baseType(), at.getDepth()-1);
 					b = b  && arrayAssignmentCompatible(at1, (Expression)al.elements().children[i]);
 				}
 			}
@@ -395,7 +475,7 @@ public class TypeChecker extends Visitor {
 	 * @return Returns the type of the Assignment node.
 	 */
 	public Object visitAssignment(Assignment as) {
-		println(as.line + ":\tVisiting an Assignment.");
+		if (debug) println(as.getLine() + ":\tVisiting an Assignment.");
 
 		// get the types of the LHS (v) and the RHS(e)
 		Type vType = (Type) as.left().visit(this);
@@ -480,14 +560,14 @@ public class TypeChecker extends Visitor {
 		}
 		// The overall type is always that of the LHS.
 		as.type = vType;
-		println(as.line + ":\tAssignment has type: " + as.type);
+		if (debug) println(as.getLine() + ":\tAssignment has type: " + as.type);
 
 		return vType;
 	}
 
 	/** BINARY EXPRESSION */
 	public Object visitBinaryExpr(BinaryExpr be) {
-		println(be.line + ":\tVisiting a Binary Expression.");
+		if (debug) println(be.getLine() + ":\tVisiting a Binary Expression.");
 
 		//<--
 		Type lType = (Type) be.left().visit(this);
@@ -501,7 +581,7 @@ public class TypeChecker extends Visitor {
 			case BinOp.LTEQ:
 			case BinOp.GTEQ:{
 				if (lType.isNumericType() && rType.isNumericType()) {
-					be.type = new PrimitiveType(PrimitiveType.BooleanKind);
+					be.type = PrimitiveType.get(PrimitiveType.BooleanKind);
 				} else
 					Error.error(be,"Operator '" + op + "' requires operands of numeric type.");
 				break;
@@ -519,9 +599,9 @@ public class TypeChecker extends Visitor {
 					if (lType.isVoidType())
 						Error.error(be,"Void type cannot be used here.");
 					else
-						be.type = new PrimitiveType(PrimitiveType.BooleanKind);
+						be.type = PrimitiveType.get(PrimitiveType.BooleanKind);
 				else if (lType.isNumericType() && rType.isNumericType())
-					be.type = new PrimitiveType(PrimitiveType.BooleanKind);
+					be.type = PrimitiveType.get(PrimitiveType.BooleanKind);
 				else
 					Error.error(be,"Operator '" + op + "' requires operands of the same type.");
 				break;
@@ -546,7 +626,7 @@ public class TypeChecker extends Visitor {
 
 					// promote byte, short and char to int
 					if (be.type.isByteType() || be.type.isShortType() || be.type.isCharType())
-						be.type = new PrimitiveType(PrimitiveType.IntKind);
+						be.type = PrimitiveType.get(PrimitiveType.IntKind);
 
 				} else
 					Error.error(be,"Operator '" + op +
@@ -562,7 +642,7 @@ public class TypeChecker extends Visitor {
 				// 12/06/13 added + for Strings.
 				if (be.op().kind == BinOp.PLUS &&
 						(lType.isStringType() || rType.isStringType())) {
-					be.type = new PrimitiveType(PrimitiveType.StringKind);
+					be.type = PrimitiveType.get(PrimitiveType.StringKind);
 				} else if (lType.isNumericType() && rType.isNumericType()) {
 					// ceilingType promotes to at least int.
 					be.type = PrimitiveType.ceilingType((PrimitiveType)lType, (PrimitiveType)rType);
@@ -583,7 +663,7 @@ public class TypeChecker extends Visitor {
 
 				// Promote byte, short and char to int.
 				if (be.type.isByteType() || be.type.isShortType() || be.type.isCharType())
-					be.type = new PrimitiveType(PrimitiveType.IntKind);
+					be.type = PrimitiveType.get(PrimitiveType.IntKind);
 				break;
 			}
 			case BinOp.INSTANCEOF: {
@@ -601,20 +681,20 @@ public class TypeChecker extends Visitor {
 					//					classTable.get(((NameExpr)be.left()).name().getname()) != null)
 					Error.error(be,"Left-hand side of instanceof cannot be a class.");
 
-				be.type = new PrimitiveType(PrimitiveType.BooleanKind);
+				be.type = PrimitiveType.get(PrimitiveType.BooleanKind);
 				break;
 			}
 			default: Error.error(be,"Unknown operator '" + op + "'.");
 		}
 		//-->
 
-		println(be.line + ":\tBinary Expression has type: " + be.type);
+		if (debug) println(be.getLine() + ":\tBinary Expression has type: " + be.type);
 		return be.type;
 	}
 
 	/** CAST EXPRESSION */
 	public Object visitCastExpr(CastExpr ce) {
-		println(ce.line + ":\tVisiting a cast expression.");
+		if (debug) println(ce.getLine() + ":\tVisiting a cast expression.");
 
 		// We have two different types of casts:
 		// Numeric: any numeric type can be cast to any other numeric type.
@@ -634,7 +714,7 @@ public class TypeChecker extends Visitor {
 		// Numeric to numeric is always OK.
 		if (exprType.isNumericType() && castType.isNumericType()) {
 			ce.type = castType;
-			println(ce.line + ":\tCast Expression has type: " + ce.type);
+			if (debug) println(ce.getLine() + ":\tCast Expression has type: " + ce.type);
 			return castType;
 		}
 
@@ -648,7 +728,7 @@ public class TypeChecker extends Visitor {
 			if (Type.isSuper((ClassType)exprType, (ClassType)castType) ||
 					Type.isSuper((ClassType)castType, (ClassType)exprType)) {
 				ce.type = castType;
-				println(ce.line + ":\tCast Expression has type: " + ce.type);
+				if (debug) println(ce.getLine() + ":\tCast Expression has type: " + ce.type);
 				return castType;
 			}
 
@@ -660,21 +740,21 @@ public class TypeChecker extends Visitor {
 
 		// The overall type of a cast expression is always the cast type.
 
-		println(ce.line + ":\tCast Expression has type: " + ce.type);
+		if (debug) println(ce.getLine() + ":\tCast Expression has type: " + ce.type);
 		return ce.type;
 	}
 
 	/** CLASSTYPE */
 	public Object visitClassType(ClassType ct) {
-		println(ct.line + ":\tVisiting a ClassType.");
+		if (debug) println(ct.getLine() + ":\tVisiting a ClassType.");
 		// A class type is alreayd a type, so nothing to do.
-		println(ct.line + ":\tClassType has type: " + ct);
+		if (debug) println(ct.getLine() + ":\tClassType has type: " + ct);
 		return ct;
 	}
 
 	/** CONSTRUCTOR (EXPLICIT) INVOCATION */
 	public Object visitCInvocation(CInvocation ci) {
-		println(ci.line + ":\tVisiting an explicit constructor invocation.");
+		if (debug) println(ci.getLine() + ":\tVisiting an explicit constructor invocation.");
 
 		// An explicit constructor invocation takes one of two forms:
 		// this ( ... )  -- this calls a constructor in the same class (currentClass)
@@ -717,13 +797,12 @@ public class TypeChecker extends Visitor {
 		}
 
 		// Call find method to find the constructor of the target class.
-		constructor = (ConstructorDecl)findMethod(targetClass.constructors, targetClass.name(), ci.args(), false);
+		constructor = (ConstructorDecl)findMethod(methodLookup, targetClass.constructors, targetClass.name(), ci.args(), false, debug);
 
 		// If we didn't find anything list the candidates.
 		if (constructor == null) {
-			System.out.println("No constructor " + targetClass.name() + "(" + Type.parseSignature(s) + " ) found.\nCandidates are:");
-			listCandidates(targetClass, targetClass.constructors, targetClass.name());
-			System.exit(1);
+			Error.error(ci, "No constructor " + targetClass.name() + "(" + Type.parseSignature(s) + " ) found.\nCandidates are:" +
+				    listCandidates(targetClass, targetClass.constructors, targetClass.name()));
 		}
 
 		// Check if we have a circular call.
@@ -739,7 +818,7 @@ public class TypeChecker extends Visitor {
 
 	/** CLASS DECLARATION */
 	public Object visitClassDecl(ClassDecl cd) {
-		println(cd.line + ":\tVisiting a ClassDecl(" + cd.name() + ")");
+		if (debug) println(cd.getLine() + ":\tVisiting a ClassDecl(" + cd.name() + ")");
 
 		// The only check to do here is that we cannot have repreated interface implementations.
 		// E.g.: class A implements I, I { ... } is illegal.
@@ -747,21 +826,33 @@ public class TypeChecker extends Visitor {
 		// Update the current class.
 		currentClass = cd;
 		//<--
-		// Check that we don't repeat any interfaces.
-		for (int i=0;i<cd.interfaces().nchildren;i++)
-			for (int j=i+1;j<cd.interfaces().nchildren;j++)
-				if (((ClassType)cd.interfaces().children[i]).name().getname().equals(((ClassType)cd.interfaces().children[j]).name().getname()))
-					Error.error(cd,"Repeated interface '" + ((ClassType)cd.interfaces().children[i]).name() + "'");
+		checkInterfaces(cd);
 
-		super.visitClassDecl(cd);
+		visitMembers(cd);
 		//-->
 
 		return null;
 	}
 
+	public void recoverMember(ClassDecl cd) {
+		currentFieldDecl = null;
+		inFieldInit = false;
+	}
+
+	/**
+	 * Checks that a class does not repeat any interfaces.
+	 * @param cd The class.
+	 */
+	static void checkInterfaces(ClassDecl cd) {
+		for (int i=0;i<cd.interfaces().nchildren;i++)
+			for (int j=i+1;j<cd.interfaces().nchildren;j++)
+				if (((ClassType)cd.interfaces().children[i]).name().getname().equals(((ClassType)cd.interfaces().children[j]).name().getname()))
+					Error.error(cd,"Repeated interface '" + ((ClassType)cd.interfaces().children[i]).name() + "'");
+	}
+
 	/** CONSTRUCTOR DECLARATION */
 	public Object visitConstructorDecl(ConstructorDecl cd) {
-		println(cd.line + ":\tVisiting a ConstructorDecl.");
+		if (debug) println(cd.getLine() + ":\tVisiting a ConstructorDecl.");
 
 		// Update the current context
 		currentContext = cd;
@@ -775,7 +866,7 @@ public class TypeChecker extends Visitor {
 
 	/** DO STATEMENT */
 	public Object visitDoStat(DoStat ds) {
-		println(ds.line + ":\tVisiting a DoStat.");
+		if (debug) println(ds.getLine() + ":\tVisiting a DoStat.");
 
 		//<--
 		// Compute the type of the expression
@@ -795,7 +886,7 @@ public class TypeChecker extends Visitor {
 
 	/** FIELD DECLARATION */
 	public Object visitFieldDecl(FieldDecl fd) {
-		println(fd.line + ":\tVisiting a FieldDecl.");
+		if (debug) println(fd.getLine() + ":\tVisiting a FieldDecl.");
 
 		// Update the current context
 		currentContext = fd;
@@ -817,15 +908,15 @@ public class TypeChecker extends Visitor {
 
 	/** FIELD REFERENCE */
 	public Object visitFieldRef(FieldRef fr) {
-		println(fr.line + ":\tVisiting a FieldRef.");
+		if (debug) println(fr.getLine() + ":\tVisiting a FieldRef.");
 
 		Type targetType = (Type) fr.target().visit(this);
 		String field    = fr.fieldName().getname();
 		// Changed June 22 2012 ARRAY
 		if (fr.fieldName().getname().equals("length")) {
 			if (targetType.isArrayType()) {
-				fr.type = new PrimitiveType(PrimitiveType.IntKind);
-				println(fr.line + ":\tField Reference was a an Array.length reference, and it has type: " + fr.type);
+				fr.type = PrimitiveType.get(PrimitiveType.IntKind);
+				if (debug) println(fr.getLine() + ":\tField Reference was a an Array.length reference, and it has type: " + fr.type);
 				fr.targetType = targetType;
 				return fr.type;
 			}
@@ -836,7 +927,7 @@ public class TypeChecker extends Visitor {
 			ClassDecl cd = c.myDecl;
 			fr.targetType = targetType;
 
-			println(fr.line + ":\tLooking up symbol '" + field + "' in fieldTable of class '" +
+			if (debug) println(fr.getLine() + ":\tLooking up symbol '" + field + "' in fieldTable of class '" +
 					c.typeName() + "'.");
 
 			// Lookup field in the field table of the class associated with the target.
@@ -851,7 +942,7 @@ public class TypeChecker extends Visitor {
 			}
 		} else
 			Error.error(fr,"Attempt to access field '" + field + "' in something not of class type.");
-		println(fr.line + ":\tField Reference has type: " + fr.type);
+		if (debug) println(fr.getLine() + ":\tField Reference has type: " + fr.type);
 
 	/*if (inFieldInit && currentFieldDecl.fieldNumber <= fr.myDecl.fieldNumber && currentClass.name().equals(   (((ClassType)fr.targetType).myDecl).name()))
 	    Error.error(fr,"Illegal forward reference of non-initialized field.");
@@ -861,7 +952,7 @@ public class TypeChecker extends Visitor {
 
 	/** FOR STATEMENT */
 	public Object visitForStat(ForStat fs) {
-		println(fs.line + ":\tVisiting a ForStat.");
+		if (debug) println(fs.getLine() + ":\tVisiting a ForStat.");
 
 		//<--
 		fs.init().visit(this);
@@ -881,7 +972,7 @@ public class TypeChecker extends Visitor {
 
 	/** IF STATEMENT */
 	public Object visitIfStat(IfStat is) {
-		println(is.line + ":\tVisiting an IfStat");
+		if (debug) println(is.getLine() + ":\tVisiting an IfStat");
 
 		//<--
 		Type eType = (Type) is.expr().visit(this);
@@ -899,7 +990,7 @@ public class TypeChecker extends Visitor {
 
 	/** INVOCATION */
 	public Object visitInvocation(Invocation in) {
-		println(in.line + ":\tVisiting an Invocation.");
+		if (debug) println(in.getLine() + ":\tVisiting an Invocation.");
 
 		//<--
 		Type targetType = null;
@@ -910,8 +1001,7 @@ public class TypeChecker extends Visitor {
 		if (in.target() == null) {
 			cd = currentClass;
 			// Dec 6. 2017 - test! ;-)
-			in.targetType = new ClassType(currentClass.className());
-			((ClassType)in.targetType).myDecl = currentClass;
+			in.targetType = currentClass.classType();
 		}
 		else {
 			// obj.method or class.method.
@@ -920,8 +1010,8 @@ public class TypeChecker extends Visitor {
 
 			// 12/06/13 - .length() in String
 			if (in.target() != null && in.targetType.isStringType() && methodName.equals("length") && in.params().nchildren == 0) {
-				in.type = new PrimitiveType(PrimitiveType.IntKind);
-				println(in.line	 + ":\tInvocation has type: " + in.type);
+				in.type = PrimitiveType.get(PrimitiveType.IntKind);
+				if (debug) println(in.getLine()	 + ":\tInvocation has type: " + in.type);
 				in.targetMethod = null;
 				return in.type;
 			}
@@ -930,8 +1020,8 @@ public class TypeChecker extends Visitor {
 				Type t = (Type)in.params().children[0].visit(this);
 				if (!t.isIntegerType())
 					Error.error(in,"method charAt in class String cannot be applied to " + t.typeName() + ".");
-				in.type = new PrimitiveType(PrimitiveType.CharKind);
-				println(in.line	 + ":\tInvocation has type: " + in.type);
+				in.type = PrimitiveType.get(PrimitiveType.CharKind);
+				if (debug) println(in.getLine()	 + ":\tInvocation has type: " + in.type);
 				in.targetMethod = null;
 				return in.type;
 			}
@@ -960,14 +1050,12 @@ public class TypeChecker extends Visitor {
 		}
 
 		// Lookup method in the method table of the class associated with the target.
-		MethodDecl method = (MethodDecl)findMethod(cd.allMethods, methodName, in.params(), true);
+		MethodDecl method = (MethodDecl)findMethod(methodLookup, cd.allMethods, methodName, in.params(), true, debug);
 
 		// Method not found.
 		if (method == null) {
-			System.out.print(Error.fileName + ":\tNo method " + methodName);
-			System.out.println("(" + Type.parseSignature(s) + " ) found. \nCandidates are:");
-			listCandidates(cd, cd.allMethods, methodName);
-			System.exit(1);
+			Error.error(in, "No method " + methodName + "(" + Type.parseSignature(s) + " ) found. \nCandidates are:" +
+				    listCandidates(cd, cd.allMethods, methodName));
 		}
 
 		in.targetMethod = method;
@@ -977,13 +1065,13 @@ public class TypeChecker extends Visitor {
 		in.type = method.returnType();
 		//-->
 
-		println(in.line + ":\tInvocation has type: " + in.type);
+		if (debug) println(in.getLine() + ":\tInvocation has type: " + in.type);
 		return in.type;
 	}
 
 	/** LITERAL */
 	public Object visitLiteral(Literal li) {
-		println(li.line + ":\tVisiting a literal (" + li.getText() + ").");
+		if (debug) println(li.getLine() + ":\tVisiting a literal (" + li.getText() + ").");
 
 		//<--
 		// Remember that the constants in PrimitiveType are defined from the ones
@@ -992,7 +1080,7 @@ public class TypeChecker extends Visitor {
 		if (li.getKind() == Literal.NullKind)
 			li.type = new NullType(li);
 		else {
-			li.type = new PrimitiveType(li.getKind());
+			li.type = PrimitiveType.get(li.getKind());
 		}
 
 	/* This experiment backfired!!!
@@ -1001,33 +1089,33 @@ public class TypeChecker extends Visitor {
 	    // this should alleviate all checks of this kind anywhere else.
 	    // Literal.constantValue will return either a String or a BigDecimal
 	    if (li.getKind() == Literal.BooleanKind)
-		li.type = new PrimitiveType(li.getKind());
+		li.type = PrimitiveType.get(li.getKind());
 	    else if (li.getKind() == Literal.CharKind)
-		li.type = new PrimitiveType(li.getKind());
+		li.type = PrimitiveType.get(li.getKind());
 	    else if (!(li.constantValue() instanceof String)) {
 		if (li.getKind() == Literal.FloatKind || li.getKind() == Literal.DoubleKind)
-		    li.type = new PrimitiveType(li.getKind());
+		    li.type = PrimitiveType.get(li.getKind());
 		else if (Literal.isByteValue(((BigDecimal)li.constantValue()).longValue())) 
-		    li.type = new PrimitiveType(PrimitiveType.ByteKind);
+		    li.type = PrimitiveType.get(PrimitiveType.ByteKind);
 		else if (Literal.isShortValue(((BigDecimal)li.constantValue()).longValue()))
-		    li.type = new PrimitiveType(PrimitiveType.ShortKind);
+		    li.type = PrimitiveType.get(PrimitiveType.ShortKind);
 		else if (Literal.isCharValue(((BigDecimal)li.constantValue()).longValue()))
-		    li.type = new PrimitiveType(PrimitiveType.CharKind);
+		    li.type = PrimitiveType.get(PrimitiveType.CharKind);
 		else
-		    li.type = new PrimitiveType(li.getKind());
+		    li.type = PrimitiveType.get(li.getKind());
 	    } else
-		li.type = new PrimitiveType(li.getKind());
+		li.type = PrimitiveType.get(li.getKind());
 	}
 	*/
 		//-->
 
-		println(li.line + ":\tLiteral has type: " + li.type);
+		if (debug) println(li.getLine() + ":\tLiteral has type: " + li.type);
 		return li.type;
 	}
 
 	/** METHOD DECLARATION */
 	public Object visitMethodDecl(MethodDecl md) {
-		println(md.line + ":\tVisiting a MethodDecl.");
+		if (debug) println(md.getLine() + ":\tVisiting a MethodDecl.");
 		currentContext = md;
 
 		//<--
@@ -1039,7 +1127,7 @@ public class TypeChecker extends Visitor {
 
 	/** NAME EXPRESSION */
 	public Object visitNameExpr(NameExpr ne) {
-		println(ne.line + ":\tVisiting a NameExpr.");
+		if (debug) println(ne.getLine() + ":\tVisiting a NameExpr.");
 
 		//<--
 		if (ne.myDecl instanceof LocalDecl || ne.myDecl instanceof ParamDecl) {
@@ -1049,20 +1137,18 @@ public class TypeChecker extends Visitor {
 			// it wasn't a field - so it must be a class.
 			// if it weren't a class it would have been caught in the
 			// name resolution phase
-			ne.type = new ClassType(ne.name());
-			// or how about just new ClassType(ne.name()) Einstein!!!
-			((ClassType)ne.type).myDecl = (ClassDecl)ne.myDecl;
+			ne.type = ((ClassDecl)ne.myDecl).classType();
 		} else
 			Error.error(ne,"Unknown name expression '" + ne.name().getname() + "'.");
 		//-->
 
-		println(ne.line + ":\tName Expression has type: " + ne.type);
+		if (debug) println(ne.getLine() + ":\tName Expression has type: " + ne.type);
 		return ne.type;
 	}
 
 	/** NEW */
 	public Object visitNew(New ne) {
-		println(ne.line + ":\tVisiting a New.");
+		if (debug) println(ne.getLine() + ":\tVisiting a New.");
 
 		//<--
 		ConstructorDecl constructor;
@@ -1095,26 +1181,25 @@ public class TypeChecker extends Visitor {
 		// findMethod needs a sequence of methods to search, so make
 		// the symboltable entry for <init> into a sequence
 
-		constructor = (ConstructorDecl)findMethod(cd.constructors, cd.name(), ne.args(), false);
+		constructor = (ConstructorDecl)findMethod(methodLookup, cd.constructors, cd.name(), ne.args(), false, debug);
 
 		if (constructor == null) {
-			System.out.println("No constructor " + cd.name() + "(" + Type.parseSignature(s) + " ) found.\nCandidates are:");
-			listCandidates(cd, cd.constructors, cd.name());
-			System.exit(1);
+			Error.error(ne, "No constructor " + cd.name() + "(" + Type.parseSignature(s) + " ) found.\nCandidates are:" +
+				    listCandidates(cd, cd.constructors, cd.name()));
 		}
 
 		ne.setConstructorDecl(constructor);
 		ne.type = ct;
 		//-->
 
-		println(ne.line + ":\tNew has type: " + ne.type);
+		if (debug) println(ne.getLine() + ":\tNew has type: " + ne.type);
 		return ne.type;
 	}
 
 
 	/** RETURN STATEMENT */
 	public Object visitReturnStat(ReturnStat rs) {
-		println(rs.line + ":\tVisiting a ReturnStat.");
+		if (debug) println(rs.getLine() + ":\tVisiting a ReturnStat.");
 		Type returnType;
 
 		if (currentContext instanceof MethodDecl)
@@ -1157,7 +1242,7 @@ public class TypeChecker extends Visitor {
 
 	/** STATIC INITIALIZER */
 	public Object visitStaticInitDecl(StaticInitDecl si) {
-		println(si.line + ":\tVisiting a StaticInitDecl.");
+		if (debug) println(si.getLine() + ":\tVisiting a StaticInitDecl.");
 
 		//<--
 		currentContext = si;
@@ -1169,7 +1254,7 @@ public class TypeChecker extends Visitor {
 
 	/** SUPER */
 	public Object visitSuper(Super su) {
-		println(su.line + ":\tVisiting a Super.");
+		if (debug) println(su.getLine() + ":\tVisiting a Super.");
 
 		//<--
 		// Check that currentClass has a super class, and return it.
@@ -1179,7 +1264,7 @@ public class TypeChecker extends Visitor {
 			Error.error(su, "Class '" + currentClass.name() + "' does not have a superclass.");
 
 		su.type = currentClass.superClass();
-		println(su.line + ":\tSuper has type:" + su.type);
+		if (debug) println(su.getLine() + ":\tSuper has type:" + su.type);
 		//-->
 
 		return su.type;
@@ -1187,7 +1272,7 @@ public class TypeChecker extends Visitor {
 
 	/** SWITCH STATEMENT */
 	public Object visitSwitchStat(SwitchStat ss) {
-		println(ss.line + ":\tVisiting a SwitchStat.");
+		if (debug) println(ss.getLine() + ":\tVisiting a SwitchStat.");
 
 		//<--
 		SwitchGroup sg = null;
@@ -1332,10 +1417,8 @@ public class TypeChecker extends Visitor {
 				if (cd2 == null) {
 					continue;
 				}
-				ClassType ct1 = new ClassType(cd1.className());
-				ct1.myDecl = cd1;
-				ClassType ct2 = new ClassType(cd2.className());
-				ct2.myDecl = cd2;
+				ClassType ct1 = cd1.classType();
+				ClassType ct2 = cd2.classType();
 
 				if (Type.isSuper(ct1, ct2)) {
 					commonHierarchy.set(i, null);
@@ -1352,18 +1435,19 @@ public class TypeChecker extends Visitor {
 		for (ClassDecl s : commonHierarchy) {
 			if (s == null)
 				continue;
-			ClassType ct = new ClassType(s.className());
-			ct.myDecl = s;
+			ClassType ct = s.classType();
 
 			if (s.isInterface())
 				interfaces.append(ct);
 			else
 				superClass = ct;
 		}
-		int intNo = ClassDecl.interSectionTypeCounter++;
+		int intNo = (intersectionTypes == null ? context.interSectionTypeCounter++ : 0);
 		ClassDecl cd = new ClassDecl(new Sequence(new Modifier(Modifier.Public)),
 				new Name(new Token(sym.IDENTIFIER, "INT#"+intNo, 0,0,0)),
 				superClass, interfaces, new Sequence(), ClassDecl.IS_NOT_INTERFACE);
+		if (intersectionTypes != null)
+			intersectionTypes.addElement(cd);
 
 		ClassType ct = new ClassType(cd.className());
 		ct.myDecl = cd;
@@ -1373,7 +1457,7 @@ public class TypeChecker extends Visitor {
 	//-->
 	/** TERNARY EXPRESSION */
 	public Object visitTernary(Ternary te) {
-		println(te.line + ":\tVisiting a Ternary.");
+		if (debug) println(te.getLine() + ":\tVisiting a Ternary.");
 
 		//<--
 		Type eType = (Type)te.expr().visit(this);
@@ -1385,7 +1469,7 @@ public class TypeChecker extends Visitor {
 		if (trueBranchType instanceof PrimitiveType && falseBranchType instanceof PrimitiveType) {
 			if (Type.assignmentCompatible(falseBranchType, trueBranchType) ||
 					Type.assignmentCompatible(trueBranchType, falseBranchType))
-				te.type = new PrimitiveType(PrimitiveType.ceiling((PrimitiveType)trueBranchType, (PrimitiveType)falseBranchType));
+				te.type = PrimitiveType.get(PrimitiveType.ceiling((PrimitiveType)trueBranchType, (PrimitiveType)falseBranchType));
 			else
 				Error.error(te,"Both branches of a ternary expression must be of assignment compatible types.");
 		} else if (trueBranchType.isClassType() && falseBranchType.isClassType()) {
@@ -1397,23 +1481,23 @@ public class TypeChecker extends Visitor {
 		else
 			Error.error(te,"Both branches of a ternary expression must be of assignment compatible types.");
 		//-->
-		println(te.line + ":\tTernary has type: " + te.type);
+		if (debug) println(te.getLine() + ":\tTernary has type: " + te.type);
 		return te.type;
 	}
 
 	/** THIS */
 	public Object visitThis(This th) {
-		println(th.line + ":\tVisiting a This.");
+		if (debug) println(th.getLine() + ":\tVisiting a This.");
 
 		th.type = th.type();
 
-		println(th.line + ":\tThis has type: " + th.type);
+		if (debug) println(th.getLine() + ":\tThis has type: " + th.type);
 		return th.type;
 	}
 
 	/** UNARY POST EXPRESSION */
 	public Object visitUnaryPostExpr(UnaryPostExpr up) {
-		println(up.line + ":\tVisiting a UnaryPostExpr.");
+		if (debug) println(up.getLine() + ":\tVisiting a UnaryPostExpr.");
 		//<--
 		Type eType = null;
 
@@ -1429,13 +1513,13 @@ public class TypeChecker extends Visitor {
 		up.type = eType;
 		//-->
 
-		println(up.line + ":\tUnary Post Expression has type: " + up.type);
+		if (debug) println(up.getLine() + ":\tUnary Post Expression has type: " + up.type);
 		return up.type;
 	}
 
 	/** UNARY PRE EXPRESSION */
 	public Object visitUnaryPreExpr(UnaryPreExpr up) {
-		println(up.line + ":\tVisiting a UnaryPreExpr.");
+		if (debug) println(up.getLine() + ":\tVisiting a UnaryPreExpr.");
 
 		//<--
 		Type eType = (Type) up.expr().visit(this);
@@ -1471,18 +1555,18 @@ public class TypeChecker extends Visitor {
 
 		// Promote operations on byte, short and char to int.
 		if (eType.isByteType() || eType.isShortType() || eType.isCharType())
-			eType = new PrimitiveType(PrimitiveType.IntKind);
+			eType = PrimitiveType.get(PrimitiveType.IntKind);
 
 		up.type = eType;
 		//-->
 
-		println(up.line + ":\tUnary Pre Expression has type: " + up.type);
+		if (debug) println(up.getLine() + ":\tUnary Pre Expression has type: " + up.type);
 		return up.type;
 	}
 
 	/** VAR */
 	public Object visitVar(Var va) {
-		println(va.line + ":\tVisiting a Var.");
+		if (debug) println(va.getLine() + ":\tVisiting a Var.");
 
 		//<--
 		if (va.init() != null) {
@@ -1513,7 +1597,7 @@ public class TypeChecker extends Visitor {
 
 	/** WHILE STATEMENT */
 	public Object visitWhileStat(WhileStat ws) {
-		println(ws.line + ":\tVisiting a WhileStat.");
+		if (debug) println(ws.getLine() + ":\tVisiting a WhileStat.");
 
 		//<--
 		Type eType = (Type) ws.expr().visit(this);
@@ -0,0 +1,12 @@
+package Utilities;
+
+/**
+ * Thrown by {@link Error#terminate()} instead of exiting the JVM when the
+ * compiler runs as a server (see Espressoc -server). The error has already
+ * been reported when this is thrown.
+ */
+public class CompilationAbortedException extends RuntimeException {
+    public CompilationAbortedException() {
+	super("compilation aborted");
+    }
+}
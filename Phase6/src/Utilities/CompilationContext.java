@@ -0,0 +1,108 @@
+package Utilities;
+
+import AST.*;
+import java.util.*;
+
+/**
+ * The state of a compiler run: the settings, the parse tree and class
+ * table of the file being compiled, the cache of parsed import files, the
+ * diagnostics and the statistics. Nothing of this is static, so several
+ * compilations can run at the same time in one JVM, each with its own
+ * context.
+ *
+ * The context is handed to the scanner, the parser, the phases and the
+ * visitors that need it. {@link Error} is called from everywhere in the
+ * compiler, so it uses the context of the current thread instead (see
+ * {@link #current()}); whoever runs a compilation on a thread must set it
+ * with {@link #setCurrent}.
+ *
+ * A context can be used for one file after another (a batch, or the
+ * requests of the compile server), but only by one compilation at a time.
+ */
+public class CompilationContext {
+
+    /** The settings of this run. */
+    public Settings settings = new Settings();
+
+    /** The statistics of this run (see -Tstats). */
+    public Statistics statistics = new Statistics();
+
+    /** The phase the compiler was invoked to run. */
+    public int phase;
+
+    /** The root of the parse tree. This is set if phase 1 succeeds. */
+    public AST root;
+
+    /** The global class table. */
+    public SymbolTable classTable = new SymbolTable();
+
+    /** Used for naming the intersection types made by the type checker. */
+    public int interSectionTypeCounter = 1;
+
+    // ----- incremental compilation (see -incremental) -----
+
+    /** The dependency graph of the file being compiled, or null. */
+    public DependencyGraph dependencies = null;
+
+    /**
+     * The classes of the file being compiled whose output is up to date,
+     * so they need not be checked or generated again.
+     */
+    public HashSet<ClassDecl> upToDate = new HashSet<ClassDecl>();
+
+    // ----- imports -----
+
+    /** The import files included in the current compilation. */
+    public HashSet<String> imports = new HashSet<String>();
+
+    /** The classes included in the current compilation through imports. */
+    public HashSet<ClassDecl> importedClasses = new HashSet<ClassDecl>();
+
+    /**
+     * All classes (including those of nested imports) of each import file
+     * parsed so far. This is kept between the files of a batch, so each
+     * import file is only parsed once.
+     */
+    public Hashtable<String, Sequence> parsedImports = new Hashtable<String, Sequence>();
+
+    /**
+     * Imported classes (and the class 'Object') that have already been
+     * through the phases in an earlier compilation of a batch.
+     */
+    public HashSet<ClassDecl> checkedImports = new HashSet<ClassDecl>();
+
+    /** The shared superclass 'Object' (see {@link Phases.Phase2}). */
+    public ClassDecl objectsDecl = null;
+
+    /** The settings the cached imports were parsed and checked with. */
+    public String importCacheKey = "";
+
+    // ----- diagnostics (see Error) -----
+
+    String fileName = "";
+    String trimmedFileName = "";
+    Vector<Diagnostic> diagnostics = new Vector<Diagnostic>();
+    int errors = 0;   // the number of diagnostics that are errors
+    int printed = 0;  // the number of diagnostics printed so far
+    int recovery = 0; // > 0 inside a recovery point
+
+    private static final ThreadLocal<CompilationContext> current = new ThreadLocal<CompilationContext>() {
+	protected CompilationContext initialValue() {
+	    return new CompilationContext();
+	}
+    };
+
+    /**
+     * Returns the context of the compilation running on this thread.
+     */
+    public static CompilationContext current() {
+	return current.get();
+    }
+
+    /**
+     * Sets the context of the compilation running on this thread.
+     */
+    public static void setCurrent(CompilationContext context) {
+	current.set(context);
+    }
+}
@@ -0,0 +1,302 @@
+package Utilities;
+
+import AST.*;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+
+/**
+ * The dependency graph used for incremental compilation (turned on by
+ * -incremental). For each class of a file that code is generated for it
+ * records a hash of the source of the class and the classes it depends
+ * on: the classes it names, the classes of the methods it calls and the
+ * fields it uses, and all their superclasses and interfaces. Each
+ * dependency is recorded with a hash of its header (modifiers,
+ * supertypes, fields and the signatures of its methods and
+ * constructors).
+ *
+ * The graph of a file is kept in .espresso-deps/&lt;file&gt;.deps in the
+ * output directory. When the file is compiled again, a class whose
+ * source and dependency headers have not changed, and whose output file
+ * is still there, is up to date: it is not name checked (except for its
+ * header), type checked, modifier checked or generated again, and its
+ * output file is left as it is.
+ */
+public class DependencyGraph {
+
+    /** The version of the file format; bump it when the format changes. */
+    public static final int FORMAT = 1;
+
+    /** The directory (in the output directory) the graphs are kept in. */
+    public static final String DIRECTORY = ".espresso-deps";
+
+    private CompilationContext context;
+    private File file;        // the file the graph is kept in
+    private String key;       // the settings the output depends on
+    private List<String> lines; // the source of the compiled file
+
+    // the graph of the previous compilation
+    private HashMap<String, String> oldSources = new HashMap<String, String>();
+    private HashMap<String, HashMap<String, String>> oldDependencies = new HashMap<String, HashMap<String, String>>();
+
+    // the graph of this compilation
+    private HashMap<String, String> sources = new HashMap<String, String>();
+    private HashMap<String, String> headers = new HashMap<String, String>();
+    private TreeMap<String, TreeSet<String>> dependencies = new TreeMap<String, TreeSet<String>>();
+
+    /**
+     * Loads the graph of a file from its previous compilation (if any).
+     * @param context The context the file is compiled in.
+     * @param fileName The name of the file.
+     */
+    public DependencyGraph(CompilationContext context, String fileName) throws IOException {
+	this.context = context;
+	Settings settings = context.settings;
+	file = new File(DIRECTORY, new File(fileName).getName() + ".deps");
+	key = context.phase + " " + settings.fileExt + " " + settings.generateEVMCode + " " +
+	    settings.writeCommentsInJasminFile + " " + settings.writeClassFiles;
+	lines = Files.readAllLines(new File(fileName).toPath(), java.nio.charset.Charset.defaultCharset());
+	if (file.isFile())
+	    load();
+    }
+
+    // load: reads the previous graph. A graph written with other settings
+    //       (or by another version of the compiler) is ignored.
+    private void load() throws IOException {
+	BufferedReader in = new BufferedReader(new FileReader(file));
+	try {
+	    if (!("espresso-deps " + FORMAT + " " + Version.getVersion()).equals(in.readLine()) ||
+		!("key " + key).equals(in.readLine()))
+		return;
+	    HashMap<String, String> deps = null;
+	    String line;
+	    while ((line = in.readLine()) != null) {
+		String parts[] = line.split(" ");
+		if (parts.length != 3)
+		    return;
+		if (parts[0].equals("class")) {
+		    oldSources.put(parts[1], parts[2]);
+		    deps = new HashMap<String, String>();
+		    oldDependencies.put(parts[1], deps);
+		} else if (parts[0].equals("dep") && deps != null)
+		    deps.put(parts[1], parts[2]);
+		else {
+		    // not a graph we wrote; start over
+		    oldSources.clear();
+		    oldDependencies.clear();
+		    return;
+		}
+	    }
+	} finally {
+	    in.close();
+	}
+    }
+
+    /**
+     * Finds the classes of the compiled file that are up to date and adds
+     * them to context.upToDate. Must be called when the class table is
+     * complete and the superclasses are known, that is, after
+     * ClassAndMemberFinder and MyDeclSet have been run.
+     */
+    public void findUpToDate() {
+	for (Object o : context.classTable.entries.values()) {
+	    ClassDecl cd = (ClassDecl)o;
+	    headers.put(cd.name(), header(cd));
+	}
+
+	// each class owns the lines from its first line up to the first line
+	// of the next class; the last one owns the rest of the file.
+	Vector<ClassDecl> classes = new Vector<ClassDecl>();
+	Sequence types = ((Compilation)context.root).types();
+	for (int i=0; i<types.nchildren; i++) {
+	    ClassDecl cd = (ClassDecl)types.children[i];
+	    if (cd.generateCode())
+		classes.addElement(cd);
+	}
+	Collections.sort(classes, new Comparator<ClassDecl>() {
+	    public int compare(ClassDecl cd1, ClassDecl cd2) {
+		return firstLine(cd1) - firstLine(cd2);
+	    }
+	});
+	for (int i=0; i<classes.size(); i++) {
+	    ClassDecl cd = classes.elementAt(i);
+	    int from = firstLine(cd);
+	    int to = (i+1 < classes.size() ? firstLine(classes.elementAt(i+1)) - 1 : lines.size());
+	    StringBuilder sb = new StringBuilder();
+	    // the line numbers end up in the comments of the jasmin files
+	    sb.append(from).append('\n');
+	    for (int j=Math.max(from, 1); j<=to && j<=lines.size(); j++)
+		sb.append(lines.get(j-1)).append('\n');
+	    String hash = HeaderCache.hash(sb.toString().getBytes());
+	    sources.put(cd.name(), hash);
+	    if (isUpToDate(cd, hash)) {
+		context.upToDate.add(cd);
+		dependencies.put(cd.name(), new TreeSet<String>(oldDependencies.get(cd.name()).keySet()));
+	    }
+	}
+    }
+
+    // isUpToDate: true if the source and the headers of the dependencies
+    //             of the class are the same as last time and its output
+    //             file is still there.
+    private boolean isUpToDate(ClassDecl cd, String hash) {
+	if (!hash.equals(oldSources.get(cd.name())))
+	    return false;
+	Settings settings = context.settings;
+	if (!new File(cd.name() + (settings.writeClassFiles ? ".class" : settings.fileExt)).isFile())
+	    return false;
+	for (Map.Entry<String, String> e : oldDependencies.get(cd.name()).entrySet())
+	    if (!e.getValue().equals(headers.get(e.getKey())))
+		return false;
+	return true;
+    }
+
+    // firstLine: the line of the first token of a class declaration that
+    //            has a position (modifiers added by the parser have none).
+    private static int firstLine(ClassDecl cd) {
+	int line = cd.getLine();
+	Sequence modifiers = cd.modifiers();
+	for (int i=0; i<modifiers.nchildren; i++)
+	    if (modifiers.children[i].getLine() > 0 && modifiers.children[i].getLine() < line)
+		line = modifiers.children[i].getLine();
+	return line;
+    }
+
+    /**
+     * Records the dependencies of the classes that are not up to date.
+     * Must be called after the type checker has been run.
+     */
+    public void recordChanged() {
+	Sequence types = ((Compilation)context.root).types();
+	for (int i=0; i<types.nchildren; i++) {
+	    ClassDecl cd = (ClassDecl)types.children[i];
+	    if (!cd.generateCode() || context.upToDate.contains(cd))
+		continue;
+	    HashSet<ClassDecl> used = new HashSet<ClassDecl>();
+	    findUses(cd, used);
+	    TreeSet<String> deps = new TreeSet<String>();
+	    HashSet<ClassDecl> seen = new HashSet<ClassDecl>();
+	    for (ClassDecl d : used)
+		addWithSupertypes(d, deps, seen);
+	    deps.remove(cd.name());
+	    dependencies.put(cd.name(), deps);
+	}
+    }
+
+    // findUses: collects the classes used in a parse tree.
+    private static void findUses(AST a, HashSet<ClassDecl> used) {
+	if (a == null)
+	    return;
+	if (a instanceof ClassType)
+	    add(((ClassType)a).myDecl, used);
+	if (a instanceof Expression)
+	    add(((Expression)a).type, used);
+	if (a instanceof Invocation) {
+	    Invocation in = (Invocation)a;
+	    add(in.targetType, used);
+	    if (in.targetMethod != null)
+		add(in.targetMethod.getMyClass(), used);
+	}
+	if (a instanceof FieldRef)
+	    add(((FieldRef)a).targetType, used);
+	if (a instanceof CInvocation)
+	    add(((CInvocation)a).targetClass, used);
+	if (a instanceof NameExpr && ((NameExpr)a).myDecl instanceof ClassDecl)
+	    add((ClassDecl)((NameExpr)a).myDecl, used);
+	for (int i=0; i<a.nchildren; i++)
+	    findUses(a.children[i], used);
+    }
+
+    private static void add(Type t, HashSet<ClassDecl> used) {
+	if (t instanceof ArrayType)
+	    t = ((ArrayType)t).baseType();
+	if (t instanceof ClassType)
+	    add(((ClassType)t).myDecl, used);
+    }
+
+    private static void add(ClassDecl cd, HashSet<ClassDecl> used) {
+	if (cd != null)
+	    used.add(cd);
+    }
+
+    // addWithSupertypes: adds the names of a class and all its supertypes
+    //                    that are in the class table. Intersection types
+    //                    are not, but their supertypes are.
+    private void addWithSupertypes(ClassDecl cd, TreeSet<String> deps, HashSet<ClassDecl> seen) {
+	if (cd == null || !seen.add(cd))
+	    return;
+	if (headers.containsKey(cd.name()))
+	    deps.add(cd.name());
+	if (cd.superClass() != null)
+	    addWithSupertypes(cd.superClass().myDecl, deps, seen);
+	for (int i=0; i<cd.interfaces().nchildren; i++)
+	    addWithSupertypes(((ClassType)cd.interfaces().children[i]).myDecl, deps, seen);
+    }
+
+    /**
+     * Returns a hash of the header of a class: everything other classes
+     * can see of it.
+     */
+    public static String header(ClassDecl cd) {
+	StringBuilder sb = new StringBuilder();
+	sb.append(cd.getModifiers()).append(cd.isInterface() ? "interface " : "class ").append(cd.name());
+	if (cd.superClass() != null)
+	    sb.append(" extends ").append(cd.superClass().typeName());
+	for (int i=0; i<cd.interfaces().nchildren; i++)
+	    sb.append(i == 0 ? " implements " : ", ").append(((ClassType)cd.interfaces().children[i]).typeName());
+	sb.append('\n');
+	Sequence body = cd.body();
+	for (int i=0; i<body.nchildren; i++) {
+	    if (body.children[i] instanceof FieldDecl) {
+		FieldDecl fd = (FieldDecl)body.children[i];
+		sb.append(fd.getModifiers()).append(fd.type().signature()).append(' ').append(fd.name());
+		// constant values may be used by other classes
+		if (fd.getModifiers().isFinal() && fd.var().init() instanceof Literal)
+		    sb.append(" = ").append(((Literal)fd.var().init()).getText());
+	    } else if (body.children[i] instanceof MethodDecl) {
+		MethodDecl md = (MethodDecl)body.children[i];
+		sb.append(md.getModifiers()).append(md.getname()).append('(').append(md.paramSignature()).append(')');
+		sb.append(md.returnType().signature());
+	    } else if (body.children[i] instanceof ConstructorDecl) {
+		ConstructorDecl cod = (ConstructorDecl)body.children[i];
+		sb.append(cod.getModifiers()).append("<init>(").append(cod.paramSignature()).append(')');
+	    } else
+		continue;
+	    sb.append('\n');
+	}
+	return HeaderCache.hash(sb.toString().getBytes());
+    }
+
+    /**
+     * Writes the graph of this compilation. Must only be called when all
+     * the output files have been written.
+     */
+    public void save() {
+	File tmp = null;
+	try {
+	    File dir = file.getParentFile();
+	    if (!dir.isDirectory() && !dir.mkdirs())
+		return;
+	    tmp = File.createTempFile(file.getName() + ".", ".tmp", dir);
+	    PrintWriter out = new PrintWriter(new BufferedWriter(new FileWriter(tmp)));
+	    out.println("espresso-deps " + FORMAT + " " + Version.getVersion());
+	    out.println("key " + key);
+	    for (Map.Entry<String, TreeSet<String>> e : dependencies.entrySet()) {
+		out.println("class " + e.getKey() + " " + sources.get(e.getKey()));
+		for (String d : e.getValue())
+		    out.println("dep " + d + " " + headers.get(d));
+	    }
+	    out.close();
+	    if (out.checkError())
+		return;
+	    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+	    tmp = null;
+	} catch (IOException e) {
+	    // the next compilation will just be a full one
+	} finally {
+	    if (tmp != null)
+		tmp.delete();
+	}
+    }
+}
@@ -0,0 +1,34 @@
+package Utilities;
+
+/**
+ * An error or warning found during a compilation. The diagnostics of a
+ * compilation are collected by {@link Error}.
+ */
+public class Diagnostic {
+    public static final int ERROR   = 0;
+    public static final int WARNING = 1;
+
+    /** ERROR or WARNING. */
+    public final int kind;
+    /** The file the diagnostic is about (without directories). */
+    public final String fileName;
+    /** The line number, or -1 if the diagnostic has no position. */
+    public final int line;
+    /** The message; it may span several lines. */
+    public final String message;
+
+    public Diagnostic(int kind, String fileName, int line, String message) {
+	this.kind = kind;
+	this.fileName = fileName;
+	this.line = line;
+	this.message = message;
+    }
+
+    public boolean isError() {
+	return kind == ERROR;
+    }
+
+    public String toString() {
+	return fileName + (line < 0 ? "" : ":" + line) + ": " + (kind == WARNING ? "warning: " : "") + message;
+    }
+}
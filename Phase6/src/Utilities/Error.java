@@ -1,26 +1,183 @@
 package Utilities;
 
 import AST.*;
+import java.util.Vector;
 
 /** 
  * Class with static methods for producing and displaying error messages.
+ *
+ * Errors and warnings are collected as {@link Diagnostic}s and printed at
+ * the end of each phase (see {@link #endPhase()}). Inside a recovery point
+ * an error only stops the checking of the current class, so all the
+ * classes of a file are checked before the compilation stops.
  */
 public class Error {
 
     /**
-     * The name of the file being compiled.
+     * If false, {@link #terminate()} throws a {@link CompilationAbortedException}
+     * rather than exiting, so a compile server can carry on with the next request.
      */
-    public static String fileName = "";
-    public static String trimmedFileName = "";
+    public static boolean exitOnError = true;
+
+    /**
+     * If false, the diagnostics are only collected; they can be had from
+     * {@link #getDiagnostics()}.
+     */
+    public static boolean printDiagnostics = true;
+
+    /**
+     * Stops the current compilation after an error has been reported.
+     */
+    public static void terminate() {
+	report();
+	if (exitOnError)
+	    System.exit(1);
+	throw new CompilationAbortedException();
+    }
+
+    /**
+     * Marks the start of a recovery point: until {@link #leaveRecovery()}
+     * an error does not stop the compilation but throws a 
+     * {@link RecoveryException}, which the recovery point catches before
+     * carrying on with the next member or class.
+     */
+    public static void enterRecovery() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    c.recovery++;
+	}
+    }
+
+    /**
+     * Marks the end of a recovery point.
+     */
+    public static void leaveRecovery() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    c.recovery--;
+	}
+    }
+
+    /**
+     * Called at the end of a phase: prints the diagnostics found in the
+     * phase and terminates if any of them are errors.
+     */
+    public static void endPhase() {
+	report();
+	if (errorCount() > 0)
+	    terminate();
+    }
+
+    /**
+     * Prints the diagnostics that have not been printed yet.
+     */
+    public static void report() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    for (; c.printed < c.diagnostics.size(); c.printed++)
+		if (printDiagnostics)
+		    System.out.println(c.diagnostics.elementAt(c.printed));
+	}
+    }
+
+    /**
+     * Returns the diagnostics of the current compilation.
+     */
+    public static Vector<Diagnostic> getDiagnostics() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    return new Vector<Diagnostic>(c.diagnostics);
+	}
+    }
+
+    /**
+     * Returns the number of errors in the current compilation.
+     */
+    public static int errorCount() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    return c.errors;
+	}
+    }
+
+    /**
+     * Returns the number of diagnostics reported so far.
+     */
+    public static int diagnosticCount() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    return c.diagnostics.size();
+	}
+    }
+
+    /**
+     * Forgets the diagnostics (not printed yet) reported after the first
+     * count ones; used when work is thrown away to be done again.
+     * @param count The number of diagnostics to keep.
+     */
+    public static void discardDiagnostics(int count) {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    while (c.diagnostics.size() > count) {
+		if (c.diagnostics.lastElement().isError())
+		    c.errors--;
+		c.diagnostics.removeElementAt(c.diagnostics.size() - 1);
+	    }
+	    c.printed = Math.min(c.printed, count);
+	}
+    }
+
+    /**
+     * Forgets the diagnostics before a new compilation.
+     */
+    public static void clearDiagnostics() {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    c.diagnostics.clear();
+	    c.errors = 0;
+	    c.printed = 0;
+	    c.recovery = 0;
+	}
+    }
+
+    private static void add(int kind, int line, String msg) {
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    c.diagnostics.addElement(new Diagnostic(kind, c.trimmedFileName, line, msg));
+	    if (kind == Diagnostic.ERROR)
+		c.errors++;
+	}
+    }
+
+    // stop: leaves the current class if in a recovery point, otherwise
+    //       terminates.
+    private static void stop() {
+	boolean recovering;
+	CompilationContext c = CompilationContext.current();
+	synchronized (c) {
+	    recovering = c.recovery > 0;
+	}
+	if (recovering)
+	    throw new RecoveryException();
+	terminate();
+    }
     
     /**
-     * Sets the fileName field.
+     * Sets the name of the file being compiled.
      * @param name The name of the file being compiled.
      */
     public static void setFileName(String name) {
-	fileName = name;
-	int index = fileName.lastIndexOf("/");
-	trimmedFileName = fileName.substring(index + 1);       
+	CompilationContext c = CompilationContext.current();
+	c.fileName = name;
+	int index = name.lastIndexOf("/");
+	c.trimmedFileName = name.substring(index + 1);       
+    }
+
+    /**
+     * Returns the name of the file being compiled.
+     */
+    public static String getFileName() {
+	return CompilationContext.current().fileName;
     }
 
     /**
@@ -29,8 +186,18 @@ public class Error {
      * @param msg The message to be printed.
      */
     public static void error(AST e, String msg) {
-	System.out.println(trimmedFileName + ":" + e.line + ": " + msg);
-	System.exit(1);
+	add(Diagnostic.ERROR, e.getLine(), msg);
+	stop();
+    }   
+
+    /**
+     * Produces an error message with a line number and terminates.
+     * @param line The line of the error.
+     * @param msg The message to be printed.
+     */
+    public static void error(int line, String msg) {
+	add(Diagnostic.ERROR, line, msg);
+	stop();
     }   
 
      /**
@@ -38,8 +205,8 @@ public class Error {
      * @param msg The message to be printed.
      */
     public static void error(String msg) {
-	System.out.println(trimmedFileName + ": " + msg);
-	System.exit(1);
+	add(Diagnostic.ERROR, -1, msg);
+	stop();
     }
     
      /**
@@ -49,9 +216,9 @@ public class Error {
      * @param terminate determines if the compiler should terminate.
      */
     public static void error(AST e, String msg, boolean terminate) {
-	System.out.println(trimmedFileName + ":" + e.line + ": " + msg);
+	add(Diagnostic.ERROR, e.getLine(), msg);
 	if (terminate)
-	    System.exit(1);
+	    stop();
     }   
 
     /**
@@ -60,8 +227,16 @@ public class Error {
      * @param terminate determines if the compiler should terminate.
      */
     public static void error(String msg, boolean terminate) {
-	System.out.println(trimmedFileName + ": " + msg);
+	add(Diagnostic.ERROR, -1, msg);
 	if (terminate)
-	    System.exit(1);
+	    stop();
+    }
+
+    /**
+     * Produces a warning; the compilation carries on.
+     * @param msg The message to be printed.
+     */
+    public static void warning(String msg) {
+	add(Diagnostic.WARNING, -1, msg);
     }
 }
@@ -0,0 +1,366 @@
+package Utilities;
+
+import AST.*;
+import Parser.sym;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * A cache of precompiled headers for the import files in the include
+ * directory. A header holds the classes declared in an import file with
+ * their modifiers, superclass, interfaces, fields and the signatures of
+ * their methods and constructors (but no bodies), and the names of the
+ * files the import file imports itself. The classes of an import file are
+ * never compiled, only used for checking the classes that import them, so
+ * this is all the compiler needs of them.
+ *
+ * A header is stored in a binary file &lt;name&gt;.esh in the cache directory
+ * together with the SHA-1 hash of the source it was made from, and is only
+ * used if the source still has that hash and the header was written by the
+ * same version of the compiler. Import files with field initializers or
+ * static initializers are not cached.
+ */
+public class HeaderCache {
+
+    /** The version of the header format; bump it when the format changes. */
+    public static final int FORMAT = 1;
+
+    private static final int MAGIC = 0x45535048; // "ESPH"
+
+    // tags of the members and types in a header
+    private static final int FIELD       = 1;
+    private static final int METHOD      = 2;
+    private static final int CONSTRUCTOR = 3;
+    private static final int PRIMITIVE   = 1;
+    private static final int CLASS       = 2;
+    private static final int ARRAY       = 3;
+
+    /**
+     * The contents of a header: the classes declared in the import file
+     * and the names of the files it imports (in the order they are
+     * imported).
+     */
+    public static class Header {
+	public Sequence classes;
+	public Vector<String> imports;
+
+	public Header(Sequence classes, Vector<String> imports) {
+	    this.classes = classes;
+	    this.imports = imports;
+	}
+    }
+
+    /**
+     * Returns the cache directory of the given settings, or null if the
+     * cache is turned off.
+     */
+    public static File directory(Settings settings) {
+	if (!settings.useHeaderCache)
+	    return null;
+	if (settings.headerCacheDir != null)
+	    return new File(settings.headerCacheDir);
+	return new File(settings.includeDir, ".headers");
+    }
+
+    /**
+     * Returns the SHA-1 hash of the source of an import file as a string.
+     */
+    public static String hash(byte source[]) {
+	try {
+	    byte digest[] = MessageDigest.getInstance("SHA-1").digest(source);
+	    StringBuilder sb = new StringBuilder();
+	    for (byte b : digest)
+		sb.append(String.format("%02x", b & 0xff));
+	    return sb.toString();
+	} catch (NoSuchAlgorithmException e) {
+	    throw new RuntimeException(e);
+	}
+    }
+
+    /**
+     * Reads the header of an import file.
+     * @param dir The cache directory.
+     * @param name The name of the import file (without .java).
+     * @param hash The hash of the current source of the import file.
+     * @return The header, or null if there is no usable header.
+     */
+    public static Header read(File dir, String name, String hash) {
+	File file = new File(dir, name + ".esh");
+	if (!file.isFile())
+	    return null;
+	try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+	    if (in.readInt() != MAGIC || in.readInt() != FORMAT ||
+		!in.readUTF().equals(Version.getVersion()) || !in.readUTF().equals(hash))
+		return null;
+	    Vector<String> imports = new Vector<String>();
+	    for (int i = in.readInt(); i > 0; i--)
+		imports.add(in.readUTF());
+	    Sequence classes = new Sequence();
+	    for (int i = in.readInt(); i > 0; i--)
+		classes.append(readClass(in));
+	    return new Header(classes, imports);
+	} catch (IOException e) {
+	    // an unreadable or truncated header is treated as a miss
+	    return null;
+	} catch (RuntimeException e) {
+	    return null;
+	}
+    }
+
+    /**
+     * Writes the header of an import file. Nothing is written if the
+     * classes cannot be summarized or the cache directory cannot be
+     * written to; the file will then simply be parsed the next time.
+     * @param dir The cache directory.
+     * @param name The name of the import file (without .java).
+     * @param hash The hash of the source of the import file.
+     * @param header The classes declared in the file and its imports.
+     */
+    public static void write(File dir, String name, String hash, Header header) {
+	for (int i=0; i<header.classes.nchildren; i++)
+	    if (!summarizable((ClassDecl)header.classes.children[i]))
+		return;
+	File tmp = null;
+	try {
+	    if (!dir.isDirectory() && !dir.mkdirs())
+		return;
+	    // write to a temporary file first, so a concurrent compilation
+	    // never sees half a header.
+	    tmp = File.createTempFile(name + ".esh.", ".tmp", dir);
+	    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+		out.writeInt(MAGIC);
+		out.writeInt(FORMAT);
+		out.writeUTF(Version.getVersion());
+		out.writeUTF(hash);
+		out.writeInt(header.imports.size());
+		for (String s : header.imports)
+		    out.writeUTF(s);
+		out.writeInt(header.classes.nchildren);
+		for (int i=0; i<header.classes.nchildren; i++)
+		    writeClass(out, (ClassDecl)header.classes.children[i]);
+	    }
+	    Files.move(tmp.toPath(), new File(dir, name + ".esh").toPath(), StandardCopyOption.REPLACE_EXISTING);
+	    tmp = null;
+	} catch (IOException e) {
+	    // the cache is an optimization only
+	} finally {
+	    if (tmp != null)
+		tmp.delete();
+	}
+    }
+
+    // summarizable: true if nothing but the bodies of the methods and
+    // constructors of the class are lost in its header.
+    private static boolean summarizable(ClassDecl cd) {
+	Sequence body = cd.body();
+	for (int i=0; i<body.nchildren; i++) {
+	    AST member = body.children[i];
+	    if (member instanceof FieldDecl) {
+		if (((FieldDecl)member).var().init() != null)
+		    return false;
+	    } else if (!(member instanceof MethodDecl) && !(member instanceof ConstructorDecl))
+		return false;
+	}
+	return true;
+    }
+
+    // ----- writing -----
+
+    private static void writePosition(DataOutputStream out, AST a) throws IOException {
+	out.writeInt(a.getLine());
+	out.writeInt(a.getCharBegin());
+    }
+
+    private static void writeName(DataOutputStream out, Name n) throws IOException {
+	writePosition(out, n);
+	out.writeUTF(n.getname());
+    }
+
+    private static void writeModifiers(DataOutputStream out, Sequence modifiers) throws IOException {
+	out.writeInt(modifiers.nchildren);
+	for (int i=0; i<modifiers.nchildren; i++) {
+	    writePosition(out, modifiers.children[i]);
+	    out.writeInt(((Modifier)modifiers.children[i]).getModifier());
+	}
+    }
+
+    private static void writeType(DataOutputStream out, Type t) throws IOException {
+	if (t instanceof PrimitiveType) {
+	    out.writeInt(PRIMITIVE);
+	    writePosition(out, t);
+	    out.writeInt(((PrimitiveType)t).getKind());
+	} else if (t instanceof ClassType) {
+	    out.writeInt(CLASS);
+	    writeName(out, ((ClassType)t).name());
+	} else {
+	    ArrayType at = (ArrayType)t;
+	    out.writeInt(ARRAY);
+	    writePosition(out, at);
+	    out.writeInt(at.getDepth());
+	    writeType(out, at.baseType());
+	}
+    }
+
+    private static void writeParams(DataOutputStream out, Sequence params) throws IOException {
+	out.writeInt(params.nchildren);
+	for (int i=0; i<params.nchildren; i++) {
+	    ParamDecl pd = (ParamDecl)params.children[i];
+	    writeType(out, pd.type());
+	    writeName(out, pd.paramName());
+	}
+    }
+
+    private static void writeClass(DataOutputStream out, ClassDecl cd) throws IOException {
+	writeModifiers(out, cd.modifiers());
+	writeName(out, cd.className());
+	out.writeBoolean(cd.isInterface());
+	out.writeBoolean(cd.superClass() != null);
+	if (cd.superClass() != null)
+	    writeType(out, cd.superClass());
+	out.writeInt(cd.interfaces().nchildren);
+	for (int i=0; i<cd.interfaces().nchildren; i++)
+	    writeType(out, (ClassType)cd.interfaces().children[i]);
+	Sequence body = cd.body();
+	out.writeInt(body.nchildren);
+	for (int i=0; i<body.nchildren; i++) {
+	    AST member = body.children[i];
+	    if (member instanceof FieldDecl) {
+		FieldDecl fd = (FieldDecl)member;
+		out.writeInt(FIELD);
+		writeModifiers(out, fd.modifiers());
+		writeType(out, fd.type());
+		writeName(out, fd.var().name());
+		out.writeBoolean(fd.interfaceMember);
+	    } else if (member instanceof MethodDecl) {
+		MethodDecl md = (MethodDecl)member;
+		out.writeInt(METHOD);
+		writeModifiers(out, md.modifiers());
+		writeType(out, md.returnType());
+		writeName(out, md.name());
+		writeParams(out, md.params());
+		out.writeBoolean(md.block() != null);
+		if (md.block() != null)
+		    writePosition(out, md.block());
+		out.writeBoolean(md.isInterfaceMember());
+	    } else {
+		ConstructorDecl cd2 = (ConstructorDecl)member;
+		out.writeInt(CONSTRUCTOR);
+		writeModifiers(out, cd2.modifiers());
+		writeName(out, cd2.name());
+		writeParams(out, cd2.params());
+	    }
+	}
+    }
+
+    // ----- reading -----
+
+    private static <T extends AST> T readPosition(DataInputStream in, T a) throws IOException {
+	int line = in.readInt();
+	a.setPosition(line, in.readInt());
+	return a;
+    }
+
+    private static Name readName(DataInputStream in) throws IOException {
+	int line = in.readInt();
+	int charBegin = in.readInt();
+	String id = in.readUTF();
+	return new Name(new Token(sym.IDENTIFIER, id, line, charBegin, charBegin + id.length() - 1));
+    }
+
+    private static Sequence readModifiers(DataInputStream in) throws IOException {
+	Sequence modifiers = new Sequence();
+	for (int i = in.readInt(); i > 0; i--) {
+	    int line = in.readInt();
+	    int charBegin = in.readInt();
+	    Modifier m = new Modifier(in.readInt());
+	    m.setPosition(line, charBegin);
+	    modifiers.append(m);
+	}
+	return modifiers;
+    }
+
+    private static Type readType(DataInputStream in) throws IOException {
+	switch (in.readInt()) {
+	case PRIMITIVE: {
+	    int line = in.readInt();
+	    int charBegin = in.readInt();
+	    PrimitiveType pt = new PrimitiveType(in.readInt());
+	    pt.setPosition(line, charBegin);
+	    return pt;
+	}
+	case CLASS:
+	    return new ClassType(readName(in));
+	case ARRAY: {
+	    int line = in.readInt();
+	    int charBegin = in.readInt();
+	    int depth = in.readInt();
+	    ArrayType at = new ArrayType(readType(in), depth);
+	    at.setPosition(line, charBegin);
+	    return at;
+	}
+	default:
+	    throw new IOException("bad type tag");
+	}
+    }
+
+    private static Sequence readParams(DataInputStream in) throws IOException {
+	Sequence params = new Sequence();
+	for (int i = in.readInt(); i > 0; i--) {
+	    Type t = readType(in);
+	    params.append(new ParamDecl(t, readName(in)));
+	}
+	return params;
+    }
+
+    private static ClassDecl readClass(DataInputStream in) throws IOException {
+	Sequence modifiers = readModifiers(in);
+	Name name = readName(in);
+	boolean isInterface = in.readBoolean();
+	ClassType superClass = in.readBoolean() ? (ClassType)readType(in) : null;
+	Sequence interfaces = new Sequence();
+	for (int i = in.readInt(); i > 0; i--)
+	    interfaces.append(readType(in));
+	Sequence body = new Sequence();
+	for (int i = in.readInt(); i > 0; i--) {
+	    switch (in.readInt()) {
+	    case FIELD: {
+		Sequence m = readModifiers(in);
+		Type t = readType(in);
+		FieldDecl fd = new FieldDecl(m, t, new Var(readName(in)), false);
+		if (in.readBoolean()) {
+		    // as done for the constant declarations by the parser
+		    fd.interfaceMember = true;
+		    if (!fd.modifiers.isFinal())
+			fd.modifiers.set(false, false, new Modifier(Modifier.Final));
+		    if (!fd.modifiers.isStatic())
+			fd.modifiers.set(false, false, new Modifier(Modifier.Static));
+		}
+		body.append(fd);
+		break;
+	    }
+	    case METHOD: {
+		Sequence m = readModifiers(in);
+		Type t = readType(in);
+		Name n = readName(in);
+		Sequence params = readParams(in);
+		Block block = in.readBoolean() ? readPosition(in, new Block(new Sequence())) : null;
+		body.append(new MethodDecl(m, t, n, params, block, in.readBoolean()));
+		break;
+	    }
+	    case CONSTRUCTOR: {
+		Sequence m = readModifiers(in);
+		Name n = readName(in);
+		body.append(new ConstructorDecl(m, n, readParams(in), null, new Sequence()));
+		break;
+	    }
+	    default:
+		throw new IOException("bad member tag");
+	    }
+	}
+	return new ClassDecl(modifiers, name, superClass, interfaces, body, isInterface);
+    }
+}
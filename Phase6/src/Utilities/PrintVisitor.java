@@ -23,7 +23,7 @@ public class PrintVisitor extends Visitor {
     
     /* ARRAY ACCESS EXPRESSION */
     public Object visitArrayAccessExpr(ArrayAccessExpr ae) {
-	System.out.println(indent(ae.line) + "Array Access Expression:");
+	System.out.println(indent(ae.getLine()) + "Array Access Expression:");
 	indent += 2;
 	super.visitArrayAccessExpr(ae);
 	indent -=2;
@@ -32,7 +32,7 @@ public class PrintVisitor extends Visitor {
     
     /* ARRAY LITERAL */
     public Object visitArrayLiteral(ArrayLiteral al) {
-	System.out.println(indent(al.line) + "Array Literal:");
+	System.out.println(indent(al.getLine()) + "Array Literal:");
 	indent += 2;
 	super.visitArrayLiteral(al);
 	indent -= 2;
@@ -41,7 +41,7 @@ public class PrintVisitor extends Visitor {
     
     /* ARRAY TYPE */
     public Object visitArrayType(ArrayType at) {
-	System.out.print(indent(at.line) + "Array Type: ");
+	System.out.print(indent(at.getLine()) + "Array Type: ");
 	for (int i=0;i<at.getDepth();i++)
 	    System.out.print("[]");
 	System.out.println();
@@ -53,7 +53,7 @@ public class PrintVisitor extends Visitor {
     
     /* ASSIGNMENT */
     public Object visitAssignment(Assignment as) {
-	System.out.println(indent(as.line) + "Assignment:");
+	System.out.println(indent(as.getLine()) + "Assignment:");
 	indent += 2;
 	super.visitAssignment(as);
 	indent -= 2;
@@ -62,13 +62,13 @@ public class PrintVisitor extends Visitor {
     
     /* ASSIGNMENT OP */
     public Object visitAssignmentOp(AssignmentOp ao) {
-	System.out.println(indent(ao.line) + "AssignmentOp = " + ao.operator());
+	System.out.println(indent(ao.getLine()) + "AssignmentOp = " + ao.operator());
 	return null;
     }
     
     /* BINARY EXPRESSION */
     public Object visitBinaryExpr(BinaryExpr be) {
-	System.out.println(indent(be.line) + "BinaryExpr:");
+	System.out.println(indent(be.getLine()) + "BinaryExpr:");
 	indent += 2;
 	super.visitBinaryExpr(be);
 	indent -= 2;
@@ -77,13 +77,13 @@ public class PrintVisitor extends Visitor {
     
     /* BINARY OPERATOR */
     public Object visitBinOp(BinOp bo) {
-	System.out.println(indent(bo.line) + "BinOp = " + bo.operator());
+	System.out.println(indent(bo.getLine()) + "BinOp = " + bo.operator());
 	return null;
     }
     
     /* BLOCK */
     public Object visitBlock(Block bl) {
-	System.out.println(indent(bl.line) + "Block:");
+	System.out.println(indent(bl.getLine()) + "Block:");
 	indent += 2;
 	super.visitBlock(bl);
 	indent -= 2;
@@ -92,13 +92,13 @@ public class PrintVisitor extends Visitor {
     
     /* BREAK STATEMENT */
     public Object visitBreakStat(BreakStat bs) {
-	System.out.println(indent(bs.line) + "BreakStat");
+	System.out.println(indent(bs.getLine()) + "BreakStat");
 	return null;
     }
     
     /* CAST EXPRESSION */
     public Object visitCastExpr(CastExpr ce) {
-	System.out.println(indent(ce.line) + "CastExpr:");
+	System.out.println(indent(ce.getLine()) + "CastExpr:");
 	indent += 2;
 	super.visitCastExpr(ce);
 	indent -= 2;
@@ -108,7 +108,7 @@ public class PrintVisitor extends Visitor {
     /* CONSTRUCTOR INVOCATION (EXPLICIT) */
     public Object visitCInvocation(CInvocation ci) {
 	if (ci.superConstructorCall())
-	    System.out.println(indent(ci.line) + "CInvocation (super):");
+	    System.out.println(indent(ci.getLine()) + "CInvocation (super):");
 	else
 	    indent += 2;
 	super.visitCInvocation(ci);
@@ -119,22 +119,22 @@ public class PrintVisitor extends Visitor {
     /* CLASS DECLARATION */
     public Object visitClassDecl(ClassDecl cd) {
 	if (cd.isClass())
-	    System.out.println(indent(cd.line) + "ClassDecl: (Class)");
+	    System.out.println(indent(cd.getLine()) + "ClassDecl: (Class)");
 	else
-	    System.out.println(indent(cd.line) + "ClassDecl: (Interface)");
-	System.out.println(indent(cd.line) + "  [Name       :: " + cd.className() + " ]");
-	System.out.println(indent(cd.line) + "  [MethodTable:: " + cd.methodTable + " ]");
-	System.out.println(indent(cd.line) + "  [FieldTable :: " + cd.fieldTable + " ]");
-	System.out.println(indent(cd.line) + "  [Modifiers  :: " + cd.modifiers + "]");
+	    System.out.println(indent(cd.getLine()) + "ClassDecl: (Interface)");
+	System.out.println(indent(cd.getLine()) + "  [Name       :: " + cd.className() + " ]");
+	System.out.println(indent(cd.getLine()) + "  [MethodTable:: " + cd.methodTable + " ]");
+	System.out.println(indent(cd.getLine()) + "  [FieldTable :: " + cd.fieldTable + " ]");
+	System.out.println(indent(cd.getLine()) + "  [Modifiers  :: " + cd.modifiers + "]");
 	if (cd.isClass()) 
 	    if (cd.superClass() != null)
-		System.out.println(indent(cd.line) + "  [Extends     :: " + cd.superClass().typeName() + "]"); 
+		System.out.println(indent(cd.getLine()) + "  [Extends     :: " + cd.superClass().typeName() + "]"); 
 	
 	if (cd.interfaces() != null) {
 	    if (cd.isClass())	
-		System.out.print(indent(cd.line) + "  [Implements :: ");
+		System.out.print(indent(cd.getLine()) + "  [Implements :: ");
 	    else
-		System.out.print(indent(cd.line) + "  [Extends  :: ");
+		System.out.print(indent(cd.getLine()) + "  [Extends  :: ");
 	    for (int i=0; i<cd.interfaces().nchildren; i++) 
 		System.out.print(((ClassType)cd.interfaces().children[i]).typeName() + " ");
 	    System.out.println("]");
@@ -147,7 +147,7 @@ public class PrintVisitor extends Visitor {
     
     /* CLASS TYPE */
     public Object visitClassType(ClassType ct) {
-	System.out.println(indent(ct.line) + "ClassType:");
+	System.out.println(indent(ct.getLine()) + "ClassType:");
 	indent += 2;
 	super.visitClassType(ct);
 	indent -= 2;
@@ -156,8 +156,8 @@ public class PrintVisitor extends Visitor {
     
     /* COMPILATION UNIT */
     public Object visitCompilation(Compilation co) {
-	System.out.println(indent(co.line) + "Compilation:");
-	System.out.println(indent(co.line) + "  [ClassTable:: " + Phase.classTable + " ]");
+	System.out.println(indent(co.getLine()) + "Compilation:");
+	System.out.println(indent(co.getLine()) + "  [ClassTable:: " + CompilationContext.current().classTable + " ]");
 	indent += 2;
 	super.visitCompilation(co);
 	indent -= 2;
@@ -166,9 +166,9 @@ public class PrintVisitor extends Visitor {
     
     /* CONSTRUCTOR DECLARATION */
     public Object visitConstructorDecl(ConstructorDecl cd) {
-	System.out.println(indent(cd.line) + "ConstructorDecl: (Constructor)");
-	System.out.println(indent(cd.line) + "  [Name      :: " + cd.name() + "]");
-	System.out.println(indent(cd.line) + "  [Modifiers :: " + cd.getModifiers() + "]");
+	System.out.println(indent(cd.getLine()) + "ConstructorDecl: (Constructor)");
+	System.out.println(indent(cd.getLine()) + "  [Name      :: " + cd.name() + "]");
+	System.out.println(indent(cd.getLine()) + "  [Modifiers :: " + cd.getModifiers() + "]");
 	indent += 2; 
 	if (cd.params() != null)
 	    cd.params().visit(this);
@@ -182,13 +182,13 @@ public class PrintVisitor extends Visitor {
     
     /* CONTINUE STATEMENT */
     public Object visitContinueStat(ContinueStat cs) {
-	System.out.println(indent(cs.line) + "Continue");
+	System.out.println(indent(cs.getLine()) + "Continue");
 	return null;
     } 
     
     /* DO STATEMENT */
     public Object visitDoStat(DoStat ds) {
-	System.out.println(indent(ds.line) + "DoStat:");
+	System.out.println(indent(ds.getLine()) + "DoStat:");
 	indent += 2;
 	super.visitDoStat(ds);
 	indent -= 2;
@@ -197,7 +197,7 @@ public class PrintVisitor extends Visitor {
     
     /* EXPRESSION STATEMENT */
     public Object visitExprStat(ExprStat es) {
-	System.out.println(indent(es.line) + "ExprStat:");
+	System.out.println(indent(es.getLine()) + "ExprStat:");
 	indent += 2;
 	super.visitExprStat(es);
 	indent -= 2;
@@ -206,8 +206,8 @@ public class PrintVisitor extends Visitor {
     
     /* FIELD DECLARATION */
     public Object visitFieldDecl(FieldDecl fd) {
-	System.out.println(indent(fd.line) + "FieldDecl:");
-	System.out.println(indent(fd.line) + "  [Modifiers: " + fd.modifiers + "]");
+	System.out.println(indent(fd.getLine()) + "FieldDecl:");
+	System.out.println(indent(fd.getLine()) + "  [Modifiers: " + fd.modifiers + "]");
 	indent += 2;
 	super.visitFieldDecl(fd);
 	indent -= 2;
@@ -216,7 +216,7 @@ public class PrintVisitor extends Visitor {
     
     /* FIELD REFERENCE */
     public Object visitFieldRef(FieldRef fr) {
-	System.out.println(indent(fr.line) + "FieldRef:");
+	System.out.println(indent(fr.getLine()) + "FieldRef:");
 	indent +=2;
 	super.visitFieldRef(fr);
 	indent -=2;
@@ -225,7 +225,7 @@ public class PrintVisitor extends Visitor {
     
     /* FOR STATEMENT */
     public Object visitForStat(ForStat fs) {
-	System.out.println(indent(fs.line) + "ForStat:");
+	System.out.println(indent(fs.getLine()) + "ForStat:");
 	indent += 2;
 	super.visitForStat(fs);
 	indent -= 2;
@@ -234,7 +234,7 @@ public class PrintVisitor extends Visitor {
     
     /* IF STATEMENT */
     public Object visitIfStat(IfStat is) {
-	System.out.println(indent(is.line) + "IfStat:");
+	System.out.println(indent(is.getLine()) + "IfStat:");
 	indent += 2;
 	super.visitIfStat(is);
 	indent -= 2;
@@ -243,7 +243,7 @@ public class PrintVisitor extends Visitor {
     
     /* INVOCATION */
     public Object visitInvocation(Invocation in) {
-	System.out.println(indent(in.line) + "Invocation:");
+	System.out.println(indent(in.getLine()) + "Invocation:");
 	indent += 2;
 	super.visitInvocation(in);
 	indent -= 2;
@@ -252,7 +252,7 @@ public class PrintVisitor extends Visitor {
     
     /* LITERAL */
     public Object visitLiteral(Literal li) {
-	System.out.println(indent(li.line) + "Literal = " + li);
+	System.out.println(indent(li.getLine()) + "Literal = " + li);
 	indent += 2;
 	super.visitLiteral(li);
 	indent -= 2;
@@ -261,7 +261,7 @@ public class PrintVisitor extends Visitor {
     
     /* VARIABLE LOCAL DECLARATION */
     public Object visitLocalDecl(LocalDecl ld) {
-	System.out.println(indent(ld.line) + "LocalDecl:");
+	System.out.println(indent(ld.getLine()) + "LocalDecl:");
 	indent += 2;
 	super.visitLocalDecl(ld);
 	indent -= 2;
@@ -270,10 +270,10 @@ public class PrintVisitor extends Visitor {
     
     /* METHOD DECLARATION*/
     public Object visitMethodDecl(MethodDecl md) {
-	System.out.println(indent(md.line) + "MethodDecl: (Method)");
-	System.out.println(indent(md.line) + "  [Name        :: " + md.name() + "]");
-	System.out.println(indent(md.line) + "  [Modifiers   :: " + md.getModifiers() + "]");
-	System.out.println(indent(md.line) + "  [Return type :: " + md.returnType().typeName() + " ]");
+	System.out.println(indent(md.getLine()) + "MethodDecl: (Method)");
+	System.out.println(indent(md.getLine()) + "  [Name        :: " + md.name() + "]");
+	System.out.println(indent(md.getLine()) + "  [Modifiers   :: " + md.getModifiers() + "]");
+	System.out.println(indent(md.getLine()) + "  [Return type :: " + md.returnType().typeName() + " ]");
 	indent += 2;
 	md.params().visit(this);
 	if (md.block() != null)
@@ -284,13 +284,13 @@ public class PrintVisitor extends Visitor {
     
     /* NAME */
     public Object visitName(Name na) {
-	System.out.println(indent(na.line) + "Name = " + na);
+	System.out.println(indent(na.getLine()) + "Name = " + na);
 	return null;
     }
     
     /* NAME EXPRESSION */
     public Object visitNameExpr(NameExpr ne) {
-	System.out.println(indent(ne.line) + "NameExpr:");
+	System.out.println(indent(ne.getLine()) + "NameExpr:");
 	indent += 2;
 	super.visitNameExpr(ne);
 	indent -= 2;
@@ -299,7 +299,7 @@ public class PrintVisitor extends Visitor {
     
     /* NEW EXPRESSION */
     public Object visitNew(New ne) {
-	System.out.println(indent(ne.line) + "New:");
+	System.out.println(indent(ne.getLine()) + "New:");
 	indent += 2;
 	super.visitNew(ne);
 	indent -= 2;
@@ -308,7 +308,7 @@ public class PrintVisitor extends Visitor {
     
     /* NEW ARRAY */
     public Object visitNewArray(NewArray ne) {
-	System.out.println(indent(ne.line) + "New Array");
+	System.out.println(indent(ne.getLine()) + "New Array");
 	indent += 2;
 	super.visitNewArray(ne);
 	indent -= 2;
@@ -318,7 +318,7 @@ public class PrintVisitor extends Visitor {
     
     /* VARIABLE PARAMETER DECLARATION */
     public Object visitParamDecl(ParamDecl pd) {
-	System.out.println(indent(pd.line) + "ParamDecl: ");
+	System.out.println(indent(pd.getLine()) + "ParamDecl: ");
 	indent += 2;
 	super.visitParamDecl(pd);
 	indent -= 2;
@@ -327,28 +327,28 @@ public class PrintVisitor extends Visitor {
     
     /* POSTFIX OPERATOR */
     public Object visitPostOp(PostOp po) {
-	System.out.println(indent(po.line) + "PostOp = " + po.operator());
+	System.out.println(indent(po.getLine()) + "PostOp = " + po.operator());
 	return null;
     }
     
     /* PREFIX OPERATOR */
     public Object visitPreOp(PreOp po) {
-	System.out.println(indent(po.line) + "PreOp = " + po.operator());
+	System.out.println(indent(po.getLine()) + "PreOp = " + po.operator());
 	return null;
     }
     
     /* PRIMITIVE TYPE */
     public Object visitPrimitiveType(PrimitiveType pt) {
-	System.out.println(indent(pt.line) + "PrimitiveType = " + pt);
+	System.out.println(indent(pt.getLine()) + "PrimitiveType = " + pt);
 	return null;
     }
     
     /* RETURN STATEMENT */
     public Object visitReturnStat(ReturnStat rs) {
 	if (rs.expr() == null)
-	    System.out.println(indent(rs.line) + "Return");
+	    System.out.println(indent(rs.getLine()) + "Return");
 	else
-	    System.out.println(indent(rs.line) + "Return:");
+	    System.out.println(indent(rs.getLine()) + "Return:");
 	indent += 2;
 	super.visitReturnStat(rs);
 	indent -= 2;
@@ -357,10 +357,10 @@ public class PrintVisitor extends Visitor {
     
     /* SEQUENCE */
     public Object visitSequence(Sequence se) {
-	System.out.println(indent(se.line) + "Sequence:[" + se.nchildren + " nodes]");
+	System.out.println(indent(se.getLine()) + "Sequence:[" + se.nchildren + " nodes]");
 	for (int i=0; i<se.nchildren; i++) {
 	    if (se.children[i] != null) {
-		System.out.println(indent(se.children[i].line) + "Sequence[" + i + "]:");
+		System.out.println(indent(se.children[i].getLine()) + "Sequence[" + i + "]:");
 		indent += 2;
 		se.children[i].visit(this);
 		indent -= 2;
@@ -371,7 +371,7 @@ public class PrintVisitor extends Visitor {
     
     /* STATIC INITIALIZER **/
     public Object visitStaticInitDecl(StaticInitDecl si) {
-	System.out.println(indent(si.line) + "Static Initializer:");
+	System.out.println(indent(si.getLine()) + "Static Initializer:");
 	indent += 2;
 	super.visitStaticInitDecl(si);
 	indent -= 2;
@@ -380,13 +380,13 @@ public class PrintVisitor extends Visitor {
     
     /* SUPER **/
     public Object visitSuper(Super su) {
-	System.out.println(indent(su.line) + "Super");
+	System.out.println(indent(su.getLine()) + "Super");
 	return null;
     }
     
     /* SWITCH GROUP */
     public Object visitSwitchGroup(SwitchGroup sg) {	
-	System.out.println(indent(sg.line) + "Switch Group:");
+	System.out.println(indent(sg.getLine()) + "Switch Group:");
 	indent += 2;
 	super.visitSwitchGroup(sg);
 	indent -= 2;
@@ -395,7 +395,7 @@ public class PrintVisitor extends Visitor {
     
     /* SWITCH LABEL */
     public Object visitSwitchLabel(SwitchLabel sl) {
-	System.out.println(indent(sl.line) + "Switch Label:");
+	System.out.println(indent(sl.getLine()) + "Switch Label:");
 	indent += 2;
 	super.visitSwitchLabel(sl);
 	indent -= 2;
@@ -404,7 +404,7 @@ public class PrintVisitor extends Visitor {
     
     /* SWITCH STAT */
     public Object visitSwitchStat(SwitchStat st) {
-	System.out.println(indent(st.line) + "Switch Stat:");
+	System.out.println(indent(st.getLine()) + "Switch Stat:");
 	indent += 2;
 	super.visitSwitchStat(st);
 	indent -= 2;
@@ -413,7 +413,7 @@ public class PrintVisitor extends Visitor {
     
     /* TERNARY EXPRESSION */
     public Object visitTernary(Ternary te) {
-	System.out.println(indent(te.line) + "Ternary:");
+	System.out.println(indent(te.getLine()) + "Ternary:");
 	indent += 2;
 	super.visitTernary(te);
 	indent -= 2;
@@ -422,13 +422,13 @@ public class PrintVisitor extends Visitor {
     
     /* THIS STATEMENT */
     public Object visitThis(This th) {
-	System.out.println(indent(th.line) + "This");
+	System.out.println(indent(th.getLine()) + "This");
 	return null;
     }
     
     /* UNARY POST EXPRESSION */
     public Object visitUnaryPostExpr(UnaryPostExpr up) {
-	System.out.println(indent(up.line) + "UnaryPostExpr:");
+	System.out.println(indent(up.getLine()) + "UnaryPostExpr:");
 	indent += 2;
 	super.visitUnaryPostExpr(up);
 	indent -= 2;
@@ -437,7 +437,7 @@ public class PrintVisitor extends Visitor {
     
     /* UNARY PRE EXPRESSION */
     public Object visitUnaryPreExpr(UnaryPreExpr up) {
-	System.out.println(indent(up.line) + "UnaryPreExpr:");
+	System.out.println(indent(up.getLine()) + "UnaryPreExpr:");
 	indent += 2;
 	super.visitUnaryPreExpr(up);
 	indent -= 2;
@@ -446,7 +446,7 @@ public class PrintVisitor extends Visitor {
     
     /* VAR(IABLE) */
     public Object visitVar(Var va) {
-	System.out.println(indent(va.line) + "Var:"); 
+	System.out.println(indent(va.getLine()) + "Var:"); 
 	indent += 2;
 	super.visitVar(va);
 	indent -= 2;
@@ -455,7 +455,7 @@ public class PrintVisitor extends Visitor {
     
     /* WHILE STATEMENT */
     public Object visitWhileStat(WhileStat ws) {
-	System.out.println(indent(ws.line) + "WhileStat:");
+	System.out.println(indent(ws.getLine()) + "WhileStat:");
 	indent += 2;
 	super.visitWhileStat(ws);
 	indent -= 2;
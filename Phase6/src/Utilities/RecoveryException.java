@@ -0,0 +1,14 @@
+package Utilities;
+
+/**
+ * Thrown by {@link Error#error} inside a recovery point (see
+ * {@link Error#enterRecovery}) to stop checking the current member (see
+ * {@link Visitor#visitMembers}) or class. The
+ * error has been recorded when this is thrown; it is reported at the end
+ * of the phase.
+ */
+public class RecoveryException extends RuntimeException {
+    public RecoveryException() {
+	super("error recovery");
+    }
+}
@@ -48,15 +48,15 @@ public class Rewrite {
 			FieldRef fr;
 			// Add the class name as the target
 			if (fd.isStatic()) {
-			    NameExpr na = new NameExpr(new Name(new Token(sym.IDENTIFIER, cd.name(), ne.line, ne.charBegin, ne.charBegin + cd.name().length())));
+			    NameExpr na = new NameExpr(new Name(new Token(sym.IDENTIFIER, cd.name(), ne.getLine(), ne.getCharBegin(), ne.getCharBegin() + cd.name().length())));
 			    na.myDecl = cd;
 			    fr = new FieldRef(na, ne.name());
 			    fr.rewritten = true;
 			    a.children[i] = fr;
 			} else {
 			    // Add 'this' as target
-			    This th = new This(new Token(sym.THIS, "this", ne.line, ne.charBegin, ne.charBegin + 4));
-			    ClassType ct = new ClassType(new Name(new Token(sym.IDENTIFIER, cd.name(), ne.line, ne.charBegin, ne.charBegin + cd.name().length())));
+			    This th = new This(new Token(sym.THIS, "this", ne.getLine(), ne.getCharBegin(), ne.getCharBegin() + 4));
+			    ClassType ct = new ClassType(new Name(new Token(sym.IDENTIFIER, cd.name(), ne.getLine(), ne.getCharBegin(), ne.getCharBegin() + cd.name().length())));
 			    ct.myDecl = cd;
 			    th.type = ct;
 			    fr = new FieldRef(th, ne.name());
@@ -0,0 +1,203 @@
+package Utilities;
+
+import java.util.*;
+
+/**
+ * The nested scopes (parameters and locals) opened on top of a symbol
+ * table with {@link SymbolTable#newScope}. All scopes share one open
+ * addressing hash map that holds the innermost entry of each name, so a
+ * lookup takes the same time however deep the scopes are nested. Each
+ * put is recorded in an undo log, and closing a scope undoes the puts
+ * made since it was opened. Neither opening nor closing a scope
+ * allocates anything; the arrays only grow when they are full.
+ *
+ * Names not found in any open scope are looked up in the table the
+ * scopes were opened on. That table itself is never changed.
+ */
+class ScopedSymbolTable extends SymbolTable {
+
+    // the table the scopes were opened on
+    private SymbolTable base;
+
+    // the map: keys[i] == null means slot i is free. depths[i] is the
+    // scope the entry in slot i was put in (the outermost is 1).
+    private String keys[] = new String[32];
+    private Object values[] = new Object[32];
+    private int depths[] = new int[32];
+    private int size = 0;
+
+    // the undo log: the name put and what it was before (depth 0 if it
+    // was not in the map).
+    private String logKeys[] = new String[32];
+    private Object logValues[] = new Object[32];
+    private int logDepths[] = new int[32];
+    private int logSize = 0;
+
+    // marks[d-1] is the size of the log when scope d was opened.
+    private int marks[] = new int[16];
+    private int depth = 0;
+
+    ScopedSymbolTable(SymbolTable base) {
+	this.base = base;
+    }
+
+    /**
+     * Empties the table and opens the outermost scope.
+     */
+    SymbolTable open() {
+	if (size > 0 || logSize > 0) {
+	    // a scope was left open (by an error); start afresh.
+	    Arrays.fill(keys, null);
+	    Arrays.fill(values, null);
+	    Arrays.fill(logKeys, 0, logSize, null);
+	    Arrays.fill(logValues, 0, logSize, null);
+	    size = 0;
+	    logSize = 0;
+	}
+	depth = 0;
+	return newScope();
+    }
+
+    // home: the first slot looked at for a name.
+    private int home(String name) {
+	int h = name.hashCode();
+	return (h ^ (h >>> 16)) & (keys.length - 1);
+    }
+
+    // slot: the slot of name, or the free slot it would go in.
+    private int slot(String name) {
+	int mask = keys.length - 1;
+	int i = home(name);
+	while (keys[i] != null && !keys[i].equals(name))
+	    i = (i + 1) & mask;
+	return i;
+    }
+
+    public void put(String name, Object entry) {
+	int i = slot(name);
+	if (keys[i] != null && depths[i] == depth)
+	    Error.error("Symbol '" + name + "' already defined in this scope.");
+	if (logSize == logKeys.length) {
+	    logKeys = Arrays.copyOf(logKeys, logSize * 2);
+	    logValues = Arrays.copyOf(logValues, logSize * 2);
+	    logDepths = Arrays.copyOf(logDepths, logSize * 2);
+	}
+	logKeys[logSize] = name;
+	logValues[logSize] = values[i];
+	logDepths[logSize] = (keys[i] == null ? 0 : depths[i]);
+	logSize++;
+	if (keys[i] == null) {
+	    keys[i] = name;
+	    size++;
+	}
+	values[i] = entry;
+	depths[i] = depth;
+	if (size * 2 > keys.length)
+	    grow();
+    }
+
+    public Object get(String name) {
+	int i = slot(name);
+	if (keys[i] != null)
+	    return values[i];
+	return base.get(name);
+    }
+
+    public void remove(String name) {
+	int i = slot(name);
+	if (keys[i] == null || depths[i] != depth)
+	    return;
+	// bring back what the name was before it was put in this scope
+	for (int l=logSize-1; l>=marks[depth-1]; l--)
+	    if (logKeys[l].equals(name)) {
+		if (logDepths[l] == 0)
+		    delete(i);
+		else {
+		    values[i] = logValues[l];
+		    depths[i] = logDepths[l];
+		}
+		return;
+	    }
+    }
+
+    public SymbolTable newScope() {
+	if (depth == marks.length)
+	    marks = Arrays.copyOf(marks, depth * 2);
+	marks[depth++] = logSize;
+	return this;
+    }
+
+    public SymbolTable closeScope() {
+	int mark = marks[--depth];
+	while (logSize > mark) {
+	    logSize--;
+	    String name = logKeys[logSize];
+	    int i = slot(name);
+	    if (keys[i] != null) {
+		if (logDepths[logSize] == 0)
+		    delete(i);
+		else {
+		    values[i] = logValues[logSize];
+		    depths[i] = logDepths[logSize];
+		}
+	    }
+	    logKeys[logSize] = null;
+	    logValues[logSize] = null;
+	}
+	return depth == 0 ? base : this;
+    }
+
+    // delete: empties slot i, moving entries after it back so no lookup
+    //         stops at the hole.
+    private void delete(int i) {
+	int mask = keys.length - 1;
+	keys[i] = null;
+	values[i] = null;
+	size--;
+	int j = i;
+	while (true) {
+	    j = (j + 1) & mask;
+	    if (keys[j] == null)
+		return;
+	    int home = home(keys[j]);
+	    // the entry in j stays if its home lies (cyclically) in (i, j]
+	    boolean stays = (i <= j) ? (i < home && home <= j) : (i < home || home <= j);
+	    if (!stays) {
+		keys[i] = keys[j];
+		values[i] = values[j];
+		depths[i] = depths[j];
+		keys[j] = null;
+		values[j] = null;
+		i = j;
+	    }
+	}
+    }
+
+    private void grow() {
+	String oldKeys[] = keys;
+	Object oldValues[] = values;
+	int oldDepths[] = depths;
+	keys = new String[oldKeys.length * 2];
+	values = new Object[oldKeys.length * 2];
+	depths = new int[oldKeys.length * 2];
+	for (int j=0; j<oldKeys.length; j++)
+	    if (oldKeys[j] != null) {
+		int i = slot(oldKeys[j]);
+		keys[i] = oldKeys[j];
+		values[i] = oldValues[j];
+		depths[i] = oldDepths[j];
+	    }
+    }
+
+    public String toString() {
+	String s = "";
+	for (int d=depth; d>0; d--) {
+	    Hashtable<String, Object> scope = new Hashtable<String, Object>();
+	    for (int i=0; i<keys.length; i++)
+		if (keys[i] != null && depths[i] == d)
+		    scope.put(keys[i], values[i]);
+	    s = s + scope + "\n";
+	}
+	return s + base.toString();
+    }
+}
@@ -1,23 +1,57 @@
 package Utilities;
 
-/** Holds the settings that can be set by the user
- * 
+/** Holds the settings that can be set by the user. Each
+ * {@link CompilationContext} has its own.
+ *
  * @author Matt Pedersen
  *
  */
 public class Settings {
 	/** Directory where the Espresso include (source) files are located */
-	public static String includeDir = "Include";
+	public String includeDir = "Include";
 	/** Determine if the code generated is for the EVM or the JVM.
 	 * If code is generated for the JVM, the Main method will take in
 	 * an array of Strings; otherwise it will not take any parameters
 	 */
-	public static boolean generateEVMCode = false; // are we generating code for the EVM?
+	public boolean generateEVMCode = false; // are we generating code for the EVM?
 	/** The extension of the Jasmin files generated by the compiler.
-	 * The default is '.j' - this can be changed to '.rj' by the -ref 
+	 * The default is '.j' - this can be changed to '.rj' by the -ref
 	 * command line option.
 	 */
-	public static String fileExt = ".j"; // command line -ref changes this
+	public String fileExt = ".j"; // command line -ref changes this
+
+    public boolean writeCommentsInJasminFile = true;
+
+	/** If true, binary .class files are written directly instead of
+	 * Jasmin files. Set by the -class command line option.
+	 */
+	public boolean writeClassFiles = false;
+
+	/** If true, the headers of the import files are cached (see
+	 * {@link HeaderCache}). Cleared by the -noheaders command line option.
+	 */
+	public boolean useHeaderCache = true;
+	/** Directory of the header cache; if null it is '.headers' in the
+	 * include directory. Set by the -H command line option.
+	 */
+	public String headerCacheDir = null;
+
+	/** If true, only the classes that have changed (or depend on
+	 * classes whose headers have changed) since the last compilation
+	 * are compiled (see {@link DependencyGraph}). Set by the
+	 * -incremental command line option.
+	 */
+	public boolean incremental = false;
 
-    public static boolean writeCommentsInJasminFile = true;
+	/** The classes that are traced (by the -T options); if null all
+	 * classes are. Set by the -Tclass= command line option.
+	 */
+	public java.util.HashSet<String> traceClasses = null;
+
+	/** Returns true if the class is traced (when tracing is on).
+	 * @param className The name of a class.
+	 */
+	public boolean traces(String className) {
+		return traceClasses == null || traceClasses.contains(className);
+	}
 }
@@ -0,0 +1,247 @@
+package Utilities;
+
+import AST.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects per-phase metrics of a compilation (turned on by -Tstats):
+ * wall time, allocated bytes, number of nodes in the parse tree, size of
+ * the class table and the symbol tables of the classes, and the number of
+ * instructions generated for each method.
+ *
+ * Allocated bytes are those of the compiling thread plus those of the
+ * tasks a phase runs on other threads (which report them through
+ * {@link #startTask} and {@link #endTask}), so other compilations in the
+ * same JVM do not count.
+ */
+public class Statistics {
+
+    /** Set by -Tstats. If false none of the methods below do anything. */
+    public boolean enabled = false;
+
+    // one row of the phase table
+    private static class PhaseRecord {
+	String name;
+	double millis;
+	long allocated; // -1 if the JVM cannot tell
+	int nodes;
+	int classes;
+	int symbols;
+    }
+
+    // one row of the method table
+    private static class MethodRecord {
+	String name;
+	int instructions;
+	int optimized = -1; // -1 if not optimized
+    }
+
+    private String fileName = "";
+    private long startTime;
+    private long startAllocated;
+    private long compilingThread;
+    // allocated by the tasks of the current phase on other threads
+    private AtomicLong taskAllocated = new AtomicLong();
+    private Vector<PhaseRecord> phases = new Vector<PhaseRecord>();
+    private LinkedHashMap<String, MethodRecord> methods = new LinkedHashMap<String, MethodRecord>();
+
+    // the JSON for each compilation so far (for a batch)
+    private Vector<String> compilations = new Vector<String>();
+
+    /**
+     * Starts the statistics for a new compilation.
+     */
+    public void reset(String file) {
+	fileName = file;
+	phases.clear();
+	methods.clear();
+    }
+
+    /**
+     * Marks the start of a phase.
+     */
+    public void startPhase() {
+	if (!enabled)
+	    return;
+	compilingThread = Thread.currentThread().getId();
+	taskAllocated.set(0);
+	startAllocated = allocatedBytes();
+	startTime = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a phase and records its statistics.
+     * @param name The name of the phase.
+     * @param root The parse tree (may be null).
+     * @param classTable The global class table.
+     */
+    public void endPhase(String name, AST root, SymbolTable classTable) {
+	if (!enabled)
+	    return;
+	PhaseRecord r = new PhaseRecord();
+	r.millis = (System.nanoTime() - startTime) / 1e6;
+	long allocated = allocatedBytes();
+	r.allocated = (allocated < 0 || startAllocated < 0) ? -1 : allocated - startAllocated + taskAllocated.get();
+	r.name = name;
+	r.nodes = countNodes(root);
+	r.classes = classTable.entries.size();
+	r.symbols = 0;
+	for (Object o : classTable.entries.values()) {
+	    ClassDecl cd = (ClassDecl)o;
+	    r.symbols += cd.fieldTable.entries.size();
+	    for (Object m : cd.methodTable.entries.values())
+		r.symbols += ((SymbolTable)m).entries.size();
+	}
+	phases.addElement(r);
+    }
+
+    /**
+     * Records the number of instructions of a method.
+     * @param name The name of the method (including its class).
+     * @param instructions The number of instructions.
+     * @param optimized True if this is the count after optimization.
+     */
+    public void methodInstructions(String name, int instructions, boolean optimized) {
+	if (!enabled)
+	    return;
+	MethodRecord r = methods.get(name);
+	if (r == null) {
+	    r = new MethodRecord();
+	    r.name = name;
+	    methods.put(name, r);
+	}
+	if (optimized)
+	    r.optimized = instructions;
+	else
+	    r.instructions = instructions;
+    }
+
+    /**
+     * Marks the start of a task of the current phase. Tasks that may run
+     * on other threads (like those of a fork-join pool) must not start
+     * tasks of their own, or their allocation is counted twice.
+     * @return What {@link #endTask} needs.
+     */
+    public long startTask() {
+	return enabled ? allocatedBytes() : -1;
+    }
+
+    /**
+     * Marks the end of a task started with {@link #startTask} and adds
+     * what it allocated to the current phase, unless it ran on the
+     * compiling thread (which is counted by itself).
+     */
+    public void endTask(long start) {
+	if (!enabled || start < 0 || Thread.currentThread().getId() == compilingThread)
+	    return;
+	long end = allocatedBytes();
+	if (end >= 0)
+	    taskAllocated.addAndGet(end - start);
+    }
+
+    private static int countNodes(AST a) {
+	if (a == null)
+	    return 0;
+	int count = 1;
+	for (int i=0; i<a.nchildren; i++)
+	    count += countNodes(a.children[i]);
+	return count;
+    }
+
+    // allocatedBytes: the bytes allocated so far by the current thread.
+    private static long allocatedBytes() {
+	java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+	if (!(bean instanceof com.sun.management.ThreadMXBean))
+	    return -1;
+	com.sun.management.ThreadMXBean b = (com.sun.management.ThreadMXBean)bean;
+	if (!b.isThreadAllocatedMemorySupported() || !b.isThreadAllocatedMemoryEnabled())
+	    return -1;
+	return b.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Prints the statistics of the current compilation as tables.
+     */
+    public void print() {
+	if (!enabled)
+	    return;
+	System.out.println("Statistics for " + fileName + ":");
+	System.out.println(String.format("%-26s %10s %14s %10s %8s %8s", "Phase", "Time (ms)", "Allocated (KB)", "AST nodes", "Classes", "Symbols"));
+	for (PhaseRecord r : phases)
+	    System.out.println(String.format("%-26s %10.2f %14s %10d %8d %8d", r.name, r.millis,
+					     r.allocated < 0 ? "-" : "" + (r.allocated / 1024), r.nodes, r.classes, r.symbols));
+	if (methods.size() > 0) {
+	    System.out.println();
+	    System.out.println(String.format("%-50s %12s %10s", "Method", "Instructions", "Optimized"));
+	    for (MethodRecord r : methods.values())
+		System.out.println(String.format("%-50s %12d %10s", r.name, r.instructions,
+						 r.optimized < 0 ? "-" : "" + r.optimized));
+	}
+    }
+
+    /**
+     * Keeps the statistics of the current compilation for {@link #writeJSON}.
+     */
+    public void save() {
+	if (!enabled)
+	    return;
+	StringBuilder sb = new StringBuilder();
+	sb.append("  {\"file\": " + quote(fileName) + ",\n   \"phases\": [");
+	for (int i=0; i<phases.size(); i++) {
+	    PhaseRecord r = phases.elementAt(i);
+	    sb.append(i == 0 ? "\n" : ",\n");
+	    sb.append("     {\"name\": " + quote(r.name) +
+		      ", \"millis\": " + String.format(Locale.ROOT, "%.3f", r.millis) +
+		      ", \"allocatedBytes\": " + r.allocated +
+		      ", \"astNodes\": " + r.nodes +
+		      ", \"classes\": " + r.classes +
+		      ", \"symbols\": " + r.symbols + "}");
+	}
+	sb.append("],\n   \"methods\": [");
+	int i = 0;
+	for (MethodRecord r : methods.values()) {
+	    sb.append(i++ == 0 ? "\n" : ",\n");
+	    sb.append("     {\"name\": " + quote(r.name) + ", \"instructions\": " + r.instructions);
+	    if (r.optimized >= 0)
+		sb.append(", \"optimized\": " + r.optimized);
+	    sb.append("}");
+	}
+	sb.append("]}");
+	compilations.addElement(sb.toString());
+    }
+
+    /**
+     * Writes the statistics of all compilations saved so far to a file as
+     * a JSON array (one object per compilation) and forgets them.
+     */
+    public void writeJSON(String outputFileName) {
+	try {
+	    PrintWriter out = new PrintWriter(new FileOutputStream(outputFileName));
+	    out.println("[");
+	    for (int i=0; i<compilations.size(); i++)
+		out.println(compilations.elementAt(i) + (i < compilations.size()-1 ? "," : ""));
+	    out.println("]");
+	    out.close();
+	} catch (IOException e) {
+	    System.out.println("An I/O error occured while writing statistics file " + outputFileName);
+	    System.out.println(e);
+	}
+	compilations.clear();
+    }
+
+    private static String quote(String s) {
+	StringBuilder sb = new StringBuilder("\"");
+	for (char c : s.toCharArray()) {
+	    if (c == '"' || c == '\\')
+		sb.append('\\').append(c);
+	    else if (c < ' ')
+		sb.append(String.format("\\u%04x", (int)c));
+	    else
+		sb.append(c);
+	}
+	return sb.append('"').toString();
+    }
+}
@@ -3,9 +3,14 @@ package Utilities;
 import java.util.*;
 
 /** 
- * A symbol table class. Each symbol table contains a Vector that
+ * A symbol table class. Each symbol table contains a Hashtable that
  * contains the symbols defined in the scope that it corresponds to, and a
  * reference to the symbol table for its enclosing scope (if any).
+ *
+ * The scopes opened with {@link #newScope} (for parameters and locals)
+ * are not tables of their own but a {@link ScopedSymbolTable} that is
+ * kept with the table and reused, so they can only be used by one
+ * visitor at a time.
  */
 public class SymbolTable {
 
@@ -19,6 +24,11 @@ public class SymbolTable {
      */
     public Hashtable<String, Object> entries;
 
+    /**
+     * The scopes opened on this table (made the first time one is opened).
+     */
+    private ScopedSymbolTable scopes;
+
     /**
      * Creates a new symbol table with no parent.
      */
@@ -51,10 +61,8 @@ public class SymbolTable {
      */
     public void put(String name,Object entry) {
 	Object lookup = entries.get(name);
-	if (lookup != null) {
-	    System.out.println("Symbol '" + name + "' already defined in this scope.");
-	    System.exit(1);
-	}
+	if (lookup != null)
+	    Error.error("Symbol '" + name + "' already defined in this scope.");
 	entries.put(name,entry);
     }
     
@@ -89,7 +97,9 @@ public class SymbolTable {
      * @return The new scope.
      */
     public SymbolTable newScope() {
-	return new SymbolTable(this);
+	if (scopes == null)
+	    scopes = new ScopedSymbolTable(this);
+	return scopes.open();
     }
     
     /** 
@@ -0,0 +1,121 @@
+package Utilities;
+
+import AST.*;
+import java.util.Arrays;
+
+/**
+ * Runs a number of {@link TreePass}es in a single walk of a parse tree.
+ * For each node the passes are entered in the order they were given and
+ * left in the opposite order, so a pass can rely on the passes given
+ * before it having seen a node (and its children) first. A pass that
+ * depends on a pass having seen the whole tree (or all the classes)
+ * must be run by a traversal of its own.
+ *
+ * A pass that does not need the children of a node (see
+ * {@link TreePass#enter}) is not shown them; the walk only goes into a
+ * subtree that some pass wants to see.
+ *
+ * As a visitor, a traversal walks each class it is used on, so it can be
+ * run with Phases.Phase.visitClasses. Like {@link Visitor#visitMembers},
+ * it walks the members of a class one at a time: inside a recovery point
+ * an error only stops the walk of the member it is found in. The passes
+ * are not told that they leave the nodes of that member.
+ */
+public class Traversal extends Visitor {
+
+    private TreePass passes[];
+
+    // skipping[i] is the depth of the node whose children pass i does not
+    // want to see, or 0 if it sees the node being walked.
+    private int skipping[];
+
+    public Traversal(TreePass... passes) {
+	this.passes = passes;
+	this.skipping = new int[passes.length];
+    }
+
+    public boolean isTracing() {
+	for (TreePass p : passes)
+	    if (p.isTracing())
+		return true;
+	return false;
+    }
+
+    public void setTracing(boolean debug) {
+	for (TreePass p : passes)
+	    p.setTracing(debug);
+    }
+
+    public Object visitClassDecl(ClassDecl cd) {
+	walk(cd);
+	return null;
+    }
+
+    /**
+     * Walks a (sub)tree with all the passes.
+     * @param a The root of the tree.
+     */
+    public void walk(AST a) {
+	Arrays.fill(skipping, 0);
+	walk(a, 1);
+    }
+
+    private void walk(AST a, int depth) {
+	if (a == null)
+	    return;
+	if (enter(a, depth)) {
+	    AST body = a instanceof ClassDecl ? ((ClassDecl)a).body() : null;
+	    for (int c=0; c<a.nchildren; c++)
+		if (a.children[c] != null && a.children[c] == body)
+		    walkMembers(body, depth + 1);
+		else
+		    walk(a.children[c], depth + 1);
+	}
+	leave(a, depth);
+    }
+
+    // walkMembers: walks the body of a class with each member on its own
+    //              (see above).
+    private void walkMembers(AST body, int depth) {
+	if (enter(body, depth))
+	    for (int c=0; c<body.nchildren; c++) {
+		try {
+		    walk(body.children[c], depth + 1);
+		} catch (RuntimeException e) {
+		    // a RecoveryException has been recorded already, and other
+		    // failures that follow an error are most likely caused by it
+		    if (!(e instanceof RecoveryException) &&
+			(e instanceof CompilationAbortedException || Error.errorCount() == 0))
+			throw e;
+		    // go on with the next member
+		    for (int i=0; i<passes.length; i++)
+			if (skipping[i] > depth)
+			    skipping[i] = 0;
+		}
+	    }
+	leave(body, depth);
+    }
+
+    // enter: enters a node with the passes that see it. Returns true if
+    //        any of them wants to see its children.
+    private boolean enter(AST a, int depth) {
+	boolean descend = false;
+	for (int i=0; i<passes.length; i++)
+	    if (skipping[i] == 0) {
+		if (passes[i].enter(a))
+		    descend = true;
+		else
+		    skipping[i] = depth;
+	    }
+	return descend;
+    }
+
+    // leave: leaves a node with the passes that entered it.
+    private void leave(AST a, int depth) {
+	for (int i=passes.length-1; i>=0; i--)
+	    if (skipping[i] == 0 || skipping[i] == depth) {
+		skipping[i] = 0;
+		passes[i].leave(a);
+	    }
+    }
+}
@@ -0,0 +1,49 @@
+package Utilities;
+
+import AST.*;
+
+/**
+ * A pass over a parse tree that looks at one node at a time: it is told
+ * when the walk enters a node and when it leaves it again, and does not
+ * control the walk itself. Passes are run by a {@link Traversal}, which
+ * walks the tree once for all the passes it is given.
+ */
+public abstract class TreePass {
+
+    // per pass, so passes can run on different threads (see Visitor)
+    protected boolean debug;
+
+    /**
+     * Called when the walk enters a node, before its children.
+     * @param a The node.
+     * @return false if the pass does not need to see the children of a.
+     */
+    public boolean enter(AST a) {
+	return true;
+    }
+
+    /**
+     * Called when the walk leaves a node that was entered, after its
+     * children.
+     * @param a The node.
+     */
+    public void leave(AST a) {
+    }
+
+    public boolean isTracing() {
+	return debug;
+    }
+
+    public void setTracing(boolean debug) {
+	this.debug = debug;
+    }
+
+    /**
+     * Prints with a newline if debug is true.
+     * @param info The string to be printed
+     */
+    public void println(String info) {
+	if (debug)
+	    System.out.println(info);
+    }
+}
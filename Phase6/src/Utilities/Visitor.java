@@ -10,10 +10,31 @@ import AST.*;
 public abstract class Visitor {
     
     // The 'debug' field should be set in the constructor of the 
-    // extending class.
-    protected static boolean debug;
+    // extending class. It is per visitor, so visitors can run on
+    // different threads.
+    protected boolean debug;
+
+    // Trace messages that are not constant strings must be built only
+    // when tracing, that is, call sites must be guarded:
+    //     if (debug) println(cd.line + ":\tVisiting class '" + cd.name() + "'.");
+    // so no strings are built when tracing is off.
+
+    /**
+     * Returns true if the visitor traces what it does.
+     */
+    public boolean isTracing() {
+	return debug;
+    }
+
+    /**
+     * Turns tracing on or off (used to trace only some classes; see
+     * {@link Settings#traces}).
+     */
+    public void setTracing(boolean debug) {
+	this.debug = debug;
+    }
     
-    public static void print(String info) {
+    public void print(String info) {
 	if (debug)
 	    System.out.print(info);
     }
@@ -22,7 +43,7 @@ public abstract class Visitor {
      * Prints with a newline if debug is true.
      * @param info The string to be printed
      */    
-    public static void println(String info) {
+    public void println(String info) {
 	if (debug) 
 	    System.out.println(info);
     }
@@ -135,6 +156,51 @@ public abstract class Visitor {
 	return cd.visitChildren(this);
     }
 
+    /**
+     * Visits the children of a ClassDecl node like {@link #visitClassDecl}
+     * does, but the members of its body one at a time: inside a recovery
+     * point (see {@link Error#enterRecovery}) an error only stops the visit
+     * of the member it is found in (as does a failure that follows an
+     * error). {@link #recoverMember} is then called and the visit goes on
+     * with the next member.
+     * @param cd A {@link ClassDecl} node.
+     */
+    public void visitMembers(ClassDecl cd) {
+	Sequence body = cd.body();
+	for (int c = 0; c < cd.nchildren; c++) {
+	    if (cd.children[c] == null)
+		continue;
+	    if (cd.children[c] != body) {
+		cd.children[c].visit(this);
+		continue;
+	    }
+	    for (int i = 0; i < body.nchildren; i++) {
+		if (body.children[i] == null)
+		    continue;
+		try {
+		    body.children[i].visit(this);
+		} catch (RecoveryException e) {
+		    // recorded already; go on with the next member
+		    recoverMember(cd);
+		} catch (RuntimeException e) {
+		    // most likely caused by an earlier error, so skip the member
+		    if (e instanceof CompilationAbortedException || Error.errorCount() == 0)
+			throw e;
+		    recoverMember(cd);
+		}
+	    }
+	}
+    }
+
+    /**
+     * Called by {@link #visitMembers} when an error has stopped the visit
+     * of a member of a class. Visitors that keep state while inside a
+     * member must reset it here.
+     * @param cd The class of the member.
+     */
+    public void recoverMember(ClassDecl cd) {
+    }
+
     /**
      * Visits a ClassType node.
      * @param ct A {@link ClassType} node.